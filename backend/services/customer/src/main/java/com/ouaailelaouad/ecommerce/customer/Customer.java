@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @AllArgsConstructor
@@ -12,12 +15,22 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @Data
 @Builder
 @Document
+@CompoundIndex(name = "lastname_firstname", def = "{ 'lastname': 1, 'firstname': 1 }",
+        collation = Customer.CASE_INSENSITIVE)
 public class Customer {
 
+    /**
+     * Index collation; queries must use the same one (see CustomerQueryRepository) to be served by the index.
+     */
+    static final String CASE_INSENSITIVE = "{ 'locale': 'en', 'strength': 2 }";
+
     @Id
     private String id;
     private String firstname;
     private String lastname;
+    @Indexed(name = "email_unique", unique = true, collation = CASE_INSENSITIVE)
     private String email;
     private Address address;
-}
\ No newline at end of file
+    @Version
+    private Long version;
+}
@@ -1,29 +1,44 @@
 package com.ouaailelaouad.ecommerce.customer;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/customers")
 public class CustomerController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final CustomerService service;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public CustomerController(CustomerService service) {
+    public CustomerController(CustomerService service, ObjectMapper objectMapper) {
         this.service = service;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -41,9 +56,79 @@ public class CustomerController {
         return ResponseEntity.accepted().build();
     }
 
-    @GetMapping
-    public ResponseEntity<List<CustomerResponse>> findAll() {
-        return ResponseEntity.ok(this.service.findAllCustomers());
+    @PatchMapping("/{customer-id}")
+    public ResponseEntity<CustomerResponse> patchCustomer(
+            @PathVariable("customer-id") String customerId,
+            @RequestBody @Valid CustomerPatchRequest request
+    ) {
+        return ResponseEntity.ok(this.service.patchCustomer(customerId, request));
+    }
+
+    /**
+     * Every customer as one JSON array, written while the Mongo cursor is read, so the collection
+     * is never held in memory. Clients that can page should prefer {@code /page}.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> findAll() {
+        StreamingResponseBody body = outputStream -> {
+            try (var generator = this.objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                this.service.streamAllCustomers(customer -> {
+                    try {
+                        generator.writeObject(customer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CustomerPage> findPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "100") int size
+    ) {
+        return ResponseEntity.ok(this.service.findCustomers(after, size));
+    }
+
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = outputStream -> {
+            var writer = this.objectMapper.writerFor(CustomerSummary.class);
+            var out = new BufferedOutputStream(outputStream);
+            this.service.streamCustomers(customer -> {
+                try {
+                    out.write(writer.writeValueAsBytes(customer));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    @GetMapping("/by-email")
+    public ResponseEntity<CustomerResponse> findByEmail(
+            @RequestParam("email") String email
+    ) {
+        return ResponseEntity.ok(this.service.findByEmail(email));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<CustomerSummary>> searchByName(
+            @RequestParam("name") String name,
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(this.service.searchByName(name, limit));
     }
 
     @GetMapping("/exists/{customer-id}")
@@ -53,6 +138,20 @@ public class CustomerController {
         return ResponseEntity.ok(this.service.existsById(customerId));
     }
 
+    @PostMapping("/exists")
+    public ResponseEntity<Map<String, Boolean>> existsByIds(
+            @RequestBody @Valid CustomerIdsRequest request
+    ) {
+        return ResponseEntity.ok(this.service.existsByIds(request.ids()));
+    }
+
+    @PostMapping("/batch-get")
+    public ResponseEntity<List<CustomerResponse>> findByIds(
+            @RequestBody @Valid CustomerIdsRequest request
+    ) {
+        return ResponseEntity.ok(this.service.findByIds(request.ids()));
+    }
+
     @GetMapping("/{customer-id}")
     public ResponseEntity<CustomerResponse> findById(
             @PathVariable("customer-id") String customerId
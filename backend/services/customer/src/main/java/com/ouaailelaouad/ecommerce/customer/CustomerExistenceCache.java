@@ -0,0 +1,68 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Positive and negative existence lookups, kept in front of MongoDB for fan-out callers.
+ * Entries are updated on create and delete in this instance; the TTLs bound how long
+ * another instance's writes can go unseen (negative entries expire sooner).
+ */
+@Component
+public class CustomerExistenceCache {
+
+    private final Cache<String, Boolean> existence;
+
+    public CustomerExistenceCache(
+            @Value("${customer.cache.existence.maximum-size:100000}") long maximumSize,
+            @Value("${customer.cache.existence.positive-ttl:PT10M}") Duration positiveTtl,
+            @Value("${customer.cache.existence.negative-ttl:PT30S}") Duration negativeTtl
+    ) {
+        this.existence = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(String id, Boolean exists, long currentTime) {
+                        return (exists ? positiveTtl : negativeTtl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Boolean exists, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, exists, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Boolean exists, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public Boolean get(String id) {
+        return this.existence.getIfPresent(id);
+    }
+
+    public Map<String, Boolean> getAll(Collection<String> ids) {
+        var cached = new HashMap<String, Boolean>();
+        for (String id : ids) {
+            var exists = this.existence.getIfPresent(id);
+            if (exists != null) {
+                cached.put(id, exists);
+            }
+        }
+        return cached;
+    }
+
+    public void put(String id, boolean exists) {
+        this.existence.put(id, exists);
+    }
+}
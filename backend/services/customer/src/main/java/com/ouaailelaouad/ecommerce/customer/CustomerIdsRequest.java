@@ -0,0 +1,14 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CustomerIdsRequest(
+        @NotEmpty(message = "At least one customer ID is required")
+        @Size(max = CustomerService.MAX_BATCH_SIZE, message = "At most 1000 customer IDs per request")
+        List<String> ids
+) {
+
+}
@@ -0,0 +1,126 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.Validator;
+import org.apache.commons.lang.StringUtils;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * State of one bulk import: parses and validates NDJSON lines, then accounts for the result
+ * of each chunk written. Shared by both execution modes; methods are synchronized because the
+ * reactive mode parses the next chunk while the previous one is being written.
+ */
+class CustomerImport {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ObjectReader reader;
+    private final Validator validator;
+    private final int maxReportedFailures;
+    private final List<CustomerImportFailure> failures = new ArrayList<>();
+    private long received;
+    private long inserted;
+    private long updated;
+    private long failed;
+
+    CustomerImport(ObjectReader reader, Validator validator, int maxReportedFailures) {
+        this.reader = reader;
+        this.validator = validator;
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    /**
+     * A valid record ready to be written, or null when the line is blank or rejected.
+     */
+    synchronized Row parse(long line, String json) {
+        if (StringUtils.isBlank(json)) {
+            return null;
+        }
+        this.received++;
+        CustomerRequest request;
+        try {
+            request = this.reader.readValue(json);
+        } catch (JsonProcessingException e) {
+            fail(line, "Malformed JSON: " + e.getOriginalMessage());
+            return null;
+        }
+        var violations = this.validator.validate(request);
+        if (!violations.isEmpty()) {
+            fail(line, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return new Row(line, request);
+    }
+
+    /**
+     * Records the outcome of an unordered bulk write of {@code chunk}; error indexes refer to positions
+     * in the chunk. Returns the IDs known to exist afterwards, for the existence cache.
+     */
+    synchronized List<String> completed(List<Row> chunk, BulkWriteResult result, List<BulkWriteError> errors) {
+        var failedIndexes = new HashSet<Integer>();
+        for (var error : errors) {
+            failedIndexes.add(error.getIndex());
+            fail(chunk.get(error.getIndex()).line(), error.getCode() == DUPLICATE_KEY
+                    ? "A customer with this email or ID already exists"
+                    : error.getMessage());
+        }
+        var existingIds = new ArrayList<String>();
+        if (result != null) {
+            this.inserted += result.getUpserts().size();
+            this.updated += result.getMatchedCount();
+            result.getUpserts().forEach(upsert -> existingIds.add(idOf(upsert.getId())));
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            var id = chunk.get(i).request().id();
+            if (StringUtils.isNotBlank(id) && !failedIndexes.contains(i)) {
+                existingIds.add(id);
+            }
+        }
+        return existingIds;
+    }
+
+    synchronized CustomerImportReport report() {
+        return new CustomerImportReport(this.received, this.inserted, this.updated, this.failed,
+                List.copyOf(this.failures));
+    }
+
+    private void fail(long line, String message) {
+        this.failed++;
+        if (this.failures.size() < this.maxReportedFailures) {
+            this.failures.add(new CustomerImportFailure(line, message));
+        }
+    }
+
+    /**
+     * The driver's bulk write failure, possibly wrapped by Spring's exception translation.
+     */
+    static Optional<MongoBulkWriteException> bulkWriteFailure(Throwable error) {
+        for (var cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkWriteException) {
+                return Optional.of(bulkWriteException);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String idOf(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    record Row(long line, CustomerRequest request) {
+
+    }
+}
@@ -0,0 +1,33 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk import for migrations: one {@link CustomerRequest} per NDJSON line, upserted by ID or email.
+ * Invalid records are reported by line and do not stop the import.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/v1/customers")
+public class CustomerImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final CustomerImportService service;
+
+    public CustomerImportController(CustomerImportService service) {
+        this.service = service;
+    }
+
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ResponseEntity<CustomerImportReport> importCustomers(InputStream body) throws IOException {
+        return ResponseEntity.ok(this.service.importCustomers(body));
+    }
+}
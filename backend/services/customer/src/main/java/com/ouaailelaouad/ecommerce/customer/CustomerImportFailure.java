@@ -0,0 +1,11 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+/**
+ * A rejected import record, identified by its 1-based line in the NDJSON body.
+ */
+public record CustomerImportFailure(
+        long line,
+        String message
+) {
+
+}
@@ -0,0 +1,16 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Failures beyond the configured limit are counted but not listed.
+ */
+public record CustomerImportReport(
+        long received,
+        long inserted,
+        long updated,
+        long failed,
+        List<CustomerImportFailure> failures
+) {
+
+}
@@ -0,0 +1,87 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk import of NDJSON customer records, upserted in unordered chunks. The body is read as it
+ * arrives, so memory stays bounded by one chunk whatever the size of the import.
+ */
+@Service
+@Profile("!reactive")
+public class CustomerImportService {
+
+    private final CustomerQueryRepository queryRepository;
+    private final CustomerExistenceCache existenceCache;
+    private final ObjectReader reader;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxReportedFailures;
+
+    public CustomerImportService(CustomerQueryRepository queryRepository,
+                                 CustomerExistenceCache existenceCache,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 @Value("${customer.import.chunk-size:1000}") int chunkSize,
+                                 @Value("${customer.import.max-reported-failures:1000}") int maxReportedFailures) {
+        this.queryRepository = queryRepository;
+        this.existenceCache = existenceCache;
+        this.reader = objectMapper.readerFor(CustomerRequest.class);
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    public CustomerImportReport importCustomers(InputStream body) throws IOException {
+        var customerImport = new CustomerImport(this.reader, this.validator, this.maxReportedFailures);
+        try (var lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            var chunk = new ArrayList<CustomerImport.Row>(this.chunkSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                var row = customerImport.parse(++lineNumber, line);
+                if (row == null) {
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == this.chunkSize) {
+                    write(customerImport, chunk);
+                    chunk = new ArrayList<>(this.chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                write(customerImport, chunk);
+            }
+        }
+        return customerImport.report();
+    }
+
+    private void write(CustomerImport customerImport, List<CustomerImport.Row> chunk) {
+        var requests = chunk.stream().map(CustomerImport.Row::request).toList();
+        List<String> existingIds;
+        try {
+            existingIds = customerImport.completed(chunk, this.queryRepository.upsertAll(requests), List.of());
+        } catch (BulkOperationException e) {
+            // Unordered: the other records of the chunk were written
+            existingIds = customerImport.completed(chunk, e.getResult(), e.getErrors());
+        } catch (DataAccessException e) {
+            var failure = CustomerImport.bulkWriteFailure(e).orElseThrow(() -> e);
+            existingIds = customerImport.completed(chunk, failure.getWriteResult(), failure.getWriteErrors());
+        }
+        existingIds.forEach(id -> this.existenceCache.put(id, true));
+    }
+}
@@ -0,0 +1,57 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on {@link Customer} at startup, in either execution mode, and
+ * initialises the version of documents written before optimistic locking was introduced.
+ * Both steps are idempotent; a failure (e.g. existing duplicate emails) stops the application.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.indexes.ensure-on-startup", havingValue = "true", matchIfMissing = true)
+public class CustomerIndexInitializer {
+
+    private final MongoMappingContext mappingContext;
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final ObjectProvider<ReactiveMongoTemplate> reactiveMongoTemplate;
+
+    public CustomerIndexInitializer(MongoMappingContext mappingContext,
+                                    ObjectProvider<MongoTemplate> mongoTemplate,
+                                    ObjectProvider<ReactiveMongoTemplate> reactiveMongoTemplate) {
+        this.mappingContext = mappingContext;
+        this.mongoTemplate = mongoTemplate;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        var template = this.mongoTemplate.getIfAvailable();
+        var reactiveTemplate = this.reactiveMongoTemplate.getIfAvailable();
+        for (var index : IndexResolver.create(this.mappingContext).resolveIndexFor(Customer.class)) {
+            if (template != null) {
+                template.indexOps(Customer.class).createIndex(index);
+            } else if (reactiveTemplate != null) {
+                reactiveTemplate.indexOps(Customer.class).createIndex(index).block();
+            }
+        }
+        // A null version would make Spring Data treat the document as new on save
+        var unversioned = Query.query(Criteria.where("version").exists(false));
+        var initialVersion = new Update().set("version", 0L);
+        if (template != null) {
+            template.updateMulti(unversioned, initialVersion, Customer.class);
+        } else if (reactiveTemplate != null) {
+            reactiveTemplate.updateMulti(unversioned, initialVersion, Customer.class).block();
+        }
+    }
+}
@@ -27,7 +27,20 @@ public class CustomerMapper {
                 customer.getFirstname(),
                 customer.getLastname(),
                 customer.getEmail(),
-                customer.getAddress()
+                customer.getAddress(),
+                customer.getVersion()
         );
     }
-}
\ No newline at end of file
+
+    public CustomerSummary toSummary(Customer customer) {
+        if (customer == null) {
+            return null;
+        }
+        return new CustomerSummary(
+                customer.getId(),
+                customer.getFirstname(),
+                customer.getLastname(),
+                customer.getEmail()
+        );
+    }
+}
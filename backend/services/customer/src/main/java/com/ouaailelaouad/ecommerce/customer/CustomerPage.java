@@ -0,0 +1,10 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import java.util.List;
+
+public record CustomerPage(
+        List<CustomerSummary> content,
+        String nextCursor
+) {
+
+}
@@ -0,0 +1,17 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import jakarta.validation.constraints.Email;
+
+/**
+ * Partial update: only non-null fields are written, address fields included.
+ */
+public record CustomerPatchRequest(
+        String firstname,
+        String lastname,
+        @Email(message = "Customer Email is not a valid email address")
+        String email,
+        Address address,
+        Long version
+) {
+
+}
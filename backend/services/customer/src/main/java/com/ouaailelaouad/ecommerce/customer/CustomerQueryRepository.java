@@ -0,0 +1,190 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * List and lookup queries over the customer collection: keyset on _id, indexed email and
+ * name lookups, and summary projection only, so list views never load the embedded address.
+ */
+@Repository
+@Profile("!reactive")
+public class CustomerQueryRepository {
+
+    static final int CURSOR_BATCH_SIZE = 500;
+    static final Collation CASE_INSENSITIVE = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    private final MongoTemplate mongoTemplate;
+
+    public CustomerQueryRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public List<Customer> findSummariesAfter(String afterId, int limit) {
+        return this.mongoTemplate.find(summaryQuery(afterId).limit(limit), Customer.class);
+    }
+
+    /**
+     * Server-side cursor fetching CURSOR_BATCH_SIZE documents per round trip.
+     * The caller must close the stream to release the cursor.
+     */
+    public Stream<Customer> streamSummaries() {
+        return this.mongoTemplate.stream(summaryQuery(null).cursorBatchSize(CURSOR_BATCH_SIZE), Customer.class);
+    }
+
+    /**
+     * Full documents in _id order, on a server-side cursor like {@link #streamSummaries()}.
+     * The caller must close the stream to release the cursor.
+     */
+    public Stream<Customer> streamAll() {
+        return this.mongoTemplate.stream(allQuery().cursorBatchSize(CURSOR_BATCH_SIZE), Customer.class);
+    }
+
+    /**
+     * Single $in query returning only the _id of each matching document.
+     */
+    public Set<String> findExistingIds(Collection<String> ids) {
+        return this.mongoTemplate.find(existingIdsQuery(ids), Customer.class)
+                .stream()
+                .map(Customer::getId)
+                .collect(Collectors.toSet());
+    }
+
+    public Optional<Customer> findByEmail(String email) {
+        return Optional.ofNullable(this.mongoTemplate.findOne(emailQuery(email, null), Customer.class));
+    }
+
+    public boolean existsByEmail(String email, String excludedId) {
+        return this.mongoTemplate.exists(emailQuery(email, excludedId), Customer.class);
+    }
+
+    public List<Customer> findByLastnamePrefix(String prefix, int limit) {
+        return this.mongoTemplate.find(lastnamePrefixQuery(prefix, limit), Customer.class);
+    }
+
+    /**
+     * Case-insensitive exact match, served by the unique email index (same collation).
+     */
+    static Query emailQuery(String email, String excludedId) {
+        var criteria = Criteria.where("email").is(email.trim());
+        if (excludedId != null) {
+            criteria = criteria.and("id").ne(excludedId);
+        }
+        return Query.query(criteria).collation(CASE_INSENSITIVE);
+    }
+
+    /**
+     * Case-insensitive prefix as an index range: U+FFFF sorts after every character in the collation.
+     * Sorted on the index keys, so only the returned documents are read.
+     */
+    static Query lastnamePrefixQuery(String prefix, int limit) {
+        var query = Query.query(Criteria.where("lastname").gte(prefix).lt(prefix + '\uffff'))
+                .collation(CASE_INSENSITIVE)
+                .with(Sort.by(Sort.Direction.ASC, "lastname", "firstname"))
+                .limit(limit);
+        query.fields().include("firstname", "lastname", "email");
+        return query;
+    }
+
+    /**
+     * Single findAndModify: $set of the supplied fields and version increment, conditional on the
+     * expected version when given. Returns the updated customer, or null when nothing matched.
+     */
+    public Customer patch(String id, CustomerPatchRequest request) {
+        return this.mongoTemplate.findAndModify(patchQuery(id, request.version()), patchUpdate(request),
+                FindAndModifyOptions.options().returnNew(true), Customer.class);
+    }
+
+    static Query patchQuery(String id, Long expectedVersion) {
+        var criteria = Criteria.where("id").is(id);
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        return Query.query(criteria);
+    }
+
+    static Update patchUpdate(CustomerPatchRequest request) {
+        var update = new Update().inc("version", 1);
+        setIfPresent(update, "firstname", request.firstname());
+        setIfPresent(update, "lastname", request.lastname());
+        setIfPresent(update, "email", request.email());
+        if (request.address() != null) {
+            setIfPresent(update, "address.street", request.address().getStreet());
+            setIfPresent(update, "address.houseNumber", request.address().getHouseNumber());
+            setIfPresent(update, "address.zipCode", request.address().getZipCode());
+        }
+        return update;
+    }
+
+    private static void setIfPresent(Update update, String field, String value) {
+        if (StringUtils.isNotBlank(value)) {
+            update.set(field, value);
+        }
+    }
+
+    /**
+     * One unordered bulk write: every record is attempted even when others fail.
+     */
+    public BulkWriteResult upsertAll(List<CustomerRequest> requests) {
+        var bulk = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+        requests.forEach(request -> bulk.upsert(upsertQuery(request), upsertUpdate(request)));
+        return bulk.execute();
+    }
+
+    /**
+     * Matches on the ID when supplied, otherwise on the email through the unique email index.
+     */
+    static Query upsertQuery(CustomerRequest request) {
+        return StringUtils.isNotBlank(request.id())
+                ? Query.query(Criteria.where("id").is(request.id()))
+                : emailQuery(request.email(), null);
+    }
+
+    static Update upsertUpdate(CustomerRequest request) {
+        var update = new Update()
+                .set("firstname", request.firstname())
+                .set("lastname", request.lastname())
+                .set("email", request.email())
+                .inc("version", 1);
+        if (request.address() != null) {
+            update.set("address", request.address());
+        }
+        return update;
+    }
+
+    static Query existingIdsQuery(Collection<String> ids) {
+        var query = Query.query(Criteria.where("id").in(ids));
+        query.fields().include("id");
+        return query;
+    }
+
+    static Query allQuery() {
+        return new Query().with(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    static Query summaryQuery(String afterId) {
+        var query = afterId != null
+                ? Query.query(Criteria.where("id").gt(afterId))
+                : new Query();
+        query.with(Sort.by(Sort.Direction.ASC, "id"));
+        query.fields().include("firstname", "lastname", "email");
+        return query;
+    }
+}
@@ -12,7 +12,9 @@ public record CustomerRequest(
         @NotNull(message = "Customer Email is required")
         @Email(message = "Customer Email is not a valid email address")
         String email,
-        Address address
+        Address address,
+        // Optional on update: when provided, the update is rejected if the customer changed since
+        Long version
 ) {
 
 }
\ No newline at end of file
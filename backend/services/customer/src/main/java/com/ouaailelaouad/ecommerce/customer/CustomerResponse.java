@@ -5,7 +5,8 @@ public record CustomerResponse(
         String firstname,
         String lastname,
         String email,
-        Address address
+        Address address,
+        Long version
 ) {
 
 }
\ No newline at end of file
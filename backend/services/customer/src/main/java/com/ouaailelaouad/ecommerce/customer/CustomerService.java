@@ -1,31 +1,53 @@
 package com.ouaailelaouad.ecommerce.customer;
 
 import com.ouaailelaouad.ecommerce.exception.CustomerNotFoundException;
+import com.ouaailelaouad.ecommerce.exception.DuplicateEmailException;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class CustomerService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final int MAX_SEARCH_RESULTS = 100;
+
     private final CustomerRepository repository;
+    private final CustomerQueryRepository queryRepository;
+    private final CustomerExistenceCache existenceCache;
     private final CustomerMapper mapper;
 
     @Autowired
-    public CustomerService(CustomerRepository repository) {
+    public CustomerService(CustomerRepository repository, CustomerQueryRepository queryRepository,
+                           CustomerExistenceCache existenceCache) {
         this.repository = repository;
+        this.queryRepository = queryRepository;
+        this.existenceCache = existenceCache;
         this.mapper = new CustomerMapper();
     }
 
 
 
     public String createCustomer(CustomerRequest request) {
+        checkEmailAvailable(request.email(), request.id());
         var customer = this.repository.save(mapper.toCustomer(request));
+        this.existenceCache.put(customer.getId(), true);
         return customer.getId();
     }
 
@@ -34,14 +56,58 @@ public class CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException(
                         String.format("Cannot update customer:: No customer found with the provided ID: %s", request.id())
                 ));
+        if (StringUtils.isNotBlank(request.email())) {
+            checkEmailAvailable(request.email(), request.id());
+        }
+        checkVersion(customer, request.version());
         mergeCustomer(customer, request);
+        // @Version: a concurrent write between the read and this save fails with OptimisticLockingFailureException
         this.repository.save(customer);
     }
 
+    public CustomerResponse patchCustomer(String id, CustomerPatchRequest request) {
+        if (StringUtils.isNotBlank(request.email())) {
+            checkEmailAvailable(request.email(), id);
+        }
+        var customer = this.queryRepository.patch(id, request);
+        if (customer == null) {
+            throw patchFailure(id, this.repository.existsById(id));
+        }
+        return this.mapper.fromCustomer(customer);
+    }
+
+    static void checkVersion(Customer customer, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(customer.getVersion())) {
+            throw new OptimisticLockingFailureException(
+                    String.format("Customer %s was modified concurrently: expected version %d, found %d",
+                            customer.getId(), expectedVersion, customer.getVersion()));
+        }
+    }
+
+    static RuntimeException patchFailure(String id, boolean exists) {
+        if (exists) {
+            return new OptimisticLockingFailureException(
+                    String.format("Customer %s was modified concurrently: version mismatch", id));
+        }
+        return new CustomerNotFoundException(
+                String.format("Cannot update customer:: No customer found with the provided ID: %s", id));
+    }
+
+    // The unique index is the final guard against concurrent writes (DuplicateKeyException -> 409)
+    private void checkEmailAvailable(String email, String customerId) {
+        if (this.queryRepository.existsByEmail(email, customerId)) {
+            throw new DuplicateEmailException(
+                    String.format("A customer with the provided email already exists: %s", email));
+        }
+    }
+
     private void mergeCustomer(Customer customer, CustomerRequest request) {
         if (StringUtils.isNotBlank(request.firstname())) {
             customer.setFirstname(request.firstname());
         }
+        if (StringUtils.isNotBlank(request.lastname())) {
+            customer.setLastname(request.lastname());
+        }
         if (StringUtils.isNotBlank(request.email())) {
             customer.setEmail(request.email());
         }
@@ -50,11 +116,29 @@ public class CustomerService {
         }
     }
 
-    public List<CustomerResponse> findAllCustomers() {
-        return  this.repository.findAll()
-                .stream()
-                .map(this.mapper::fromCustomer)
+    public void streamAllCustomers(Consumer<CustomerResponse> consumer) {
+        try (Stream<Customer> customers = this.queryRepository.streamAll()) {
+            customers.map(this.mapper::fromCustomer).forEach(consumer);
+        }
+    }
+
+    public CustomerPage findCustomers(String after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // One extra document tells whether another page exists
+        var customers = this.queryRepository.findSummariesAfter(after, pageSize + 1);
+        var hasMore = customers.size() > pageSize;
+        var content = customers.stream()
+                .limit(pageSize)
+                .map(this.mapper::toSummary)
                 .collect(Collectors.toList());
+        var nextCursor = hasMore ? content.get(content.size() - 1).id() : null;
+        return new CustomerPage(content, nextCursor);
+    }
+
+    public void streamCustomers(Consumer<CustomerSummary> consumer) {
+        try (Stream<Customer> customers = this.queryRepository.streamSummaries()) {
+            customers.map(this.mapper::toSummary).forEach(consumer);
+        }
     }
 
     public CustomerResponse findById(String id) {
@@ -63,13 +147,72 @@ public class CustomerService {
                 .orElseThrow(() -> new CustomerNotFoundException(String.format("No customer found with the provided ID: %s", id)));
     }
 
+    public CustomerResponse findByEmail(String email) {
+        return this.queryRepository.findByEmail(email)
+                .map(mapper::fromCustomer)
+                .orElseThrow(() -> new CustomerNotFoundException(String.format("No customer found with the provided email: %s", email)));
+    }
+
+    public List<CustomerSummary> searchByName(String prefix, int limit) {
+        if (StringUtils.isBlank(prefix)) {
+            return List.of();
+        }
+        return this.queryRepository.findByLastnamePrefix(prefix.trim(), Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS))
+                .stream()
+                .map(this.mapper::toSummary)
+                .collect(Collectors.toList());
+    }
+
     public boolean existsById(String id) {
-        return this.repository.findById(id)
-                .isPresent();
+        var cached = this.existenceCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        var exists = this.repository.existsById(id);
+        this.existenceCache.put(id, exists);
+        return exists;
+    }
+
+    public Map<String, Boolean> existsByIds(List<String> ids) {
+        var result = new LinkedHashMap<String, Boolean>();
+        var cached = this.existenceCache.getAll(ids);
+        var misses = new LinkedHashSet<String>();
+        for (String id : ids) {
+            var exists = cached.get(id);
+            if (exists != null) {
+                result.put(id, exists);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            var existing = this.queryRepository.findExistingIds(misses);
+            for (String id : misses) {
+                var exists = existing.contains(id);
+                this.existenceCache.put(id, exists);
+                result.put(id, exists);
+            }
+        }
+        return result;
+    }
+
+    public List<CustomerResponse> findByIds(List<String> ids) {
+        var customersById = new HashMap<String, Customer>();
+        this.repository.findAllById(new LinkedHashSet<>(ids))
+                .forEach(customer -> customersById.put(customer.getId(), customer));
+        customersById.keySet().forEach(id -> this.existenceCache.put(id, true));
+        // Request order, missing IDs left out
+        return ids.stream()
+                .distinct()
+                .map(customersById::get)
+                .filter(Objects::nonNull)
+                .map(this.mapper::fromCustomer)
+                .collect(Collectors.toList());
     }
 
     public void deleteCustomer(String id) {
         this.repository.deleteById(id);
+        this.existenceCache.put(id, false);
     }
 
 
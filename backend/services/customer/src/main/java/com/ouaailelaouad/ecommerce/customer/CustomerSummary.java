@@ -0,0 +1,10 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+public record CustomerSummary(
+        String id,
+        String firstname,
+        String lastname,
+        String email
+) {
+
+}
@@ -0,0 +1,143 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same API contract as {@link CustomerController}, served by WebFlux.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/customers")
+public class ReactiveCustomerController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveCustomerService service;
+
+    public ReactiveCustomerController(ReactiveCustomerService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<String>> createCustomer(
+            @RequestBody @Valid CustomerRequest request
+    ) {
+        return this.service.createCustomer(request)
+                .map(ResponseEntity::ok);
+    }
+
+    @PutMapping
+    public Mono<ResponseEntity<Void>> updateCustomer(
+            @RequestBody @Valid CustomerRequest request
+    ) {
+        return this.service.updateCustomer(request)
+                .then(Mono.fromSupplier(() -> ResponseEntity.accepted().<Void>build()));
+    }
+
+    @PatchMapping("/{customer-id}")
+    public Mono<ResponseEntity<CustomerResponse>> patchCustomer(
+            @PathVariable("customer-id") String customerId,
+            @RequestBody @Valid CustomerPatchRequest request
+    ) {
+        return this.service.patchCustomer(customerId, request)
+                .map(ResponseEntity::ok);
+    }
+
+    // Encoded as one JSON array while the cursor is read, never collected in memory
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<CustomerResponse> findAll() {
+        return this.service.findAllCustomers();
+    }
+
+    @GetMapping(value = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<CustomerPage>> findPage(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "100") int size
+    ) {
+        return this.service.findCustomers(after, size)
+                .map(ResponseEntity::ok);
+    }
+
+    // Each element is written as one line; demand from the client propagates to the Mongo cursor
+    @GetMapping(produces = NDJSON)
+    public Flux<CustomerSummary> streamAll() {
+        return this.service.streamCustomers();
+    }
+
+    @GetMapping("/by-email")
+    public Mono<ResponseEntity<CustomerResponse>> findByEmail(
+            @RequestParam("email") String email
+    ) {
+        return this.service.findByEmail(email)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<CustomerSummary>>> searchByName(
+            @RequestParam("name") String name,
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        return this.service.searchByName(name, limit)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/exists/{customer-id}")
+    public Mono<ResponseEntity<Boolean>> existsById(
+            @PathVariable("customer-id") String customerId
+    ) {
+        return this.service.existsById(customerId)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/exists")
+    public Mono<ResponseEntity<Map<String, Boolean>>> existsByIds(
+            @RequestBody @Valid CustomerIdsRequest request
+    ) {
+        return this.service.existsByIds(request.ids())
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/batch-get")
+    public Mono<ResponseEntity<List<CustomerResponse>>> findByIds(
+            @RequestBody @Valid CustomerIdsRequest request
+    ) {
+        return this.service.findByIds(request.ids())
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{customer-id}")
+    public Mono<ResponseEntity<CustomerResponse>> findById(
+            @PathVariable("customer-id") String customerId
+    ) {
+        return this.service.findById(customerId)
+                .map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/{customer-id}")
+    public Mono<ResponseEntity<Void>> delete(
+            @PathVariable("customer-id") String customerId
+    ) {
+        return this.service.deleteCustomer(customerId)
+                .then(Mono.fromSupplier(() -> ResponseEntity.accepted().<Void>build()));
+    }
+
+}
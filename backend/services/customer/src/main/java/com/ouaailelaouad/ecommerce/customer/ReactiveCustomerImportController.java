@@ -0,0 +1,34 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same API contract as {@link CustomerImportController}, served by WebFlux.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/customers")
+public class ReactiveCustomerImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveCustomerImportService service;
+
+    public ReactiveCustomerImportController(ReactiveCustomerImportService service) {
+        this.service = service;
+    }
+
+    // The string decoder splits the body on line breaks
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public Mono<ResponseEntity<CustomerImportReport>> importCustomers(@RequestBody Flux<String> lines) {
+        return this.service.importCustomers(lines)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link CustomerImportService}. Chunks are written one at a time while
+ * the next one is parsed; backpressure keeps the request body from being read further ahead.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCustomerImportService {
+
+    private final ReactiveCustomerQueryRepository queryRepository;
+    private final CustomerExistenceCache existenceCache;
+    private final ObjectReader reader;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxReportedFailures;
+
+    public ReactiveCustomerImportService(ReactiveCustomerQueryRepository queryRepository,
+                                         CustomerExistenceCache existenceCache,
+                                         ObjectMapper objectMapper,
+                                         Validator validator,
+                                         @Value("${customer.import.chunk-size:1000}") int chunkSize,
+                                         @Value("${customer.import.max-reported-failures:1000}") int maxReportedFailures) {
+        this.queryRepository = queryRepository;
+        this.existenceCache = existenceCache;
+        this.reader = objectMapper.readerFor(CustomerRequest.class);
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxReportedFailures = maxReportedFailures;
+    }
+
+    public Mono<CustomerImportReport> importCustomers(Flux<String> lines) {
+        return Mono.defer(() -> {
+            var customerImport = new CustomerImport(this.reader, this.validator, this.maxReportedFailures);
+            return lines.index()
+                    .<CustomerImport.Row>handle((line, sink) -> {
+                        var row = customerImport.parse(line.getT1() + 1, line.getT2());
+                        if (row != null) {
+                            sink.next(row);
+                        }
+                    })
+                    .buffer(this.chunkSize)
+                    .concatMap(chunk -> write(customerImport, chunk), 1)
+                    .then(Mono.fromSupplier(customerImport::report));
+        });
+    }
+
+    private Mono<Void> write(CustomerImport customerImport, List<CustomerImport.Row> chunk) {
+        var requests = chunk.stream().map(CustomerImport.Row::request).toList();
+        return this.queryRepository.upsertAll(requests)
+                .map(result -> customerImport.completed(chunk, result, List.of()))
+                // Unordered: the other records of the chunk were written
+                .onErrorResume(e -> CustomerImport.bulkWriteFailure(e).isPresent(), e -> {
+                    var failure = CustomerImport.bulkWriteFailure(e).orElseThrow();
+                    return Mono.just(customerImport.completed(chunk, failure.getWriteResult(), failure.getWriteErrors()));
+                })
+                .doOnNext(existingIds -> existingIds.forEach(id -> this.existenceCache.put(id, true)))
+                .then();
+    }
+}
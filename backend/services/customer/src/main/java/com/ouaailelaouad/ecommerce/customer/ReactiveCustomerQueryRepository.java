@@ -0,0 +1,77 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link CustomerQueryRepository}, same queries and projections.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveCustomerQueryRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveCustomerQueryRepository(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Flux<Customer> findSummariesAfter(String afterId, int limit) {
+        return this.mongoTemplate.find(CustomerQueryRepository.summaryQuery(afterId).limit(limit), Customer.class);
+    }
+
+    /**
+     * Backpressured: the driver requests further batches only as the subscriber consumes them.
+     */
+    public Flux<Customer> streamSummaries() {
+        return this.mongoTemplate.find(
+                CustomerQueryRepository.summaryQuery(null).cursorBatchSize(CustomerQueryRepository.CURSOR_BATCH_SIZE),
+                Customer.class);
+    }
+
+    public Flux<Customer> streamAll() {
+        return this.mongoTemplate.find(
+                CustomerQueryRepository.allQuery().cursorBatchSize(CustomerQueryRepository.CURSOR_BATCH_SIZE),
+                Customer.class);
+    }
+
+    public Mono<Customer> findByEmail(String email) {
+        return this.mongoTemplate.findOne(CustomerQueryRepository.emailQuery(email, null), Customer.class);
+    }
+
+    public Mono<Boolean> existsByEmail(String email, String excludedId) {
+        return this.mongoTemplate.exists(CustomerQueryRepository.emailQuery(email, excludedId), Customer.class);
+    }
+
+    public Flux<Customer> findByLastnamePrefix(String prefix, int limit) {
+        return this.mongoTemplate.find(CustomerQueryRepository.lastnamePrefixQuery(prefix, limit), Customer.class);
+    }
+
+    public Mono<Customer> patch(String id, CustomerPatchRequest request) {
+        return this.mongoTemplate.findAndModify(
+                CustomerQueryRepository.patchQuery(id, request.version()),
+                CustomerQueryRepository.patchUpdate(request),
+                FindAndModifyOptions.options().returnNew(true), Customer.class);
+    }
+
+    public Mono<BulkWriteResult> upsertAll(List<CustomerRequest> requests) {
+        var bulk = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+        requests.forEach(request -> bulk.upsert(
+                CustomerQueryRepository.upsertQuery(request), CustomerQueryRepository.upsertUpdate(request)));
+        return bulk.execute();
+    }
+
+    public Flux<String> findExistingIds(Collection<String> ids) {
+        return this.mongoTemplate.find(CustomerQueryRepository.existingIdsQuery(ids), Customer.class)
+                .map(Customer::getId);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveCustomerRepository extends ReactiveMongoRepository<Customer, String> {
+
+}
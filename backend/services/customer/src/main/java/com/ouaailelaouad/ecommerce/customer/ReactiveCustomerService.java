@@ -0,0 +1,201 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.ouaailelaouad.ecommerce.exception.CustomerNotFoundException;
+import com.ouaailelaouad.ecommerce.exception.DuplicateEmailException;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reactive counterpart of {@link CustomerService}, same behaviour and existence cache.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerRepository repository;
+    private final ReactiveCustomerQueryRepository queryRepository;
+    private final CustomerExistenceCache existenceCache;
+    private final CustomerMapper mapper;
+
+    public ReactiveCustomerService(ReactiveCustomerRepository repository,
+                                   ReactiveCustomerQueryRepository queryRepository,
+                                   CustomerExistenceCache existenceCache) {
+        this.repository = repository;
+        this.queryRepository = queryRepository;
+        this.existenceCache = existenceCache;
+        this.mapper = new CustomerMapper();
+    }
+
+    public Mono<String> createCustomer(CustomerRequest request) {
+        return checkEmailAvailable(request.email(), request.id())
+                .then(Mono.defer(() -> this.repository.save(mapper.toCustomer(request))))
+                .map(customer -> {
+                    this.existenceCache.put(customer.getId(), true);
+                    return customer.getId();
+                });
+    }
+
+    public Mono<Void> updateCustomer(CustomerRequest request) {
+        return this.repository.findById(request.id())
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(
+                        String.format("Cannot update customer:: No customer found with the provided ID: %s", request.id())
+                )))
+                .flatMap(customer -> {
+                    var emailCheck = StringUtils.isNotBlank(request.email())
+                            ? checkEmailAvailable(request.email(), request.id())
+                            : Mono.<Void>empty();
+                    return emailCheck.then(Mono.defer(() -> {
+                        CustomerService.checkVersion(customer, request.version());
+                        mergeCustomer(customer, request);
+                        return this.repository.save(customer);
+                    }));
+                })
+                .then();
+    }
+
+    public Mono<CustomerResponse> patchCustomer(String id, CustomerPatchRequest request) {
+        var emailCheck = StringUtils.isNotBlank(request.email())
+                ? checkEmailAvailable(request.email(), id)
+                : Mono.<Void>empty();
+        return emailCheck
+                .then(Mono.defer(() -> this.queryRepository.patch(id, request)))
+                .switchIfEmpty(Mono.defer(() -> this.repository.existsById(id)
+                        .flatMap(exists -> Mono.error(CustomerService.patchFailure(id, exists)))))
+                .map(this.mapper::fromCustomer);
+    }
+
+    private Mono<Void> checkEmailAvailable(String email, String customerId) {
+        return this.queryRepository.existsByEmail(email, customerId)
+                .flatMap(exists -> exists
+                        ? Mono.error(new DuplicateEmailException(
+                                String.format("A customer with the provided email already exists: %s", email)))
+                        : Mono.empty());
+    }
+
+    private void mergeCustomer(Customer customer, CustomerRequest request) {
+        if (StringUtils.isNotBlank(request.firstname())) {
+            customer.setFirstname(request.firstname());
+        }
+        if (StringUtils.isNotBlank(request.lastname())) {
+            customer.setLastname(request.lastname());
+        }
+        if (StringUtils.isNotBlank(request.email())) {
+            customer.setEmail(request.email());
+        }
+        if (request.address() != null) {
+            customer.setAddress(request.address());
+        }
+    }
+
+    public Flux<CustomerResponse> findAllCustomers() {
+        return this.queryRepository.streamAll()
+                .map(this.mapper::fromCustomer);
+    }
+
+    public Mono<CustomerPage> findCustomers(String after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), CustomerService.MAX_PAGE_SIZE);
+        // One extra document tells whether another page exists
+        return this.queryRepository.findSummariesAfter(after, pageSize + 1)
+                .map(this.mapper::toSummary)
+                .collectList()
+                .map(customers -> {
+                    var hasMore = customers.size() > pageSize;
+                    var content = hasMore ? customers.subList(0, pageSize) : customers;
+                    var nextCursor = hasMore ? content.get(content.size() - 1).id() : null;
+                    return new CustomerPage(content, nextCursor);
+                });
+    }
+
+    public Flux<CustomerSummary> streamCustomers() {
+        return this.queryRepository.streamSummaries()
+                .map(this.mapper::toSummary);
+    }
+
+    public Mono<CustomerResponse> findById(String id) {
+        return this.repository.findById(id)
+                .map(mapper::fromCustomer)
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(
+                        String.format("No customer found with the provided ID: %s", id))));
+    }
+
+    public Mono<CustomerResponse> findByEmail(String email) {
+        return this.queryRepository.findByEmail(email)
+                .map(mapper::fromCustomer)
+                .switchIfEmpty(Mono.error(() -> new CustomerNotFoundException(
+                        String.format("No customer found with the provided email: %s", email))));
+    }
+
+    public Flux<CustomerSummary> searchByName(String prefix, int limit) {
+        if (StringUtils.isBlank(prefix)) {
+            return Flux.empty();
+        }
+        return this.queryRepository.findByLastnamePrefix(prefix.trim(),
+                        Math.min(Math.max(limit, 1), CustomerService.MAX_SEARCH_RESULTS))
+                .map(this.mapper::toSummary);
+    }
+
+    public Mono<Boolean> existsById(String id) {
+        var cached = this.existenceCache.get(id);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return this.repository.existsById(id)
+                .doOnNext(exists -> this.existenceCache.put(id, exists));
+    }
+
+    public Mono<Map<String, Boolean>> existsByIds(List<String> ids) {
+        var cached = this.existenceCache.getAll(ids);
+        var misses = new LinkedHashSet<String>();
+        for (String id : ids) {
+            if (!cached.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        var existing = misses.isEmpty()
+                ? Mono.just(List.<String>of())
+                : this.queryRepository.findExistingIds(misses).collectList();
+        return existing.map(found -> {
+            var foundIds = new HashSet<>(found);
+            var result = new LinkedHashMap<String, Boolean>();
+            for (String id : ids) {
+                var exists = cached.get(id);
+                if (exists == null) {
+                    exists = foundIds.contains(id);
+                    this.existenceCache.put(id, exists);
+                }
+                result.put(id, exists);
+            }
+            return result;
+        });
+    }
+
+    public Mono<List<CustomerResponse>> findByIds(List<String> ids) {
+        return this.repository.findAllById(new LinkedHashSet<>(ids))
+                .collectMap(Customer::getId)
+                .map(customersById -> {
+                    customersById.keySet().forEach(id -> this.existenceCache.put(id, true));
+                    // Request order, missing IDs left out
+                    return ids.stream()
+                            .distinct()
+                            .map(customersById::get)
+                            .filter(Objects::nonNull)
+                            .map(this.mapper::fromCustomer)
+                            .toList();
+                });
+    }
+
+    public Mono<Void> deleteCustomer(String id) {
+        return this.repository.deleteById(id)
+                .doOnSuccess(ignored -> this.existenceCache.put(id, false));
+    }
+}
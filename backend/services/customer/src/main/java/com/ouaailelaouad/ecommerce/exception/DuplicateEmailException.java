@@ -0,0 +1,14 @@
+package com.ouaailelaouad.ecommerce.exception;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class DuplicateEmailException extends RuntimeException {
+
+    private final String msg;
+    public DuplicateEmailException(String msg) {
+        this.msg = msg;
+    }
+}
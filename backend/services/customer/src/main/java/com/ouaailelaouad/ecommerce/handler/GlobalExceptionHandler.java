@@ -1,12 +1,17 @@
 package com.ouaailelaouad.ecommerce.handler;
 
 import com.ouaailelaouad.ecommerce.exception.CustomerNotFoundException;
+import com.ouaailelaouad.ecommerce.exception.DuplicateEmailException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 import java.util.HashMap;
 
@@ -22,10 +27,33 @@ public class GlobalExceptionHandler {
                 .body(exp.getMsg());
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException exp) {
+    @ExceptionHandler(DuplicateEmailException.class)
+    public ResponseEntity<String> handle(DuplicateEmailException exp) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(exp.getMsg());
+    }
+
+    // Concurrent creation that passed the service check: rejected by the unique email index
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<String> handle(DuplicateKeyException exp) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body("A customer with this email or ID already exists");
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handle(OptimisticLockingFailureException exp) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(exp.getMessage());
+    }
+
+    // MethodArgumentNotValidException in blocking mode, WebExchangeBindException in reactive mode
+    @ExceptionHandler({MethodArgumentNotValidException.class, WebExchangeBindException.class})
+    public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(BindingResult bindingResult) {
         var errors = new HashMap<String, String>();
-        exp.getBindingResult().getAllErrors()
+        bindingResult.getAllErrors()
                 .forEach(error -> {
                     var fieldName = ((FieldError) error).getField();
                     var errorMessage = error.getDefaultMessage();
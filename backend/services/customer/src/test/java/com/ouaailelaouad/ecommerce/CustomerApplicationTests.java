@@ -3,7 +3,7 @@ package com.ouaailelaouad.ecommerce;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "customer.indexes.ensure-on-startup=false")
 class CustomerApplicationTests {
 
 	@Test
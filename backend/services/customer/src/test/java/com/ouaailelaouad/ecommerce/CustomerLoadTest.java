@@ -0,0 +1,137 @@
+package com.ouaailelaouad.ecommerce;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the blocking and reactive modes under the same load against a running MongoDB
+ * (docker-compose, localhost:27017). Not part of the regular build:
+ *
+ * <pre>
+ * mvn test -Dtest=CustomerLoadTest -Dcustomer.loadtest=true \
+ *     -Dcustomer.loadtest.concurrency=1000 -Dcustomer.loadtest.requests=100000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "customer.loadtest", matches = "true")
+class CustomerLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("customer.loadtest.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("customer.loadtest.requests", 100_000);
+    private static final int CUSTOMERS = 1000;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    void compareBlockingAndReactiveModes() throws Exception {
+        var blocking = run("blocking");
+        var reactive = run("reactive");
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        for (Result result : List.of(blocking, reactive)) {
+            System.out.printf("%-10s %12.0f %10.1f %10.1f %10.1f %8d%n", result.mode(), result.throughput(),
+                    result.percentile(50), result.percentile(99), result.percentile(99.9), result.errors());
+        }
+        assertThat(blocking.errors()).isZero();
+        assertThat(reactive.errors()).isZero();
+    }
+
+    private Result run(String mode) throws Exception {
+        var builder = new SpringApplicationBuilder(CustomerApplication.class)
+                .properties("server.port=0", "eureka.client.enabled=false", "spring.cloud.config.enabled=false");
+        if (mode.equals("reactive")) {
+            builder.profiles("reactive");
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            var baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/customers";
+            var ids = seed(baseUrl);
+
+            // Warm-up, then the measured run
+            load(baseUrl, ids, REQUESTS / 10);
+            return load(baseUrl, ids, REQUESTS).withMode(mode);
+        }
+    }
+
+    private List<String> seed(String baseUrl) throws Exception {
+        var ids = new ArrayList<String>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            var body = String.format(
+                    "{\"firstname\":\"Load\",\"lastname\":\"Test %d\",\"email\":\"load%d@example.com\"," +
+                    "\"address\":{\"street\":\"Main\",\"houseNumber\":\"%d\",\"zipCode\":\"10000\"}}", i, i, i);
+            var response = this.client.send(HttpRequest.newBuilder(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            ids.add(response.body());
+        }
+        return ids;
+    }
+
+    private Result load(String baseUrl, List<String> ids, int requests) throws Exception {
+        var latencies = new long[requests];
+        var next = new AtomicInteger();
+        var errors = new AtomicInteger();
+        var start = System.nanoTime();
+
+        // CONCURRENCY request chains, each firing its next request when the previous one completes
+        var chains = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            chains.add(chain(baseUrl, ids, next, requests, latencies, errors));
+        }
+        CompletableFuture.allOf(chains.toArray(CompletableFuture[]::new)).join();
+
+        var elapsedNanos = System.nanoTime() - start;
+        return new Result(null, requests * 1e9 / elapsedNanos, latencies, errors.get());
+    }
+
+    private CompletableFuture<Void> chain(String baseUrl, List<String> ids, AtomicInteger next, int requests,
+                                          long[] latencies, AtomicInteger errors) {
+        int index = next.getAndIncrement();
+        if (index >= requests) {
+            return CompletableFuture.completedFuture(null);
+        }
+        var id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build();
+        var sent = System.nanoTime();
+        return this.client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> chain(baseUrl, ids, next, requests, latencies, errors));
+    }
+
+    private record Result(String mode, double throughput, long[] latencies, int errors) {
+
+        Result withMode(String mode) {
+            return new Result(mode, this.throughput, this.latencies, this.errors);
+        }
+
+        double percentile(double percentile) {
+            var sorted = this.latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1);
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
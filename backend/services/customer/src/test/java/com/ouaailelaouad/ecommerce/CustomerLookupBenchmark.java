@@ -0,0 +1,109 @@
+package com.ouaailelaouad.ecommerce;
+
+import com.ouaailelaouad.ecommerce.customer.Customer;
+import com.ouaailelaouad.ecommerce.customer.CustomerIndexInitializer;
+import com.ouaailelaouad.ecommerce.customer.CustomerService;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Email and name-prefix lookup latency on a large collection, in a dedicated database
+ * (customer_benchmark) of the docker-compose MongoDB. Seeding 10M documents takes a few minutes
+ * and is skipped when the collection is already populated:
+ *
+ * <pre>
+ * mvn test -Dtest=CustomerLookupBenchmark -Dcustomer.loadtest=true -Dcustomer.loadtest.customers=10000000
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "customer.loadtest", matches = "true")
+class CustomerLookupBenchmark {
+
+    private static final int CUSTOMERS = Integer.getInteger("customer.loadtest.customers", 10_000_000);
+    private static final int LOOKUPS = 20_000;
+    private static final String[] LASTNAMES = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit",
+            "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David"};
+
+    @Test
+    void lookupsStaySubMillisecond() {
+        try (var context = new SpringApplicationBuilder(CustomerApplication.class)
+                .properties("server.port=0", "eureka.client.enabled=false", "spring.cloud.config.enabled=false",
+                        "spring.data.mongodb.database=customer_benchmark")
+                .run()) {
+            var mongoTemplate = context.getBean(MongoTemplate.class);
+            var service = context.getBean(CustomerService.class);
+            seed(mongoTemplate);
+            context.getBean(CustomerIndexInitializer.class).ensureIndexes();
+
+            var collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Customer.class));
+            var plan = collection.find(new Document("email", "USER42@EXAMPLE.COM"))
+                    .collation(Collation.builder().locale("en").collationStrength(CollationStrength.SECONDARY).build())
+                    .explain()
+                    .toJson();
+            assertThat(plan).contains("IXSCAN").doesNotContain("COLLSCAN");
+
+            // Warm-up, then measured runs; mixed case to exercise the collation
+            measure("warm-up", i -> service.findByEmail(email(random())));
+            var byEmail = measure("email", i -> service.findByEmail(email(random()).toUpperCase()));
+            var byName = measure("name prefix", i -> service.searchByName(
+                    LASTNAMES[i % LASTNAMES.length].toLowerCase() + (i % 10), 20));
+
+            assertThat(byEmail).isLessThan(1.0);
+            assertThat(byName).isLessThan(1.0);
+        }
+    }
+
+    private void seed(MongoTemplate mongoTemplate) {
+        long existing = mongoTemplate.estimatedCount(Customer.class);
+        var batch = new ArrayList<Customer>(10_000);
+        for (long i = existing; i < CUSTOMERS; i++) {
+            batch.add(Customer.builder()
+                    .firstname("First" + i)
+                    .lastname(LASTNAMES[(int) (i % LASTNAMES.length)] + (i % 1000))
+                    .email(email(i))
+                    .build());
+            if (batch.size() == 10_000) {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class).insert(batch).execute();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class).insert(batch).execute();
+        }
+    }
+
+    // Returns p99 in milliseconds
+    private double measure(String name, IntConsumer lookup) {
+        var latencies = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            var start = System.nanoTime();
+            lookup.accept(i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        double p50 = latencies[LOOKUPS / 2] / 1e6;
+        double p99 = latencies[(int) (LOOKUPS * 0.99)] / 1e6;
+        System.out.printf("%-12s p50 %.3f ms  p99 %.3f ms  (%d customers)%n", name, p50, p99, CUSTOMERS);
+        return p99;
+    }
+
+    private static long random() {
+        return ThreadLocalRandom.current().nextLong(CUSTOMERS);
+    }
+
+    private static String email(long i) {
+        return "user" + i + "@example.com";
+    }
+}
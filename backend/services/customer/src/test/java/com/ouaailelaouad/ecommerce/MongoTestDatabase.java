@@ -0,0 +1,53 @@
+package com.ouaailelaouad.ecommerce;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+
+/**
+ * MongoDB shared by the integration tests: one server per JVM, stopped on exit, and one database
+ * per test class. A mongo:7.0 container when Docker is available, otherwise the in-memory
+ * mongo-java-server, which speaks the wire protocol but does not implement collations.
+ */
+public final class MongoTestDatabase {
+
+    private static String connectionString;
+    private static boolean container;
+
+    private MongoTestDatabase() {
+    }
+
+    public static synchronized void register(DynamicPropertyRegistry registry, String database) {
+        var uri = start() + "/" + database;
+        registry.add("spring.data.mongodb.uri", () -> uri);
+        registry.add("spring.data.mongodb.database", () -> database);
+    }
+
+    /**
+     * True when the tests run against a real MongoDB, i.e. collation-dependent behaviour can be asserted.
+     */
+    public static synchronized boolean supportsCollation() {
+        start();
+        return container;
+    }
+
+    private static String start() {
+        if (connectionString == null) {
+            if (DockerClientFactory.instance().isDockerAvailable()) {
+                var mongo = new MongoDBContainer("mongo:7.0");
+                mongo.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(mongo::stop));
+                connectionString = mongo.getConnectionString();
+                container = true;
+            } else {
+                var server = new MongoServer(new MemoryBackend());
+                var address = server.bind();
+                Runtime.getRuntime().addShutdownHook(new Thread(server::shutdown));
+                connectionString = "mongodb://" + address.getHostString() + ":" + address.getPort();
+            }
+        }
+        return connectionString;
+    }
+}
@@ -0,0 +1,26 @@
+package com.ouaailelaouad.ecommerce;
+
+import com.ouaailelaouad.ecommerce.customer.CustomerController;
+import com.ouaailelaouad.ecommerce.customer.ReactiveCustomerController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "customer.indexes.ensure-on-startup=false")
+@ActiveProfiles("reactive")
+class ReactiveCustomerApplicationTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Test
+	void contextLoadsReactiveStack() {
+		assertThat(this.context.getBeansOfType(ReactiveCustomerController.class)).hasSize(1);
+		assertThat(this.context.getBeansOfType(CustomerController.class)).isEmpty();
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = CustomerController.class, properties = "spring.cloud.config.enabled=false")
+class CustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private CustomerService service;
+
+    @Test
+    void listsOnePageWithNextCursor() throws Exception {
+        when(this.service.findCustomers("a1", 2)).thenReturn(new CustomerPage(
+                List.of(summary("b2"), summary("c3")), "c3"));
+
+        this.mockMvc.perform(get("/api/v1/customers/page").param("after", "a1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].address").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("c3"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listsEveryCustomerAsABareJsonArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CustomerResponse> consumer = invocation.getArgument(0);
+            consumer.accept(new CustomerResponse("a1", "Jane", "Doe", "a1@example.com", null, 0L));
+            consumer.accept(new CustomerResponse("b2", "John", "Doe", "b2@example.com", null, 3L));
+            return null;
+        }).when(this.service).streamAllCustomers(any(Consumer.class));
+
+        var result = this.mockMvc.perform(get("/api/v1/customers"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value("a1"))
+                .andExpect(jsonPath("$[1].version").value(3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamsNdjsonOneCustomerPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CustomerSummary> consumer = invocation.getArgument(0);
+            consumer.accept(summary("a1"));
+            consumer.accept(summary("b2"));
+            return null;
+        }).when(this.service).streamCustomers(any(Consumer.class));
+
+        var result = this.mockMvc.perform(get("/api/v1/customers").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.parseMediaType("application/x-ndjson")))
+                .andExpect(content().string(
+                        "{\"id\":\"a1\",\"firstname\":\"Jane\",\"lastname\":\"Doe\",\"email\":\"a1@example.com\"}\n" +
+                        "{\"id\":\"b2\",\"firstname\":\"Jane\",\"lastname\":\"Doe\",\"email\":\"b2@example.com\"}\n"));
+    }
+
+    private static CustomerSummary summary(String id) {
+        return new CustomerSummary(id, "Jane", "Doe", id + "@example.com");
+    }
+}
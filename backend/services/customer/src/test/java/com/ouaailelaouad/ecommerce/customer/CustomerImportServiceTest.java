@@ -0,0 +1,94 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerImportServiceTest {
+
+    private CustomerQueryRepository queryRepository;
+    private CustomerExistenceCache existenceCache;
+    private CustomerImportService service;
+
+    @BeforeEach
+    void setUp() {
+        this.queryRepository = mock(CustomerQueryRepository.class);
+        this.existenceCache = new CustomerExistenceCache(1000, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        this.service = new CustomerImportService(this.queryRepository, this.existenceCache, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, 10);
+    }
+
+    @Test
+    void reportsInvalidLinesAndWritesTheRestInChunks() throws Exception {
+        var insertedId = new ObjectId();
+        when(this.queryRepository.upsertAll(anyList()))
+                .thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1,
+                        List.of(new BulkWriteUpsert(0, new BsonObjectId(insertedId))), List.of()))
+                .thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+
+        var report = this.service.importCustomers(ndjson(
+                customer(null, "a@example.com"),
+                "{not json",
+                customer("c3", "c@example.com"),
+                "",
+                "{\"firstname\":\"Jane\",\"lastname\":\"Doe\",\"email\":\"not-an-email\"}",
+                customer(null, "d@example.com")));
+
+        assertThat(report.received()).isEqualTo(5);
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.updated()).isEqualTo(1);
+        assertThat(report.failures()).extracting(CustomerImportFailure::line).containsExactly(2L, 5L);
+        verify(this.queryRepository, times(2)).upsertAll(anyList());
+        assertThat(this.existenceCache.get(insertedId.toHexString())).isTrue();
+        assertThat(this.existenceCache.get("c3")).isTrue();
+    }
+
+    @Test
+    void duplicateKeyFailsOnlyThatRecord() throws Exception {
+        var result = BulkWriteResult.acknowledged(0, 0, 0, 0,
+                List.of(new BulkWriteUpsert(0, new BsonObjectId(new ObjectId()))), List.of());
+        var duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        when(this.queryRepository.upsertAll(anyList())).thenThrow(new BulkOperationException("bulk write failed",
+                new MongoBulkWriteException(result, List.of(duplicate), null, new ServerAddress(), Set.of())));
+
+        var report = this.service.importCustomers(ndjson(customer(null, "a@example.com"), customer("b2", "a@example.com")));
+
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.failures()).containsExactly(
+                new CustomerImportFailure(2, "A customer with this email or ID already exists"));
+        assertThat(this.existenceCache.get("b2")).isNull();
+    }
+
+    private static String customer(String id, String email) {
+        var idField = id != null ? "\"id\":\"" + id + "\"," : "";
+        return "{" + idField + "\"firstname\":\"Jane\",\"lastname\":\"Doe\",\"email\":\"" + email + "\"}";
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
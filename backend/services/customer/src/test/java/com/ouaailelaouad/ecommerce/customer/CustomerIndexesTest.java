@@ -0,0 +1,30 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerIndexesTest {
+
+    @Test
+    void lookupIndexesAreCaseInsensitiveAndEmailIsUnique() {
+        List<IndexDefinition> indexes = new ArrayList<>();
+        IndexResolver.create(new MongoMappingContext()).resolveIndexFor(Customer.class).forEach(indexes::add);
+
+        assertThat(indexes).extracting(index -> index.getIndexOptions().getString("name"))
+                .containsExactlyInAnyOrder("email_unique", "lastname_firstname");
+        assertThat(indexes).allSatisfy(index -> assertThat(index.getIndexOptions().get("collation", Document.class))
+                .containsEntry("locale", "en")
+                .containsEntry("strength", 2));
+        assertThat(indexes).filteredOn(index -> index.getIndexKeys().containsKey("email"))
+                .singleElement()
+                .satisfies(index -> assertThat(index.getIndexOptions().getBoolean("unique")).isTrue());
+    }
+}
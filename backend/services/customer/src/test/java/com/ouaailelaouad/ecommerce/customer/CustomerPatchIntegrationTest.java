@@ -0,0 +1,195 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.ouaailelaouad.ecommerce.MongoTestDatabase;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * PATCH and startup index/version initialisation over HTTP, against a live Mongo server
+ * (see {@link MongoTestDatabase}).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.cloud.config.enabled=false", "eureka.client.enabled=false"})
+class CustomerPatchIntegrationTest {
+
+    private static final int CUSTOMERS = 50;
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        MongoTestDatabase.register(registry, "customer_patch");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CustomerIndexInitializer indexInitializer;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void clear() {
+        this.mongoTemplate.remove(new Query(), Customer.class);
+    }
+
+    @Test
+    void concurrentPatchesOfDifferentFieldsAreBothApplied() {
+        var ids = IntStream.range(0, CUSTOMERS)
+                .mapToObj(i -> this.mongoTemplate.insert(customer("jane" + i + "@example.com")).getId())
+                .toList();
+
+        // For every customer, one request renames and another moves house, at the same time
+        var responses = new ArrayList<CompletableFuture<HttpResponse<String>>>();
+        for (String id : ids) {
+            responses.add(patchAsync(id, "{\"firstname\":\"Janet\"}"));
+            responses.add(patchAsync(id, "{\"address\":{\"street\":\"High Street\"}}"));
+        }
+
+        assertThat(responses).allSatisfy(response -> assertThat(response.join().statusCode()).isEqualTo(200));
+        assertThat(this.mongoTemplate.findAll(Customer.class)).hasSize(CUSTOMERS).allSatisfy(customer -> {
+            assertThat(customer.getFirstname()).isEqualTo("Janet");
+            assertThat(customer.getLastname()).isEqualTo("Doe");
+            assertThat(customer.getAddress().getStreet()).isEqualTo("High Street");
+            assertThat(customer.getAddress().getHouseNumber()).isEqualTo("1");
+            assertThat(customer.getVersion()).isEqualTo(2L);
+        });
+    }
+
+    @Test
+    void staleVersionIsRejectedWithConflict() {
+        var id = this.mongoTemplate.insert(customer("jane@example.com")).getId();
+
+        var first = patch(id, "{\"firstname\":\"Janet\",\"version\":0}");
+        var stale = patch(id, "{\"lastname\":\"Smith\",\"version\":0}");
+
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.body()).contains("\"version\":1");
+        assertThat(stale.statusCode()).isEqualTo(409);
+        var stored = this.mongoTemplate.findById(id, Customer.class);
+        assertThat(stored.getLastname()).isEqualTo("Doe");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+        assertThat(patch("missing", "{\"firstname\":\"Janet\",\"version\":0}").statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void documentWrittenBeforeVersioningIsInitialisedThenPatched() {
+        // As stored before optimistic locking was introduced: no version field
+        this.mongoTemplate.getCollection(this.mongoTemplate.getCollectionName(Customer.class)).insertOne(
+                new Document("_id", "legacy")
+                        .append("firstname", "Jane")
+                        .append("lastname", "Doe")
+                        .append("email", "legacy@example.com"));
+
+        this.indexInitializer.ensureIndexes();
+
+        assertThat(this.mongoTemplate.findById("legacy", Customer.class).getVersion()).isZero();
+        var patched = patch("legacy", "{\"firstname\":\"Janet\",\"version\":0}");
+        assertThat(patched.statusCode()).isEqualTo(200);
+        assertThat(patched.body()).contains("\"version\":1");
+        // The full update goes through save(): with a version set, it is an update rather than an insert
+        var updated = send(HttpRequest.newBuilder(uri(""))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(
+                        "{\"id\":\"legacy\",\"firstname\":\"Janet\",\"lastname\":\"Smith\"," +
+                        "\"email\":\"legacy@example.com\",\"version\":1}"))
+                .build());
+        assertThat(updated.statusCode()).isEqualTo(202);
+        var stored = this.mongoTemplate.findById("legacy", Customer.class);
+        assertThat(stored.getLastname()).isEqualTo("Smith");
+        assertThat(stored.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void unversionedPatchOfALegacyDocumentStartsItsVersion() {
+        this.mongoTemplate.getCollection(this.mongoTemplate.getCollectionName(Customer.class)).insertOne(
+                new Document("_id", "legacy")
+                        .append("firstname", "Jane")
+                        .append("lastname", "Doe")
+                        .append("email", "legacy@example.com"));
+
+        var patched = patch("legacy", "{\"lastname\":\"Smith\"}");
+
+        assertThat(patched.statusCode()).isEqualTo(200);
+        assertThat(this.mongoTemplate.findById("legacy", Customer.class).getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void initializerCreatesTheLookupIndexesIdempotently() {
+        this.indexInitializer.ensureIndexes();
+        this.indexInitializer.ensureIndexes();
+
+        var indexes = this.mongoTemplate.indexOps(Customer.class).getIndexInfo();
+        assertThat(indexes).extracting(index -> index.getName())
+                .contains("email_unique", "lastname_firstname");
+        assertThat(indexes).filteredOn(index -> index.getName().equals("email_unique"))
+                .singleElement()
+                .satisfies(index -> assertThat(index.isUnique()).isTrue());
+
+        this.mongoTemplate.insert(customer("jane@example.com"));
+        assertThatThrownBy(() -> this.mongoTemplate.insert(customer("jane@example.com")))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void emailIndexIgnoresCase() {
+        assumeTrue(MongoTestDatabase.supportsCollation(), "collations need a real MongoDB");
+        this.indexInitializer.ensureIndexes();
+
+        this.mongoTemplate.insert(customer("jane@example.com"));
+        assertThatThrownBy(() -> this.mongoTemplate.insert(customer("JANE@example.com")))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    private static Customer customer(String email) {
+        return Customer.builder()
+                .firstname("Jane")
+                .lastname("Doe")
+                .email(email)
+                .address(new Address("Main Street", "1", "10000"))
+                .build();
+    }
+
+    private HttpResponse<String> patch(String id, String body) {
+        return patchAsync(id, body).join();
+    }
+
+    private CompletableFuture<HttpResponse<String>> patchAsync(String id, String body) {
+        return this.client.sendAsync(HttpRequest.newBuilder(uri("/" + id))
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        return this.client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).join();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + this.port + "/api/v1/customers" + path);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.ouaailelaouad.ecommerce.MongoTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest(properties = "spring.cloud.config.enabled=false")
+@Import(CustomerQueryRepository.class)
+class CustomerQueryRepositoryTest {
+
+    private static final int CUSTOMERS = 25;
+
+    @DynamicPropertySource
+    static void mongo(DynamicPropertyRegistry registry) {
+        MongoTestDatabase.register(registry, "customer_query");
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CustomerQueryRepository queryRepository;
+
+    private List<String> ids;
+
+    @BeforeEach
+    void seed() {
+        this.mongoTemplate.remove(new Query(), Customer.class);
+        // Inserted out of _id order, so the keyset order cannot come from insertion order
+        var customers = IntStream.range(0, CUSTOMERS)
+                .mapToObj(i -> Customer.builder()
+                        .id(String.format("c%03d", (i * 7) % CUSTOMERS))
+                        .firstname("Jane")
+                        .lastname("Doe " + i)
+                        .email("jane" + i + "@example.com")
+                        .address(new Address("Main", String.valueOf(i), "10000"))
+                        .version(0L)
+                        .build())
+                .toList();
+        this.mongoTemplate.insertAll(customers);
+        this.ids = customers.stream().map(Customer::getId).sorted().toList();
+    }
+
+    @Test
+    void keysetPagesWalkEveryCustomerOnceInIdOrder() {
+        var seen = new ArrayList<String>();
+        String after = null;
+        List<Customer> page;
+        do {
+            page = this.queryRepository.findSummariesAfter(after, 10);
+            assertThat(page).hasSizeLessThanOrEqualTo(10);
+            page.forEach(customer -> seen.add(customer.getId()));
+            after = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        } while (page.size() == 10);
+
+        assertThat(seen).containsExactlyElementsOf(this.ids);
+    }
+
+    @Test
+    void pageAfterTheLastIdIsEmpty() {
+        assertThat(this.queryRepository.findSummariesAfter(this.ids.get(CUSTOMERS - 1), 10)).isEmpty();
+    }
+
+    @Test
+    void summariesLeaveTheAddressAndVersionOut() {
+        var page = this.queryRepository.findSummariesAfter(null, CUSTOMERS);
+
+        assertThat(page).hasSize(CUSTOMERS).allSatisfy(customer -> {
+            assertThat(customer.getEmail()).isNotNull();
+            assertThat(customer.getAddress()).isNull();
+            assertThat(customer.getVersion()).isNull();
+        });
+    }
+
+    @Test
+    void streamsSummariesAndFullDocumentsInIdOrder() {
+        try (var summaries = this.queryRepository.streamSummaries()) {
+            assertThat(summaries.map(Customer::getId).toList()).containsExactlyElementsOf(this.ids);
+        }
+        try (var customers = this.queryRepository.streamAll()) {
+            var all = customers.toList();
+            assertThat(all).extracting(Customer::getId).containsExactlyElementsOf(this.ids);
+            assertThat(all).allSatisfy(customer -> assertThat(customer.getAddress()).isNotNull());
+        }
+    }
+}
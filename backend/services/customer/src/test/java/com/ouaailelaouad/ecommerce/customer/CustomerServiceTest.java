@@ -0,0 +1,107 @@
+package com.ouaailelaouad.ecommerce.customer;
+
+import com.ouaailelaouad.ecommerce.exception.DuplicateEmailException;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerServiceTest {
+
+    private CustomerRepository repository;
+    private CustomerQueryRepository queryRepository;
+    private CustomerService service;
+
+    @BeforeEach
+    void setUp() {
+        this.repository = mock(CustomerRepository.class);
+        this.queryRepository = mock(CustomerQueryRepository.class);
+        var cache = new CustomerExistenceCache(1000, Duration.ofMinutes(10), Duration.ofSeconds(30));
+        this.service = new CustomerService(this.repository, this.queryRepository, cache);
+    }
+
+    @Test
+    void batchExistenceQueriesOnlyCacheMisses() {
+        when(this.repository.existsById("a1")).thenReturn(true);
+        this.service.existsById("a1");
+        when(this.queryRepository.findExistingIds(Set.of("b2", "c3"))).thenReturn(Set.of("b2"));
+
+        var result = this.service.existsByIds(List.of("a1", "b2", "c3"));
+
+        assertThat(result).containsExactly(Map.entry("a1", true), Map.entry("b2", true), Map.entry("c3", false));
+        // Second call is answered entirely from the cache, negatives included
+        this.service.existsByIds(List.of("b2", "c3"));
+        verify(this.queryRepository).findExistingIds(Set.of("b2", "c3"));
+    }
+
+    @Test
+    void createAndDeleteUpdateTheCache() {
+        when(this.repository.save(any(Customer.class)))
+                .thenReturn(Customer.builder().id("a1").build());
+
+        this.service.createCustomer(new CustomerRequest(null, "Jane", "Doe", "jane@example.com", null, null));
+        assertThat(this.service.existsById("a1")).isTrue();
+
+        this.service.deleteCustomer("a1");
+        assertThat(this.service.existsById("a1")).isFalse();
+        verify(this.repository, never()).existsById(anyString());
+    }
+
+    @Test
+    void createRejectsAnEmailAlreadyInUse() {
+        when(this.queryRepository.existsByEmail("Jane@Example.com", null)).thenReturn(true);
+
+        assertThatThrownBy(() -> this.service.createCustomer(
+                new CustomerRequest(null, "Jane", "Doe", "Jane@Example.com", null, null)))
+                .isInstanceOf(DuplicateEmailException.class);
+        verify(this.repository, never()).save(any(Customer.class));
+    }
+
+    @Test
+    void patchSetsOnlySuppliedFieldsAndBumpsTheVersion() {
+        var request = new CustomerPatchRequest(null, "Smith", null, Address.builder().zipCode("75001").build(), 3L);
+
+        var update = CustomerQueryRepository.patchUpdate(request).getUpdateObject();
+        var query = CustomerQueryRepository.patchQuery("a1", 3L).getQueryObject();
+
+        assertThat(update.get("$set", Document.class))
+                .containsOnlyKeys("lastname", "address.zipCode");
+        assertThat(update.get("$inc", Document.class)).containsEntry("version", 1);
+        assertThat(query).containsEntry("version", 3L);
+    }
+
+    @Test
+    void patchOfAStaleVersionIsAConflict() {
+        var request = new CustomerPatchRequest("Jane", null, null, null, 1L);
+        when(this.repository.existsById("a1")).thenReturn(true);
+
+        assertThatThrownBy(() -> this.service.patchCustomer("a1", request))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void updateMergesTheLastname() {
+        var customer = Customer.builder().id("a1").firstname("Jane").lastname("Doe").version(2L).build();
+        when(this.repository.findById("a1")).thenReturn(Optional.of(customer));
+
+        this.service.updateCustomer(new CustomerRequest("a1", null, "Smith", null, null, 2L));
+
+        assertThat(customer.getLastname()).isEqualTo("Smith");
+        verify(this.repository).save(customer);
+    }
+}
@@ -2,8 +2,11 @@ package com.imad.gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration;
 
-@SpringBootApplication
+// Redis n'est utilisé que pour les seaux de jetons partagés, configurés par RateLimitConfig
+@SpringBootApplication(exclude = {RedisAutoConfiguration.class, RedisReactiveAutoConfiguration.class})
 public class GatewayApplication {
 
 	public static void main(String[] args) {
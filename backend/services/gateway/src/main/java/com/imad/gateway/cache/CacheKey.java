@@ -0,0 +1,9 @@
+package com.imad.gateway.cache;
+
+import java.util.List;
+
+// Clé du cache : chemin, query string et en-têtes qui font varier la représentation
+// (Accept, Accept-Encoding...). L'Authorization n'en fait pas partie : les réponses du catalogue
+// sont identiques pour tous les clients authentifiés.
+public record CacheKey(String path, String query, List<String> headerValues) {
+}
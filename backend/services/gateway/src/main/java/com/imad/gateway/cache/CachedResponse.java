@@ -0,0 +1,19 @@
+package com.imad.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Instant;
+
+// Réponse amont complète telle qu'elle est rejouée depuis le cache
+public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body,
+                             Instant storedAt, Instant expiresAt) {
+
+    public String etag() {
+        return headers.getETag();
+    }
+
+    public int weight() {
+        return body.length + 64 * headers.size();
+    }
+}
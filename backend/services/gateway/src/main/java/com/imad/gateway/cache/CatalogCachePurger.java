@@ -0,0 +1,95 @@
+package com.imad.gateway.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Purge le cache à partir du flux de changements du catalogue publié par product-service.
+ * Le flux est relu depuis le début au démarrage (le cache est alors vide, la purge est sans effet),
+ * puis suivi par offset. Si product-service est injoignable, les entrées expirent à leur TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.response-cache.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogCachePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogCachePurger.class);
+
+    static final String PRODUCTS = "/api/v1/products";
+    static final String CATEGORIES = "/api/v1/categories";
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties.Purge properties;
+    private final WebClient webClient;
+    private long after;
+
+    public CatalogCachePurger(ResponseCache cache, ResponseCacheProperties properties,
+                              WebClient.Builder webClientBuilder,
+                              ObjectProvider<ReactorLoadBalancerExchangeFilterFunction> loadBalancer) {
+        this.cache = cache;
+        this.properties = properties.purge();
+        loadBalancer.ifAvailable(webClientBuilder::filter);
+        this.webClient = webClientBuilder.build();
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.response-cache.purge.interval:PT5S}")
+    public void poll() {
+        try {
+            CatalogChange.Feed feed;
+            do {
+                feed = webClient.get()
+                        .uri(properties.changesUri() + "?after={after}&limit={limit}", after, properties.pageSize())
+                        .retrieve()
+                        .bodyToMono(CatalogChange.Feed.class)
+                        .block(Duration.ofSeconds(10));
+                if (feed == null) {
+                    return;
+                }
+                apply(feed.changes());
+                after = feed.nextAfter();
+            } while (feed.hasMore());
+        } catch (RuntimeException e) {
+            log.warn("Flux de changements du catalogue indisponible (offset {}) : {}", after, e.getMessage());
+        }
+    }
+
+    void apply(List<CatalogChange> changes) {
+        for (CatalogChange change : changes) {
+            if ("CATEGORY".equals(change.aggregateType())) {
+                // Les réponses produits embarquent le nom de la catégorie
+                cache.invalidateIf(key -> isUnder(key.path(), PRODUCTS) || isUnder(key.path(), CATEGORIES));
+            } else {
+                String productId = String.valueOf(change.aggregateId());
+                cache.invalidateIf(key -> affectedByProduct(key.path(), productId));
+            }
+        }
+    }
+
+    /**
+     * La fiche du produit, toutes les listes (pages, recherche, filtres, facettes) et les vues
+     * catégorie qui comptent ou listent des produits ; les fiches des autres produits sont conservées.
+     */
+    static boolean affectedByProduct(String path, String productId) {
+        if (isUnder(path, CATEGORIES)) {
+            return path.contains("product");
+        }
+        if (!isUnder(path, PRODUCTS)) {
+            return false;
+        }
+        String rest = path.substring(PRODUCTS.length());
+        String segment = rest.isEmpty() ? "" : rest.substring(1).split("/", 2)[0];
+        return segment.isEmpty() || !segment.chars().allMatch(Character::isDigit) || segment.equals(productId);
+    }
+
+    private static boolean isUnder(String path, String prefix) {
+        return path.equals(prefix) || path.startsWith(prefix + "/");
+    }
+}
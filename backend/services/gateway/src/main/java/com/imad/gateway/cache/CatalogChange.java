@@ -0,0 +1,10 @@
+package com.imad.gateway.cache;
+
+import java.util.List;
+
+// Page du flux /api/v1/changes de product-service (seuls les champs utiles à la purge)
+public record CatalogChange(long seq, String aggregateType, Long aggregateId) {
+
+    public record Feed(List<CatalogChange> changes, long nextAfter, boolean hasMore) {
+    }
+}
@@ -0,0 +1,281 @@
+package com.imad.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filtre de route "CatalogResponseCache" : met en cache les réponses GET du catalogue.
+ * Les requêtes identiques qui arrivent pendant un chargement attendent la réponse du premier
+ * appel au lieu de solliciter product-service (coalescence). Cache-Control et ETag sont respectés
+ * dans les deux sens ; l'en-tête X-Cache indique HIT, COALESCED ou MISS, et STALE pour une réponse
+ * expirée servie en repli (voir {@link #writeStale}).
+ */
+@Component
+public class CatalogResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    public static final String X_CACHE = "X-Cache";
+    // Clé de la requête, relue par la réponse de repli quand l'amont est en échec
+    public static final String CACHE_KEY_ATTR = CatalogResponseCacheGatewayFilterFactory.class.getName() + ".key";
+
+    // Avant l'écriture de la réponse, pour que NettyWriteResponseFilter écrive dans le décorateur
+    private static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+    private final List<PathPattern> paths;
+
+    public CatalogResponseCacheGatewayFilterFactory(ResponseCache cache, ResponseCacheProperties properties) {
+        super(Object.class);
+        this.cache = cache;
+        this.properties = properties;
+        this.paths = properties.paths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return new OrderedGatewayFilter(this::filter, ORDER);
+    }
+
+    Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String requestCacheControl = cacheControl(request.getHeaders());
+        if (request.getMethod() != HttpMethod.GET
+                || paths.stream().noneMatch(path -> path.matches(request.getPath().pathWithinApplication()))
+                || requestCacheControl.contains("no-store")
+                || request.getHeaders().getAccept().contains(MediaType.TEXT_EVENT_STREAM)) {
+            return chain.filter(exchange);
+        }
+
+        CacheKey key = keyOf(request);
+        exchange.getAttributes().put(CACHE_KEY_ATTR, key);
+        boolean revalidate = requestCacheControl.contains("no-cache") || requestCacheControl.contains("max-age=0");
+        if (!revalidate) {
+            CachedResponse cached = cache.get(key);
+            if (cached != null) {
+                return writeCached(exchange, cached, "HIT");
+            }
+        }
+
+        CompletableFuture<Optional<CachedResponse>> load = new CompletableFuture<>();
+        // Une revalidation demandée par le client ne se greffe pas sur un chargement en cours
+        CompletableFuture<Optional<CachedResponse>> pending = revalidate ? null : cache.joinOrLead(key, load);
+        if (pending != null) {
+            return Mono.fromFuture(pending, true)
+                    .flatMap(response -> response
+                            .map(cached -> writeCached(exchange, cached, "COALESCED"))
+                            // Réponse non cacheable ou échec du premier appel : chacun appelle l'amont
+                            .orElseGet(() -> chain.filter(exchange)));
+        }
+
+        cache.started(key, load);
+        RecordingResponse recorder = new RecordingResponse(exchange.getResponse(), key, load);
+        return chain.filter(exchange.mutate().response(recorder).build())
+                .doFinally(signal -> recorder.finished());
+    }
+
+    CacheKey keyOf(ServerHttpRequest request) {
+        var headerValues = new ArrayList<String>(properties.keyHeaders().size());
+        for (String header : properties.keyHeaders()) {
+            headerValues.add(String.join(",", request.getHeaders().getOrEmpty(header)));
+        }
+        return new CacheKey(request.getPath().value(), request.getURI().getRawQuery(), headerValues);
+    }
+
+    /**
+     * Dernière réponse connue pour la requête, même expirée, ou null (requête non cacheable,
+     * jamais chargée ou purgée).
+     */
+    public CachedResponse lastKnown(ServerWebExchange exchange) {
+        CacheKey key = exchange.getAttribute(CACHE_KEY_ATTR);
+        return key != null ? cache.getStale(key) : null;
+    }
+
+    public Mono<Void> writeStale(ServerWebExchange exchange, CachedResponse cached) {
+        return writeCached(exchange, cached, "STALE");
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String outcome) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        long age = Duration.between(cached.storedAt(), cache.clock().instant()).toSeconds();
+        headers.set(HttpHeaders.AGE, String.valueOf(Math.max(0, age)));
+        headers.set(X_CACHE, outcome);
+
+        String etag = cached.etag();
+        if (etag != null && matches(exchange.getRequest().getHeaders().getIfNoneMatch(), etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        String weakless = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(weakless)
+                    || candidate.equals("W/" + weakless)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String cacheControl(HttpHeaders headers) {
+        String value = headers.getCacheControl();
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Durée de vie d'une réponse amont, ou null si elle ne doit pas être mise en cache.
+     */
+    Duration ttlOf(HttpStatus status, HttpHeaders headers) {
+        if (status != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType == null || properties.cacheableContentTypes().stream()
+                .map(MediaType::parseMediaType)
+                .noneMatch(type -> type.isCompatibleWith(contentType))) {
+            return null;
+        }
+        if (headers.getContentLength() > properties.maximumEntrySize().toBytes()) {
+            return null;
+        }
+        for (String vary : headers.getVary()) {
+            if (vary.equals("*") || properties.keyHeaders().stream().noneMatch(vary::equalsIgnoreCase)) {
+                return null;
+            }
+        }
+
+        Duration ttl = properties.defaultTtl();
+        Long maxAge = null;
+        for (String directive : cacheControl(headers).split(",")) {
+            String name = directive.trim();
+            if (name.equals("no-store") || name.equals("no-cache") || name.equals("private")) {
+                return null;
+            }
+            if (name.startsWith("s-maxage=")) {
+                maxAge = parseSeconds(name.substring("s-maxage=".length()));
+            } else if (name.startsWith("max-age=") && maxAge == null) {
+                maxAge = parseSeconds(name.substring("max-age=".length()));
+            }
+        }
+        if (maxAge != null) {
+            ttl = Duration.ofSeconds(maxAge);
+        }
+        if (ttl.compareTo(properties.maximumTtl()) > 0) {
+            ttl = properties.maximumTtl();
+        }
+        return ttl.isZero() || ttl.isNegative() ? null : ttl;
+    }
+
+    private static Long parseSeconds(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    // Transmet la réponse au client tout en copiant le corps, dans la limite de maximumEntrySize.
+    // Le chargement est terminé à la fin du corps : la chaîne de filtres peut se terminer avant.
+    private class RecordingResponse extends ServerHttpResponseDecorator {
+
+        private final CacheKey key;
+        private final CompletableFuture<Optional<CachedResponse>> load;
+        private final AtomicBoolean writing = new AtomicBoolean();
+
+        RecordingResponse(ServerHttpResponse delegate, CacheKey key,
+                          CompletableFuture<Optional<CachedResponse>> load) {
+            super(delegate);
+            this.key = key;
+            this.load = load;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            writing.set(true);
+            HttpStatus status = getStatusCode() == null ? null : HttpStatus.resolve(getStatusCode().value());
+            // Une réponse déjà marquée vient de la gateway (repli) et non de l'amont
+            Duration ttl = status == null || getHeaders().containsKey(X_CACHE) ? null : ttlOf(status, getHeaders());
+            if (ttl == null) {
+                cache.loaded(key, load, null);
+                return super.writeWith(body);
+            }
+            getHeaders().set(X_CACHE, "MISS");
+            HttpHeaders headers = HttpHeaders.writableHttpHeaders(new HttpHeaders());
+            headers.putAll(getHeaders());
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            headers.remove(HttpHeaders.CONNECTION);
+            headers.remove(X_CACHE);
+
+            long limit = properties.maximumEntrySize().toBytes();
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            AtomicBoolean tooLarge = new AtomicBoolean();
+            Flux<DataBuffer> recording = Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        int count = buffer.readableByteCount();
+                        if (tooLarge.get() || copy.size() + count > limit) {
+                            tooLarge.set(true);
+                            return;
+                        }
+                        byte[] bytes = new byte[count];
+                        int position = buffer.readPosition();
+                        buffer.read(bytes);
+                        buffer.readPosition(position);
+                        copy.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        CachedResponse response = null;
+                        if (!tooLarge.get()) {
+                            Instant now = cache.clock().instant();
+                            response = new CachedResponse(status, headers, copy.toByteArray(), now, now.plus(ttl));
+                        }
+                        cache.loaded(key, load, response);
+                    })
+                    .doOnError(error -> cache.loaded(key, load, null))
+                    .doOnCancel(() -> cache.loaded(key, load, null));
+            return super.writeWith(recording);
+        }
+
+        // Réponse terminée sans corps (erreur amont, setComplete) : les requêtes en attente sont libérées
+        void finished() {
+            if (!writing.get()) {
+                cache.loaded(key, load, null);
+            }
+        }
+    }
+}
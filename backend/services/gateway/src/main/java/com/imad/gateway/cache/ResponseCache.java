@@ -0,0 +1,117 @@
+package com.imad.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+// Cache des réponses GET du catalogue, borné en octets, avec une durée de vie par entrée.
+// Les chargements en cours sont partagés : un seul appel amont par clé à la fois.
+// Une réponse expirée reste disponible pendant staleIfError pour les réponses de repli (/fallback).
+@Component
+public class ResponseCache {
+
+    private final Cache<CacheKey, CachedResponse> responses;
+    private final Map<CacheKey, CompletableFuture<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+    // Chargements menés par une requête (revalidations comprises), et ceux qu'une purge a rendus obsolètes
+    private final Map<CompletableFuture<Optional<CachedResponse>>, CacheKey> loading = new ConcurrentHashMap<>();
+    private final Set<CompletableFuture<Optional<CachedResponse>>> purged = ConcurrentHashMap.newKeySet();
+    private final Object purgeLock = new Object();
+    private final Clock clock;
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.clock = Clock.systemUTC();
+        Duration staleIfError = properties.staleIfError();
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(properties.maximumSize().toBytes())
+                .weigher((CacheKey key, CachedResponse response) -> response.weight())
+                .expireAfter(new Expiry<CacheKey, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(CacheKey key, CachedResponse response, long currentTime) {
+                        return Math.max(0, Duration.between(clock.instant(), response.expiresAt().plus(staleIfError)).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(CacheKey key, CachedResponse response, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, response, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(CacheKey key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public CachedResponse get(CacheKey key) {
+        CachedResponse response = responses.getIfPresent(key);
+        return response != null && clock.instant().isBefore(response.expiresAt()) ? response : null;
+    }
+
+    // Dernière réponse connue, même expirée : servie quand l'amont est en échec
+    public CachedResponse getStale(CacheKey key) {
+        return responses.getIfPresent(key);
+    }
+
+    public void put(CacheKey key, CachedResponse response) {
+        responses.put(key, response);
+    }
+
+    public Clock clock() {
+        return clock;
+    }
+
+    /**
+     * Devient le chargeur de la clé si aucun chargement n'est en cours (retourne null),
+     * sinon retourne le chargement existant à attendre.
+     */
+    public CompletableFuture<Optional<CachedResponse>> joinOrLead(CacheKey key,
+                                                                  CompletableFuture<Optional<CachedResponse>> load) {
+        return inFlight.putIfAbsent(key, load);
+    }
+
+    // Une réponse chargée pendant une purge qui concerne sa clé ne doit pas être stockée après
+    public void started(CacheKey key, CompletableFuture<Optional<CachedResponse>> load) {
+        loading.put(load, key);
+    }
+
+    public void loaded(CacheKey key, CompletableFuture<Optional<CachedResponse>> load, CachedResponse response) {
+        if (load.isDone()) {
+            return;
+        }
+        synchronized (purgeLock) {
+            loading.remove(load);
+            if (!purged.remove(load) && response != null) {
+                responses.put(key, response);
+            }
+        }
+        inFlight.remove(key, load);
+        load.complete(Optional.ofNullable(response));
+    }
+
+    // Seules les clés concernées sont retirées ; les chargements des autres clés sont conservés
+    public void invalidateIf(Predicate<CacheKey> predicate) {
+        synchronized (purgeLock) {
+            loading.forEach((load, key) -> {
+                if (predicate.test(key)) {
+                    purged.add(load);
+                }
+            });
+        }
+        responses.asMap().keySet().removeIf(predicate);
+    }
+
+    public long size() {
+        return responses.estimatedSize();
+    }
+}
@@ -0,0 +1,47 @@
+package com.imad.gateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param maximumSize           mémoire maximale occupée par les réponses en cache
+ * @param maximumEntrySize      au-delà, la réponse est transmise sans être mise en cache
+ * @param defaultTtl            durée de vie si l'amont n'envoie pas de max-age
+ * @param maximumTtl            plafond appliqué au max-age de l'amont
+ * @param staleIfError          durée pendant laquelle une réponse expirée peut encore servir de repli
+ * @param paths                 seules les lectures du catalogue sont mises en cache : les réservations de stock
+ *                              ou les alertes, propres à un client ou sans purge, passent toujours à l'amont
+ * @param keyHeaders            en-têtes de requête qui font partie de la clé
+ * @param cacheableContentTypes seuls ces types sont mis en cache (jamais les flux SSE ou les exports)
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue("64MB") DataSize maximumSize,
+        @DefaultValue("1MB") DataSize maximumEntrySize,
+        @DefaultValue("30s") Duration defaultTtl,
+        @DefaultValue("5m") Duration maximumTtl,
+        @DefaultValue("10m") Duration staleIfError,
+        @DefaultValue({"/api/v1/products", "/api/v1/products/{id:\\d+}", "/api/v1/products/sku/*",
+                "/api/v1/products/cursor", "/api/v1/products/status/*", "/api/v1/products/category/*",
+                "/api/v1/products/search", "/api/v1/products/filter", "/api/v1/products/facets",
+                "/api/v1/products/brands", "/api/v1/categories/**"}) List<String> paths,
+        @DefaultValue({"Accept", "Accept-Encoding", "Accept-Language"}) List<String> keyHeaders,
+        @DefaultValue("application/json") List<String> cacheableContentTypes,
+        @DefaultValue Purge purge
+) {
+
+    /**
+     * Invalidation à partir du flux de changements du catalogue (product-service, /api/v1/changes).
+     */
+    public record Purge(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("http://PRODUCT-SERVICE/api/v1/changes") String changesUri,
+            @DefaultValue("5s") Duration interval,
+            @DefaultValue("1000") int pageSize
+    ) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.imad.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remplace JwtReactiveAuthenticationManager : un jeton n'est vérifié (signature, émetteur, dates)
+ * qu'une fois, puis son authentification est servie depuis un cache jusqu'à son expiration.
+ * Les vérifications simultanées d'un même jeton partagent le même décodage ; un échec n'est pas mis en cache.
+ */
+public class CachingJwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    // Jeton sans claim exp : gardé peu de temps, le décodeur le revalidera ensuite
+    private static final Duration WITHOUT_EXPIRY = Duration.ofMinutes(5);
+
+    private final ReactiveJwtDecoder decoder;
+    private final JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+    private final AsyncCache<TokenHash, Verification> cache;
+
+    public CachingJwtAuthenticationManager(ReactiveJwtDecoder decoder, long maximumSize, Clock clock) {
+        this.decoder = decoder;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry(clock))
+                .buildAsync();
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+            return Mono.empty();
+        }
+        String token = bearer.getToken();
+        TokenHash key = TokenHash.of(token);
+        return Mono.defer(() -> {
+                    CompletableFuture<Verification> pending = cache.get(key, (hash, executor) -> verify(token).toFuture());
+                    // true : l'annulation d'une requête n'interrompt pas un décodage partagé
+                    return Mono.fromFuture(pending, true)
+                            .doOnNext(verification -> {
+                                if (verification.error() != null) {
+                                    cache.asMap().remove(key, pending);
+                                }
+                            });
+                })
+                .flatMap(cached -> cached.matches(token) ? Mono.just(cached) : verify(token))
+                .flatMap(Verification::result);
+    }
+
+    // Un jeton refusé donne un résultat retiré aussitôt du cache plutôt qu'un échec du chargement,
+    // que Caffeine journaliserait à chaque jeton invalide
+    private Mono<Verification> verify(String token) {
+        return decoder.decode(token)
+                .map(jwt -> new Verification(token, new GatewayAuthentication(jwt, authoritiesConverter.convert(jwt)), null))
+                .onErrorResume(JwtException.class, e -> Mono.just(new Verification(token, null, onError(e))));
+    }
+
+    // Mêmes erreurs que JwtReactiveAuthenticationManager : 401 pour un jeton invalide
+    private static Throwable onError(JwtException e) {
+        if (e instanceof BadJwtException) {
+            return new InvalidBearerTokenException(e.getMessage(), e);
+        }
+        return new AuthenticationServiceException(e.getMessage(), e);
+    }
+
+    private record Verification(String token, GatewayAuthentication authentication, Throwable error) {
+
+        boolean matches(String candidate) {
+            return token.equals(candidate);
+        }
+
+        Mono<Authentication> result() {
+            return error != null ? Mono.error(error) : Mono.just(authentication);
+        }
+    }
+
+    private record UntilTokenExpiry(Clock clock) implements Expiry<TokenHash, Verification> {
+
+        @Override
+        public long expireAfterCreate(TokenHash key, Verification value, long currentTime) {
+            if (value.authentication() == null) {
+                return 0;
+            }
+            Jwt jwt = value.authentication().getToken();
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return WITHOUT_EXPIRY.toNanos();
+            }
+            return Math.max(0, Duration.between(clock.instant(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenHash key, Verification value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(TokenHash key, Verification value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.imad.gateway.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authentification mise en cache : les en-têtes d'identité transmis aux services sont calculés
+ * une seule fois par jeton, pas à chaque requête.
+ */
+public class GatewayAuthentication extends JwtAuthenticationToken {
+
+    public static final String USER_ID = "X-User-Id";
+    public static final String USER_NAME = "X-User-Name";
+    public static final String USER_EMAIL = "X-User-Email";
+    public static final String USER_ROLES = "X-User-Roles";
+
+    public static final List<String> IDENTITY_HEADERS = List.of(USER_ID, USER_NAME, USER_EMAIL, USER_ROLES);
+
+    private final Map<String, String> identityHeaders;
+
+    public GatewayAuthentication(Jwt jwt, Collection<? extends GrantedAuthority> authorities) {
+        super(jwt, authorities);
+        this.identityHeaders = identityHeaders(jwt);
+    }
+
+    public Map<String, String> getIdentityHeaders() {
+        return identityHeaders;
+    }
+
+    private static Map<String, String> identityHeaders(Jwt jwt) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        putIfPresent(headers, USER_ID, jwt.getSubject());
+        putIfPresent(headers, USER_NAME, jwt.getClaimAsString("preferred_username"));
+        putIfPresent(headers, USER_EMAIL, jwt.getClaimAsString("email"));
+        List<String> roles = realmRoles(jwt);
+        if (!roles.isEmpty()) {
+            headers.put(USER_ROLES, String.join(",", roles));
+        }
+        return Map.copyOf(headers);
+    }
+
+    // Rôles Keycloak du realm : claim realm_access.roles
+    private static List<String> realmRoles(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+        if (realmAccess == null || !(realmAccess.get("roles") instanceof Collection<?> roles)) {
+            return List.of();
+        }
+        return roles.stream().map(String::valueOf).toList();
+    }
+
+    private static void putIfPresent(Map<String, String> headers, String name, String value) {
+        if (value != null && !value.isEmpty()) {
+            headers.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.imad.gateway.jwt;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Transmet l'identité vérifiée aux services (X-User-Id, X-User-Name, X-User-Email, X-User-Roles),
+ * qui n'ont alors plus à décoder le jeton. Les en-têtes X-User-* envoyés par le client sont toujours retirés.
+ */
+public class IdentityHeadersFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return exchange.getPrincipal()
+                .filter(GatewayAuthentication.class::isInstance)
+                .map(principal -> ((GatewayAuthentication) principal).getIdentityHeaders())
+                .defaultIfEmpty(Map.of())
+                .flatMap(identity -> chain.filter(withIdentity(exchange, identity)));
+    }
+
+    private static ServerWebExchange withIdentity(ServerWebExchange exchange, Map<String, String> identity) {
+        // Copie : derrière le pare-feu de Spring Security, les en-têtes de la requête sont en lecture seule,
+        // y compris pour request.mutate() (renvoi des disjoncteurs vers forward:/fallback)
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(exchange.getRequest().getHeaders());
+        GatewayAuthentication.IDENTITY_HEADERS.forEach(headers::remove);
+        identity.forEach(headers::set);
+        ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+        return exchange.mutate().request(request).build();
+    }
+
+    // Avant le routage, comme les autres filtres qui modifient la requête
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+}
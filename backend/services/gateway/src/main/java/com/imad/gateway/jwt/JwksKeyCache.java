@@ -0,0 +1,115 @@
+package com.imad.gateway.jwt;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Clés publiques de l'émetteur, gardées en mémoire et rafraîchies en arrière-plan.
+ * Un échec de téléchargement conserve les clés connues : la gateway continue de valider les jetons
+ * pendant une indisponibilité de Keycloak. Un kid inconnu (rotation des clés) déclenche un
+ * rafraîchissement immédiat, au plus une fois par minimumRefreshInterval ; les appels simultanés
+ * partagent le même téléchargement.
+ */
+public class JwksKeyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyCache.class);
+
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final Duration fetchTimeout;
+    private final Duration minimumRefreshInterval;
+    private final Clock clock;
+
+    private final AtomicReference<JWKSet> keys = new AtomicReference<>(new JWKSet());
+    private final AtomicReference<Mono<Void>> refreshing = new AtomicReference<>();
+    private volatile Instant lastRefresh = Instant.MIN;
+
+    public JwksKeyCache(WebClient webClient, String jwkSetUri, JwtProperties properties, Clock clock) {
+        this.webClient = webClient;
+        this.jwkSetUri = jwkSetUri;
+        this.fetchTimeout = properties.fetchTimeout();
+        this.minimumRefreshInterval = properties.minimumRefreshInterval();
+        this.clock = clock;
+    }
+
+    /**
+     * Source de clés pour le décodeur : les clés du kid du jeton, après rafraîchissement s'il est inconnu.
+     */
+    public Flux<JWK> keysFor(SignedJWT jwt) {
+        String keyId = jwt.getHeader().getKeyID();
+        List<JWK> matching = select(keyId);
+        if (!matching.isEmpty()) {
+            return Flux.fromIterable(matching);
+        }
+        if (Duration.between(lastRefresh, clock.instant()).compareTo(minimumRefreshInterval) < 0) {
+            return Flux.empty();
+        }
+        return refresh().thenMany(Flux.defer(() -> Flux.fromIterable(select(keyId))));
+    }
+
+    // fixedDelay sans initialDelay : premier chargement au démarrage, sans le bloquer ni le faire échouer
+    @Scheduled(fixedDelayString = "${gateway.jwt.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        refresh().subscribe();
+    }
+
+    public Mono<Void> refresh() {
+        Mono<Void> current = refreshing.get();
+        if (current != null) {
+            return current;
+        }
+        Mono<Void> download = webClient.get()
+                .uri(jwkSetUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(fetchTimeout)
+                .map(JwksKeyCache::parse)
+                .doOnNext(keySet -> {
+                    keys.set(keySet);
+                    log.debug("JWKS rafraîchi : {} clé(s)", keySet.getKeys().size());
+                })
+                .doOnError(e -> log.warn("JWKS indisponible ({}), clés conservées : {}", jwkSetUri, e.getMessage()))
+                .onErrorResume(e -> Mono.empty())
+                .doFinally(signal -> {
+                    lastRefresh = clock.instant();
+                    refreshing.set(null);
+                })
+                .then()
+                .cache();
+        return refreshing.compareAndSet(null, download) ? download : refresh();
+    }
+
+    private static JWKSet parse(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new IllegalStateException("JWKS illisible", e);
+        }
+    }
+
+    public int size() {
+        return keys.get().getKeys().size();
+    }
+
+    private List<JWK> select(String keyId) {
+        List<JWK> all = keys.get().getKeys();
+        if (keyId == null) {
+            return all;
+        }
+        return all.stream().filter(key -> keyId.equals(key.getKeyID())).toList();
+    }
+}
@@ -0,0 +1,46 @@
+package com.imad.gateway.jwt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Clock;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(JwtProperties.class)
+public class JwtConfig {
+
+    @Bean
+    public JwksKeyCache jwksKeyCache(
+            WebClient.Builder webClientBuilder, JwtProperties properties,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri) {
+        return new JwksKeyCache(webClientBuilder.build(), properties.jwkSetUri(issuerUri), properties, Clock.systemUTC());
+    }
+
+    // Remplace le décodeur de Spring Boot, qui interroge l'émetteur (découverte OIDC) avant le premier jeton
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(
+            JwksKeyCache keyCache,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri) {
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withJwkSource(keyCache::keysFor).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
+
+    @Bean
+    public CachingJwtAuthenticationManager jwtAuthenticationManager(ReactiveJwtDecoder jwtDecoder, JwtProperties properties) {
+        return new CachingJwtAuthenticationManager(jwtDecoder, properties.tokenCacheMaximumSize(), Clock.systemUTC());
+    }
+
+    @Bean
+    public IdentityHeadersFilter identityHeadersFilter() {
+        return new IdentityHeadersFilter();
+    }
+}
@@ -0,0 +1,25 @@
+package com.imad.gateway.jwt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param jwkSetUri              clés publiques ; par défaut l'URI Keycloak dérivée de l'émetteur
+ * @param minimumRefreshInterval délai minimal entre deux rafraîchissements déclenchés par un kid inconnu
+ * @param fetchTimeout           délai maximal d'un téléchargement du JWKS
+ * @param tokenCacheMaximumSize  nombre maximal de jetons vérifiés conservés
+ */
+@ConfigurationProperties(prefix = "gateway.jwt")
+public record JwtProperties(
+        String jwkSetUri,
+        @DefaultValue("30s") Duration minimumRefreshInterval,
+        @DefaultValue("5s") Duration fetchTimeout,
+        @DefaultValue("100000") long tokenCacheMaximumSize
+) {
+
+    public String jwkSetUri(String issuerUri) {
+        return jwkSetUri != null ? jwkSetUri : issuerUri + "/protocol/openid-connect/certs";
+    }
+}
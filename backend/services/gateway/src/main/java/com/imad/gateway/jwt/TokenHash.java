@@ -0,0 +1,27 @@
+package com.imad.gateway.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Clé du cache des jetons vérifiés : 128 premiers bits du SHA-256 du jeton.
+ * Le cache ne garde pas le jeton comme clé, et la clé ne dépend pas de String.hashCode.
+ */
+record TokenHash(long high, long low) {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    static TokenHash of(String token) {
+        MessageDigest digest = SHA_256.get();
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenHash(hash.getLong(), hash.getLong());
+    }
+}
@@ -0,0 +1,121 @@
+package com.imad.gateway.loadbalancer;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Flux;
+import reactor.netty.Connection;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ALREADY_ROUTED_ATTR;
+
+/**
+ * Une tentative d'appel au backend : la suite de la chaîne (choix d'instance, routage Netty) s'exécute sur
+ * une vue de l'échange avec ses propres attributs, statut et en-têtes de réponse. Plusieurs tentatives
+ * peuvent ainsi être en cours en même temps ; seule la tentative retenue est reportée sur l'échange réel,
+ * dont NettyWriteResponseFilter écrit ensuite le corps.
+ */
+final class Attempt {
+
+    private final Map<String, Object> attributes;
+    private final AttemptResponse response;
+    private final ServerWebExchange exchange;
+
+    Attempt(ServerWebExchange original, Set<String> triedInstances) {
+        this.attributes = new ConcurrentHashMap<>(original.getAttributes());
+        this.attributes.remove(GATEWAY_ALREADY_ROUTED_ATTR);
+        this.attributes.put(LatencyAwareLoadBalancer.TRIED_INSTANCES_ATTR, triedInstances);
+        this.response = new AttemptResponse(original.getResponse());
+        // Requêtes GET/HEAD uniquement : pas de corps, qui ne pourrait être lu qu'une fois
+        ServerHttpRequest request = new ServerHttpRequestDecorator(original.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.empty();
+            }
+        };
+        this.exchange = new ServerWebExchangeDecorator(original) {
+            @Override
+            public ServerHttpRequest getRequest() {
+                return request;
+            }
+
+            @Override
+            public ServerHttpResponse getResponse() {
+                return response;
+            }
+
+            @Override
+            public Map<String, Object> getAttributes() {
+                return attributes;
+            }
+        };
+    }
+
+    ServerWebExchange exchange() {
+        return exchange;
+    }
+
+    HttpStatusCode status() {
+        return response.getStatusCode();
+    }
+
+    /**
+     * Ferme la connexion d'une tentative écartée dont les en-têtes de réponse sont déjà arrivés.
+     */
+    void discard() {
+        if (attributes.remove(CLIENT_RESPONSE_CONN_ATTR) instanceof Connection connection) {
+            connection.dispose();
+        }
+    }
+
+    void commitTo(ServerWebExchange target) {
+        attributes.remove(LatencyAwareLoadBalancer.TRIED_INSTANCES_ATTR);
+        target.getAttributes().putAll(attributes);
+        ServerHttpResponse targetResponse = target.getResponse();
+        if (response.getStatusCode() != null) {
+            targetResponse.setStatusCode(response.getStatusCode());
+        }
+        HttpHeaders headers = response.getHeaders();
+        // Même règle que NettyRoutingFilter : pas de Transfer-Encoding avec un Content-Length
+        if (!headers.containsKey(HttpHeaders.TRANSFER_ENCODING) && headers.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            targetResponse.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        targetResponse.getHeaders().addAll(headers);
+    }
+
+    private static final class AttemptResponse extends ServerHttpResponseDecorator {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private volatile HttpStatusCode status;
+
+        AttemptResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.imad.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filtre de route "BudgetedRetry" pour les lectures (GET, HEAD) :
+ * <ul>
+ *   <li>nouvelle tentative, sur une autre instance, après une erreur de connexion, un délai dépassé
+ *   ou un statut 502/503/504 ;</li>
+ *   <li>avec hedge=true, requête parallèle vers une autre instance si la réponse n'est pas arrivée
+ *   après le p95 des latences récentes de la route ; la première réponse est gardée, l'autre annulée.</li>
+ * </ul>
+ * Tentatives et requêtes parallèles consomment le même {@link RetryBudget}, un par route.
+ * Le filtre s'exécute juste avant la résolution de l'URL : seuls le choix d'instance et l'appel
+ * sont rejoués, pas les limites de débit ni le cache placés avant lui.
+ * Métriques : gateway.retry.attempts (kind=retry|hedge) et gateway.retry.budget-exhausted, par route.
+ */
+@Component
+public class BudgetedRetryGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<BudgetedRetryGatewayFilterFactory.Config> {
+
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER - 1;
+
+    private static final Set<HttpMethod> IDEMPOTENT = Set.of(HttpMethod.GET, HttpMethod.HEAD);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteState> states = new ConcurrentHashMap<>();
+
+    public BudgetedRetryGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!IDEMPOTENT.contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "default";
+            RouteState state = states.computeIfAbsent(routeId, id -> new RouteState(id, config));
+            state.budget.deposit();
+            Set<String> tried = ConcurrentHashMap.newKeySet();
+            return execute(exchange, chain, config, state, tried, 0)
+                    .doOnNext(attempt -> attempt.commitTo(exchange))
+                    .then();
+        }, ORDER);
+    }
+
+    private Mono<Attempt> execute(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                                  RouteState state, Set<String> tried, int retry) {
+        Mono<Attempt> call = config.isHedge()
+                ? hedged(exchange, chain, config, state, tried)
+                : attempt(exchange, chain, state, tried);
+        return call.materialize().flatMap(signal -> {
+            boolean retryable = signal.isOnError()
+                    ? isRetryable(signal.getThrowable(), config)
+                    : isRetryable(signal.get().status(), config);
+            if (retryable && retry < config.getRetries() && state.tryWithdraw(state.retries)) {
+                if (signal.isOnNext()) {
+                    signal.get().discard();
+                }
+                return execute(exchange, chain, config, state, tried, retry + 1);
+            }
+            return signal.isOnError() ? Mono.error(signal.getThrowable()) : Mono.just(signal.get());
+        });
+    }
+
+    private Mono<Attempt> attempt(ServerWebExchange exchange, GatewayFilterChain chain,
+                                  RouteState state, Set<String> tried) {
+        return Mono.defer(() -> {
+            Attempt attempt = new Attempt(exchange, tried);
+            long start = System.nanoTime();
+            return chain.filter(attempt.exchange())
+                    .then(Mono.fromSupplier(() -> {
+                        state.latency.record(System.nanoTime() - start);
+                        return attempt;
+                    }))
+                    .doOnError(e -> attempt.discard())
+                    .doOnCancel(attempt::discard);
+        });
+    }
+
+    private Mono<Attempt> hedged(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                                 RouteState state, Set<String> tried) {
+        Duration percentile = state.latency.percentile();
+        if (percentile == null) {
+            return attempt(exchange, chain, state, tried);
+        }
+        Duration delay = percentile.compareTo(config.getMinHedgeDelay()) < 0 ? config.getMinHedgeDelay() : percentile;
+        return Mono.create(sink -> new HedgedCall(sink, exchange, chain, state, tried).start(delay));
+    }
+
+    private static boolean isRetryable(HttpStatusCode status, Config config) {
+        return status != null && config.getStatuses().contains(status.value());
+    }
+
+    private static boolean isRetryable(Throwable error, Config config) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NotFoundException) {
+                // Aucune instance disponible : une autre tentative n'y changerait rien
+                return false;
+            }
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+            if (cause instanceof ResponseStatusException statusError && isRetryable(statusError.getStatusCode(), config)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Première tentative, puis une seconde après le délai si aucune réponse n'est arrivée et que le budget
+     * le permet. La première réponse l'emporte ; l'erreur n'est remontée que si toutes les tentatives échouent.
+     */
+    private final class HedgedCall {
+
+        private final MonoSink<Attempt> sink;
+        private final ServerWebExchange exchange;
+        private final GatewayFilterChain chain;
+        private final RouteState state;
+        private final Set<String> tried;
+
+        private final Map<Attempt, Disposable> running = new ConcurrentHashMap<>();
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile Disposable timer;
+
+        HedgedCall(MonoSink<Attempt> sink, ServerWebExchange exchange, GatewayFilterChain chain,
+                   RouteState state, Set<String> tried) {
+            this.sink = sink;
+            this.exchange = exchange;
+            this.chain = chain;
+            this.state = state;
+            this.tried = tried;
+        }
+
+        void start(Duration delay) {
+            sink.onCancel(this::cancelAll);
+            launch();
+            timer = Mono.delay(delay).subscribe(tick -> {
+                if (!settled.get() && state.tryWithdraw(state.hedges)) {
+                    launch();
+                }
+            });
+            if (settled.get()) {
+                timer.dispose();
+            }
+        }
+
+        private void launch() {
+            pending.incrementAndGet();
+            Attempt attempt = new Attempt(exchange, tried);
+            long start = System.nanoTime();
+            Disposable subscription = chain.filter(attempt.exchange())
+                    .doOnCancel(attempt::discard)
+                    .subscribe(null, error -> {
+                        attempt.discard();
+                        onError(error);
+                    }, () -> {
+                        state.latency.record(System.nanoTime() - start);
+                        onResponse(attempt);
+                    });
+            running.put(attempt, subscription);
+        }
+
+        private void onResponse(Attempt attempt) {
+            if (!settled.compareAndSet(false, true)) {
+                attempt.discard();
+                return;
+            }
+            cancelOthers(attempt);
+            sink.success(attempt);
+        }
+
+        private void onError(Throwable error) {
+            if (pending.decrementAndGet() == 0 && settled.compareAndSet(false, true)) {
+                cancelOthers(null);
+                sink.error(error);
+            }
+        }
+
+        private void cancelOthers(Attempt winner) {
+            Disposable pendingTimer = timer;
+            if (pendingTimer != null) {
+                pendingTimer.dispose();
+            }
+            running.forEach((attempt, subscription) -> {
+                if (attempt != winner) {
+                    subscription.dispose();
+                }
+            });
+        }
+
+        private void cancelAll() {
+            if (settled.compareAndSet(false, true)) {
+                cancelOthers(null);
+            }
+        }
+    }
+
+    private final class RouteState {
+
+        private final RetryBudget budget;
+        private final LatencyWindow latency;
+        private final Counter retries;
+        private final Counter hedges;
+        private final Counter exhausted;
+
+        RouteState(String routeId, Config config) {
+            this.budget = new RetryBudget(config.getBudgetRatio(), config.getMinRetriesPerSecond(), System::nanoTime);
+            this.latency = new LatencyWindow(config.getLatencyWindow(), config.getMinSamples(), config.getHedgePercentile());
+            this.retries = counter("gateway.retry.attempts", routeId, "retry");
+            this.hedges = counter("gateway.retry.attempts", routeId, "hedge");
+            this.exhausted = Counter.builder("gateway.retry.budget-exhausted").tag("route", routeId).register(meterRegistry);
+        }
+
+        private Counter counter(String name, String routeId, String kind) {
+            return Counter.builder(name).tags("route", routeId, "kind", kind).register(meterRegistry);
+        }
+
+        boolean tryWithdraw(Counter kind) {
+            if (budget.tryWithdraw()) {
+                kind.increment();
+                return true;
+            }
+            exhausted.increment();
+            return false;
+        }
+    }
+
+    public static class Config {
+
+        private int retries = 2;
+        private List<Integer> statuses = List.of(502, 503, 504);
+        // Part du trafic de la route que les tentatives supplémentaires peuvent représenter
+        private double budgetRatio = 0.2;
+        private double minRetriesPerSecond = 10;
+        private boolean hedge = false;
+        private double hedgePercentile = 0.95;
+        private Duration minHedgeDelay = Duration.ofMillis(10);
+        // Latences conservées pour le percentile, et minimum avant la première requête parallèle
+        private int latencyWindow = 512;
+        private int minSamples = 50;
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+
+        public List<Integer> getStatuses() {
+            return statuses;
+        }
+
+        public void setStatuses(List<Integer> statuses) {
+            this.statuses = statuses;
+        }
+
+        public double getBudgetRatio() {
+            return budgetRatio;
+        }
+
+        public void setBudgetRatio(double budgetRatio) {
+            this.budgetRatio = budgetRatio;
+        }
+
+        public double getMinRetriesPerSecond() {
+            return minRetriesPerSecond;
+        }
+
+        public void setMinRetriesPerSecond(double minRetriesPerSecond) {
+            this.minRetriesPerSecond = minRetriesPerSecond;
+        }
+
+        public boolean isHedge() {
+            return hedge;
+        }
+
+        public void setHedge(boolean hedge) {
+            this.hedge = hedge;
+        }
+
+        public double getHedgePercentile() {
+            return hedgePercentile;
+        }
+
+        public void setHedgePercentile(double hedgePercentile) {
+            this.hedgePercentile = hedgePercentile;
+        }
+
+        public Duration getMinHedgeDelay() {
+            return minHedgeDelay;
+        }
+
+        public void setMinHedgeDelay(Duration minHedgeDelay) {
+            this.minHedgeDelay = minHedgeDelay;
+        }
+
+        public int getLatencyWindow() {
+            return latencyWindow;
+        }
+
+        public void setLatencyWindow(int latencyWindow) {
+            this.latencyWindow = latencyWindow;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.imad.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latence d'une instance en « peak EWMA » (Finagle) : une mesure plus lente que la moyenne la remplace
+ * aussitôt, une mesure plus rapide n'y entre que progressivement. La moyenne décroît vers 0 avec le temps
+ * sans mesure, pour qu'une instance écartée (lente ou en échec) soit de nouveau essayée.
+ * Le coût utilisé pour choisir une instance est la latence multipliée par les requêtes en cours + 1.
+ */
+final class InstanceStats {
+
+    // Coût d'une instance jamais mesurée qui a déjà une requête en cours, et latence retenue pour un échec
+    static final long PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String service;
+    private final String instance;
+    private final double decayNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Timer success;
+    private final Timer failure;
+    private final Timer cancelled;
+
+    // Protégés par le verrou de l'instance
+    private boolean measured;
+    private double ewmaNanos;
+    private long stamp;
+
+    InstanceStats(String service, String instance, long decayNanos, Timer success, Timer failure, Timer cancelled) {
+        this.service = service;
+        this.instance = instance;
+        this.decayNanos = decayNanos;
+        this.success = success;
+        this.failure = failure;
+        this.cancelled = cancelled;
+    }
+
+    void start() {
+        inFlight.incrementAndGet();
+    }
+
+    void complete(long rttNanos, Outcome outcome, long now) {
+        inFlight.decrementAndGet();
+        switch (outcome) {
+            case SUCCESS -> success.record(rttNanos, TimeUnit.NANOSECONDS);
+            case FAILURE -> failure.record(rttNanos, TimeUnit.NANOSECONDS);
+            case CANCELLED -> cancelled.record(rttNanos, TimeUnit.NANOSECONDS);
+        }
+        // Une requête annulée (tentative parallèle perdante) a duré au moins rttNanos
+        observe(outcome == Outcome.FAILURE ? Math.max(rttNanos, PENALTY_NANOS) : rttNanos, now);
+    }
+
+    synchronized void observe(long rttNanos, long now) {
+        if (!measured) {
+            measured = true;
+            ewmaNanos = rttNanos;
+        } else if (rttNanos > ewmaNanos) {
+            ewmaNanos = rttNanos;
+        } else {
+            double weight = Math.exp(-Math.max(now - stamp, 0) / decayNanos);
+            ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+        }
+        stamp = now;
+    }
+
+    synchronized double cost(long now) {
+        int pending = inFlight.get();
+        if (!measured) {
+            return pending == 0 ? 0 : PENALTY_NANOS + pending;
+        }
+        return latencyNanos(now) * (pending + 1);
+    }
+
+    synchronized double latencyNanos(long now) {
+        return ewmaNanos * Math.exp(-Math.max(now - stamp, 0) / decayNanos);
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    String service() {
+        return service;
+    }
+
+    String instance() {
+        return instance;
+    }
+
+    enum Outcome {
+        SUCCESS, FAILURE, CANCELLED
+    }
+}
@@ -0,0 +1,68 @@
+package com.imad.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Mesure chaque appel à l'instance choisie par le load balancer, jusqu'à la réception des en-têtes
+ * de réponse. Placé juste après ReactiveLoadBalancerClientFilter : contrairement aux
+ * LoadBalancerLifecycle, il voit aussi les appels annulés, qui doivent libérer leur place « en cours ».
+ */
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceStatsFilter(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> response = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (response == null || !response.hasServer()) {
+            return chain.filter(exchange);
+        }
+        ServiceInstance instance = response.getServer();
+        Set<String> tried = exchange.getAttribute(LatencyAwareLoadBalancer.TRIED_INSTANCES_ATTR);
+        if (tried != null) {
+            tried.add(InstanceStatsRegistry.keyOf(instance));
+        }
+        InstanceStats stats = registry.of(instance);
+        stats.start();
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    long now = System.nanoTime();
+                    stats.complete(now - start, outcome(signal, exchange.getResponse().getStatusCode()), now);
+                });
+    }
+
+    private static InstanceStats.Outcome outcome(SignalType signal, HttpStatusCode status) {
+        if (signal == SignalType.CANCEL) {
+            return InstanceStats.Outcome.CANCELLED;
+        }
+        if (signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError())) {
+            return InstanceStats.Outcome.FAILURE;
+        }
+        return InstanceStats.Outcome.SUCCESS;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,57 @@
+package com.imad.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Statistiques partagées entre les load balancers de tous les services (une entrée par adresse d'instance)
+ * et publiées dans Micrometer :
+ * gateway.loadbalancer.requests (timer par issue, avec p50/p95/p99), gateway.loadbalancer.latency
+ * (latence EWMA en ms) et gateway.loadbalancer.in-flight, étiquetés par service et instance.
+ */
+public class InstanceStatsRegistry {
+
+    private final MeterRegistry meterRegistry;
+    private final long decayNanos;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public InstanceStatsRegistry(MeterRegistry meterRegistry, Duration decay) {
+        this.meterRegistry = meterRegistry;
+        this.decayNanos = decay.toNanos();
+    }
+
+    InstanceStats of(ServiceInstance instance) {
+        return stats.computeIfAbsent(keyOf(instance), key -> register(instance.getServiceId(), key));
+    }
+
+    static String keyOf(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private InstanceStats register(String service, String instance) {
+        InstanceStats created = new InstanceStats(service, instance, decayNanos,
+                timer(service, instance, "success"), timer(service, instance, "failure"),
+                timer(service, instance, "cancelled"));
+        Gauge.builder("gateway.loadbalancer.latency", created, s -> s.latencyNanos(System.nanoTime()) / 1_000_000)
+                .tags("service", service, "instance", instance)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("gateway.loadbalancer.in-flight", created, InstanceStats::inFlight)
+                .tags("service", service, "instance", instance)
+                .register(meterRegistry);
+        return created;
+    }
+
+    private Timer timer(String service, String instance, String outcome) {
+        return Timer.builder("gateway.loadbalancer.requests")
+                .tags("service", service, "instance", instance, "outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
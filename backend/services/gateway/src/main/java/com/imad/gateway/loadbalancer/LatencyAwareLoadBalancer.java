@@ -0,0 +1,90 @@
+package com.imad.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Remplace le round-robin : deux instances tirées au hasard, on garde celle de plus faible coût
+ * (latence EWMA x requêtes en cours, voir {@link InstanceStats}). Une instance lente ou surchargée
+ * reçoit peu de trafic sans être exclue, et le tirage évite que toutes les requêtes se ruent sur
+ * la même « meilleure » instance. Les instances déjà essayées par la requête (nouvelle tentative,
+ * requête parallèle) sont écartées tant qu'il en reste d'autres.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    /**
+     * Attribut d'échange : adresses (host:port) des instances déjà essayées pour cette requête.
+     */
+    public static final String TRIED_INSTANCES_ATTR = LatencyAwareLoadBalancer.class.getName() + ".triedInstances";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceStatsRegistry registry;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    InstanceStatsRegistry registry) {
+        this.supplierProvider = supplierProvider;
+        this.registry = registry;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request)
+                .next()
+                .map(instances -> select(instances, triedInstances(request)));
+    }
+
+    Response<ServiceInstance> select(List<ServiceInstance> instances, Set<String> tried) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        List<ServiceInstance> candidates = instances;
+        if (!tried.isEmpty()) {
+            List<ServiceInstance> untried = instances.stream()
+                    .filter(instance -> !tried.contains(InstanceStatsRegistry.keyOf(instance)))
+                    .toList();
+            if (!untried.isEmpty()) {
+                candidates = untried;
+            }
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        long now = System.nanoTime();
+        return new DefaultResponse(registry.of(a).cost(now) <= registry.of(b).cost(now) ? a : b);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Set<String> triedInstances(Request request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null) {
+            Map<String, Object> attributes = context.getClientRequest().getAttributes();
+            if (attributes != null && attributes.get(TRIED_INSTANCES_ATTR) instanceof Set tried) {
+                return tried;
+            }
+        }
+        return Set.of();
+    }
+}
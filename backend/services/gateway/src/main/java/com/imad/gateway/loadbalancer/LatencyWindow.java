@@ -0,0 +1,53 @@
+package com.imad.gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Dernières latences d'une route, pour le délai avant requête parallèle (un percentile élevé :
+ * on ne double que les requêtes déjà plus lentes que la quasi-totalité des autres).
+ * Le percentile est recalculé toutes les RECOMPUTE_EVERY mesures, pas à chaque requête.
+ */
+final class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final int minSamples;
+    private final double percentile;
+
+    // Protégés par le verrou de l'instance
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private Duration cached;
+
+    LatencyWindow(int size, int minSamples, double percentile) {
+        this.samples = new long[size];
+        this.minSamples = minSamples;
+        this.percentile = percentile;
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        sinceRecompute++;
+    }
+
+    /**
+     * Percentile des dernières latences, ou null tant qu'il y a trop peu de mesures.
+     */
+    synchronized Duration percentile() {
+        if (count < minSamples) {
+            return null;
+        }
+        if (cached == null || sinceRecompute >= RECOMPUTE_EVERY) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cached = Duration.ofNanos(sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)]);
+            sinceRecompute = 0;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,26 @@
+package com.imad.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.loadbalancer.latency-decay:PT10S}") Duration latencyDecay) {
+        return new InstanceStatsRegistry(meterRegistry, latencyDecay);
+    }
+
+    @Bean
+    public InstanceStatsFilter instanceStatsFilter(InstanceStatsRegistry registry) {
+        return new InstanceStatsFilter(registry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.imad.gateway.loadbalancer;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Budget de nouvelles tentatives d'une route (principe des retry budgets de Finagle / Linkerd) :
+ * chaque requête dépose ratio jeton, chaque nouvelle tentative (ou requête parallèle) en retire un.
+ * Les tentatives restent ainsi sous ratio x trafic quand un backend tombe, au lieu de multiplier sa
+ * charge par le nombre d'essais. Un plancher de minPerSecond tentatives par seconde couvre le faible trafic.
+ */
+final class RetryBudget {
+
+    // Réserve maximale de jetons accumulés par les dépôts
+    private static final double MAX_BALANCE = 100;
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final LongSupplier nanoClock;
+
+    // Protégés par le verrou de l'instance
+    private double balance;
+    private double floor;
+    private long lastRefill;
+
+    RetryBudget(double ratio, double minPerSecond, LongSupplier nanoClock) {
+        this.ratio = ratio;
+        this.minPerSecond = minPerSecond;
+        this.nanoClock = nanoClock;
+        this.floor = minPerSecond;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    synchronized void deposit() {
+        balance = Math.min(balance + ratio, MAX_BALANCE);
+    }
+
+    synchronized boolean tryWithdraw() {
+        long now = nanoClock.getAsLong();
+        floor = Math.min(minPerSecond, floor + (now - lastRefill) / 1e9 * minPerSecond);
+        lastRefill = now;
+        if (floor >= 1) {
+            floor--;
+            return true;
+        }
+        if (balance >= 1) {
+            balance--;
+            return true;
+        }
+        return false;
+    }
+}
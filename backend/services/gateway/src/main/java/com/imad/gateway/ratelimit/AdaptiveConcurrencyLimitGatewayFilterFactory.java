@@ -0,0 +1,145 @@
+package com.imad.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filtre de route "AdaptiveConcurrencyLimit" : limite le nombre de requêtes en cours vers le backend
+ * de la route avec {@link GradientConcurrencyLimiter}. Au-delà, réponse 503 immédiate avec Retry-After
+ * plutôt que de laisser la latence s'effondrer. Un limiteur par route.
+ */
+@Component
+public class AdaptiveConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyLimitGatewayFilterFactory.Config> {
+
+    public static final String LIMIT_HEADER = "X-Concurrency-Limit";
+
+    private final Map<String, GradientConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimitGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "default";
+            GradientConcurrencyLimiter limiter = limiters.computeIfAbsent(routeId, id -> config.newLimiter());
+            if (!limiter.tryAcquire()) {
+                var response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(config.getRetryAfterSeconds()));
+                response.getHeaders().set(LIMIT_HEADER, String.valueOf(limiter.getLimit()));
+                return response.setComplete();
+            }
+            long start = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        if (released.compareAndSet(false, true)) {
+                            limiter.release(System.nanoTime() - start,
+                                    signal != SignalType.CANCEL);
+                        }
+                    });
+        };
+    }
+
+    public GradientConcurrencyLimiter limiter(String routeId) {
+        return limiters.get(routeId);
+    }
+
+    public static class Config {
+
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 500;
+        // Hausse de latence tolérée avant de réduire la limite
+        private double tolerance = 1.5;
+        // Échantillons par fenêtre de mesure
+        private int windowSize = 20;
+        // Fenêtres sur lesquelles la latence minimale de référence est conservée
+        private int longWindow = 100;
+        private double smoothing = 0.2;
+        private int retryAfterSeconds = 1;
+
+        GradientConcurrencyLimiter newLimiter() {
+            return new GradientConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance,
+                    windowSize, longWindow, smoothing);
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getLongWindow() {
+            return longWindow;
+        }
+
+        public void setLongWindow(int longWindow) {
+            this.longWindow = longWindow;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.imad.gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de concurrence adaptative, sur le principe de Vegas / Gradient (Netflix concurrency-limits) :
+ * la limite suit le rapport entre la latence minimale observée (temps de service sans file d'attente)
+ * et la latence moyenne récente. Quand une file se forme côté backend, la latence s'éloigne du minimum,
+ * le gradient passe sous 1 et la limite baisse ; elle remonte de sqrt(limite) par fenêtre sinon.
+ * Le minimum est pris sur les longWindow dernières fenêtres, pour suivre un backend devenu plus lent.
+ */
+public class GradientConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int windowSize;
+    private final int longWindow;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    // Fenêtre courante d'échantillons, protégée par le verrou de l'instance
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    // Minimum de la période en cours et de la précédente (chacune de longWindow fenêtres)
+    private long currentMinRtt = Long.MAX_VALUE;
+    private long previousMinRtt = Long.MAX_VALUE;
+    private int windowsInPeriod;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      int windowSize, int longWindow, double smoothing) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowSize = windowSize;
+        this.longWindow = longWindow;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Réserve une place, ou retourne false si la limite est atteinte (la requête doit être rejetée).
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libère la place et enregistre la latence observée ; sample=false pour une requête annulée.
+     */
+    public void release(long rttNanos, boolean sample) {
+        int current = inFlight.getAndDecrement();
+        if (sample) {
+            onSample(rttNanos, current);
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        currentMinRtt = Math.min(currentMinRtt, rttNanos);
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+        if (windowSamples < windowSize) {
+            return;
+        }
+        double averageRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        long minRtt = Math.min(currentMinRtt, previousMinRtt);
+        if (++windowsInPeriod >= longWindow) {
+            previousMinRtt = currentMinRtt;
+            currentMinRtt = Long.MAX_VALUE;
+            windowsInPeriod = 0;
+        }
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * minRtt / averageRtt));
+        double newLimit = current * gradient + Math.sqrt(current);
+        // Charge trop faible pour juger de la capacité : la limite peut baisser mais pas monter
+        if (maxInFlight < current / 2) {
+            newLimit = Math.min(newLimit, current);
+        }
+        newLimit = current * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
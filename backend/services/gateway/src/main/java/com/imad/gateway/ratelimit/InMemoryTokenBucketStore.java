@@ -0,0 +1,55 @@
+package com.imad.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Seaux en mémoire, un par (route, clé) ; un seau inutilisé est plein, il peut donc être évincé
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private final Cache<String, Bucket> buckets;
+    private final LongSupplier nanoTime;
+
+    public InMemoryTokenBucketStore(long maximumKeys, Duration idleTimeout) {
+        this(maximumKeys, idleTimeout, System::nanoTime);
+    }
+
+    InMemoryTokenBucketStore(long maximumKeys, Duration idleTimeout, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public Mono<Result> tryConsume(String key, TokenBucketRateLimiter.Config config) {
+        Bucket bucket = buckets.get(key, k -> new Bucket(config.getBurstCapacity(), nanoTime.getAsLong()));
+        return Mono.just(bucket.tryConsume(config, nanoTime.getAsLong()));
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized Result tryConsume(TokenBucketRateLimiter.Config config, long now) {
+            double elapsedSeconds = (now - refilledAt) / 1e9;
+            tokens = Math.min(config.getBurstCapacity(), tokens + elapsedSeconds * config.getReplenishRate());
+            refilledAt = now;
+            if (tokens < config.getRequestedTokens()) {
+                return new Result(false, (long) tokens);
+            }
+            tokens -= config.getRequestedTokens();
+            return new Result(true, (long) tokens);
+        }
+    }
+}
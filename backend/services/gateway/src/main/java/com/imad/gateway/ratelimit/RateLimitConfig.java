@@ -0,0 +1,70 @@
+package com.imad.gateway.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class RateLimitConfig {
+
+    // Seaux locaux à l'instance (gateway.rate-limit.store=memory, par défaut) : avec N instances
+    // derrière un répartiteur, un client obtient jusqu'à N fois la limite configurée
+    @Bean
+    @ConditionalOnMissingBean
+    public TokenBucketStore tokenBucketStore(
+            @Value("${gateway.rate-limit.maximum-keys:100000}") long maximumKeys,
+            @Value("${gateway.rate-limit.idle-timeout:PT10M}") Duration idleTimeout) {
+        return new InMemoryTokenBucketStore(maximumKeys, idleTimeout);
+    }
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(
+            TokenBucketStore store, ConfigurationService configurationService,
+            @Value("${gateway.rate-limit.replenish-rate:20}") int replenishRate,
+            @Value("${gateway.rate-limit.burst-capacity:40}") int burstCapacity) {
+        var defaultConfig = new TokenBucketRateLimiter.Config()
+                .setReplenishRate(replenishRate)
+                .setBurstCapacity(burstCapacity);
+        return new TokenBucketRateLimiter(store, defaultConfig, configurationService);
+    }
+
+    // @Primary : clé par défaut du filtre RequestRateLimiter (remplace principalNameKeyResolver)
+    @Bean
+    @Primary
+    public RequestKeyResolver requestKeyResolver() {
+        return new RequestKeyResolver();
+    }
+
+    // Seaux partagés dans Redis (spring.data.redis.*). L'auto-configuration Redis de Spring Boot
+    // est exclue (GatewayApplication) : sans ce mode, aucune connexion ni indicateur de santé Redis
+    @Configuration
+    @ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "redis")
+    @EnableConfigurationProperties(RedisProperties.class)
+    static class RedisStoreConfig {
+
+        @Bean
+        LettuceConnectionFactory rateLimitRedisConnectionFactory(RedisProperties properties) {
+            var server = new RedisStandaloneConfiguration(properties.getHost(), properties.getPort());
+            server.setDatabase(properties.getDatabase());
+            server.setUsername(properties.getUsername());
+            server.setPassword(properties.getPassword());
+            return new LettuceConnectionFactory(server);
+        }
+
+        @Bean
+        TokenBucketStore redisTokenBucketStore(LettuceConnectionFactory connectionFactory) {
+            return new RedisTokenBucketStore(new ReactiveStringRedisTemplate(connectionFactory));
+        }
+    }
+}
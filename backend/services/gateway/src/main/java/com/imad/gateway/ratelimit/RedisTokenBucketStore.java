@@ -0,0 +1,57 @@
+package com.imad.gateway.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Seaux partagés par toutes les instances de la gateway, dans Redis. Le script est celui du
+ * RedisRateLimiter de Spring Cloud Gateway : lecture, remplissage et prélèvement atomiques,
+ * à l'horloge du serveur Redis (remplissage à la seconde), clés expirées une fois le seau plein.
+ * Redis indisponible : la requête est acceptée, comme avec RedisRateLimiter.
+ */
+public class RedisTokenBucketStore implements TokenBucketStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisTokenBucketStore.class);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> SCRIPT = (RedisScript) RedisScript.of(
+            new ClassPathResource("META-INF/scripts/request_rate_limiter.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    // Horloge en secondes imposée au script ; null : horloge du serveur Redis
+    private final LongSupplier epochSeconds;
+
+    public RedisTokenBucketStore(ReactiveStringRedisTemplate redis) {
+        this(redis, null);
+    }
+
+    RedisTokenBucketStore(ReactiveStringRedisTemplate redis, LongSupplier epochSeconds) {
+        this.redis = redis;
+        this.epochSeconds = epochSeconds;
+    }
+
+    @Override
+    public Mono<Result> tryConsume(String key, TokenBucketRateLimiter.Config config) {
+        // {key} : les deux clés d'un seau sont sur le même nœud d'un cluster Redis
+        String prefix = "request_rate_limiter.{" + key + "}.";
+        List<String> keys = List.of(prefix + "tokens", prefix + "timestamp");
+        // Heure vide : le script prend celle du serveur Redis, commune à toutes les instances
+        String now = epochSeconds != null ? String.valueOf(epochSeconds.getAsLong()) : "";
+        List<String> args = List.of(String.valueOf(config.getReplenishRate()),
+                String.valueOf(config.getBurstCapacity()), now, String.valueOf(config.getRequestedTokens()));
+        return redis.execute(SCRIPT, keys, args)
+                .next()
+                .map(result -> new Result(result.get(0) == 1L, result.get(1)))
+                .onErrorResume(ex -> {
+                    log.warn("Limitation de débit ignorée, Redis indisponible : {}", ex.toString());
+                    return Mono.just(new Result(true, -1));
+                });
+    }
+}
@@ -0,0 +1,44 @@
+package com.imad.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Clé de limitation : sujet du JWT, à défaut client OAuth2 (azp / client_id), à défaut adresse IP.
+ * L'adresse est celle de la connexion : la gateway est en frontal, X-Forwarded-For n'est pas fiable.
+ */
+public class RequestKeyResolver implements KeyResolver {
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        return exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(principal -> keyOf((JwtAuthenticationToken) principal))
+                .filter(key -> !key.isEmpty())
+                .switchIfEmpty(Mono.fromSupplier(() -> "ip:" + remoteAddress(exchange)));
+    }
+
+    private static String keyOf(JwtAuthenticationToken token) {
+        String subject = token.getToken().getSubject();
+        if (subject != null) {
+            return "sub:" + subject;
+        }
+        String client = token.getToken().getClaimAsString("azp");
+        if (client == null) {
+            client = token.getToken().getClaimAsString("client_id");
+        }
+        return client == null ? "" : "client:" + client;
+    }
+
+    private static String remoteAddress(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.imad.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Limiteur à seau de jetons pour le filtre RequestRateLimiter. Limites par route dans les
+ * arguments du filtre (token-bucket-rate-limiter.replenish-rate, .burst-capacity,
+ * .requested-tokens), sinon celles de gateway.rate-limit.
+ */
+public class TokenBucketRateLimiter extends AbstractRateLimiter<TokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "token-bucket-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private final TokenBucketStore store;
+    private final Config defaultConfig;
+
+    public TokenBucketRateLimiter(TokenBucketStore store, Config defaultConfig,
+                                  ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.store = store;
+        this.defaultConfig = defaultConfig;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        return store.tryConsume(routeId + ":" + id, config)
+                .map(result -> new Response(result.allowed(), Map.of(
+                        REMAINING_HEADER, String.valueOf(result.remaining()),
+                        REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                        BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()))));
+    }
+
+    // Classe mutable : liée par ConfigurationService à partir des arguments du filtre
+    public static class Config {
+
+        // Jetons ajoutés par seconde
+        private int replenishRate = 20;
+
+        // Taille du seau : rafale maximale acceptée
+        private int burstCapacity = 40;
+
+        // Coût d'une requête
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
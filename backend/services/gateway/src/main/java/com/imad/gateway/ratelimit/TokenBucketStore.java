@@ -0,0 +1,17 @@
+package com.imad.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stockage des seaux de jetons. L'implémentation par défaut est locale à l'instance
+ * ({@link InMemoryTokenBucketStore}) : chaque instance applique la limite de son côté.
+ * gateway.rate-limit.store=redis ({@link RedisTokenBucketStore}) partage les limites
+ * entre toutes les instances de la gateway.
+ */
+public interface TokenBucketStore {
+
+    Mono<Result> tryConsume(String key, TokenBucketRateLimiter.Config config);
+
+    record Result(boolean allowed, long remaining) {
+    }
+}
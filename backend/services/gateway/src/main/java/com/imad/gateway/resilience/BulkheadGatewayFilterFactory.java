@@ -0,0 +1,62 @@
+package com.imad.gateway.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Filtre de route "Bulkhead" : cloison à sémaphore Resilience4j (resilience4j.bulkhead.instances.*),
+ * une par route par défaut. Avec max-wait-duration à 0, une requête au-delà de max-concurrent-calls
+ * échoue tout de suite (BulkheadFullException) au lieu d'attendre une connexion vers un backend lent.
+ * À placer après CircuitBreaker : l'exception est alors transformée en réponse par {@link FallbackController}.
+ */
+@Component
+public class BulkheadGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<BulkheadGatewayFilterFactory.Config> {
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public BulkheadGatewayFilterFactory(BulkheadRegistry bulkheadRegistry) {
+        super(Config.class);
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(config.getId());
+        return (exchange, chain) -> chain.filter(exchange).transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    public static class Config implements HasRouteId {
+
+        private String name;
+        private String routeId;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        String getId() {
+            return StringUtils.hasText(name) ? name : routeId;
+        }
+    }
+}
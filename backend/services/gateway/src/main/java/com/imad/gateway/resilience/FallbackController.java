@@ -0,0 +1,80 @@
+package com.imad.gateway.resilience;
+
+import com.imad.gateway.cache.CachedResponse;
+import com.imad.gateway.cache.CatalogResponseCacheGatewayFilterFactory;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+
+/**
+ * Réponse de repli des routes protégées par CircuitBreaker (fallbackUri: forward:/fallback).
+ * Une lecture du catalogue reçoit la dernière réponse en cache, même expirée (X-Cache: STALE) ;
+ * sinon la requête échoue tout de suite : 503 si le disjoncteur est ouvert ou la cloison pleine,
+ * 504 si le délai de la route est dépassé, le statut amont pour une réponse en erreur.
+ */
+@RestController
+public class FallbackController {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final CatalogResponseCacheGatewayFilterFactory responseCache;
+
+    public FallbackController(CatalogResponseCacheGatewayFilterFactory responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @RequestMapping("/fallback")
+    public Mono<Void> fallback(ServerWebExchange exchange) {
+        // Réponse amont en erreur (statusCodes du disjoncteur) : son corps ne sera pas transmis
+        if (exchange.getAttributes().remove(CLIENT_RESPONSE_CONN_ATTR) instanceof Connection connection) {
+            connection.dispose();
+        }
+        if (exchange.getRequest().getMethod() == HttpMethod.GET) {
+            CachedResponse cached = responseCache.lastKnown(exchange);
+            if (cached != null) {
+                return responseCache.writeStale(exchange, cached);
+            }
+        }
+
+        Throwable failure = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        ServerHttpResponse response = exchange.getResponse();
+        HttpStatusCode status = statusOf(failure);
+        response.setStatusCode(status);
+        if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        return response.setComplete();
+    }
+
+    static HttpStatusCode statusOf(Throwable failure) {
+        if (failure instanceof CallNotPermittedException || failure instanceof BulkheadFullException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        if (failure instanceof TimeoutException) {
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+        if (failure instanceof HttpStatusCodeException statusCodeException) {
+            return statusCodeException.getStatusCode();
+        }
+        if (failure instanceof ResponseStatusException responseStatusException) {
+            return responseStatusException.getStatusCode();
+        }
+        return HttpStatus.BAD_GATEWAY;
+    }
+}
@@ -0,0 +1,135 @@
+package com.imad.gateway.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogResponseCacheGatewayFilterFactoryTest {
+
+    private ResponseCacheProperties properties;
+    private ResponseCache cache;
+    private CatalogResponseCacheGatewayFilterFactory factory;
+    private AtomicInteger upstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        properties = new Binder(new MapConfigurationPropertySource(Map.of()))
+                .bindOrCreate("gateway.response-cache", Bindable.of(ResponseCacheProperties.class));
+        cache = new ResponseCache(properties);
+        factory = new CatalogResponseCacheGatewayFilterFactory(cache, properties);
+        upstreamCalls = new AtomicInteger();
+    }
+
+    @Test
+    void concurrentIdenticalMissesCallUpstreamOnce() {
+        GatewayFilterChain slowUpstream = upstream("max-age=60", Duration.ofMillis(200));
+        MockServerWebExchange first = get("/api/v1/products?page=0");
+        MockServerWebExchange second = get("/api/v1/products?page=0");
+
+        Mono.when(factory.filter(first, slowUpstream), factory.filter(second, slowUpstream)).block();
+        MockServerWebExchange third = get("/api/v1/products?page=0");
+        factory.filter(third, slowUpstream).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("COALESCED");
+        assertThat(third.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(third.getResponse().getBodyAsString().block()).isEqualTo("[{\"id\":1}]");
+    }
+
+    @Test
+    void honoursCacheControlAndEtag() {
+        factory.filter(get("/api/v1/categories"), upstream("no-store", Duration.ZERO)).block();
+        factory.filter(get("/api/v1/categories"), upstream("no-store", Duration.ZERO)).block();
+        assertThat(upstreamCalls).hasValue(2);
+
+        factory.filter(get("/api/v1/categories/1"), upstream("max-age=60", Duration.ZERO)).block();
+        MockServerWebExchange conditional = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/categories/1")
+                .accept(MediaType.APPLICATION_JSON).ifNoneMatch("\"v1\""));
+        factory.filter(conditional, upstream("max-age=60", Duration.ZERO)).block();
+
+        assertThat(upstreamCalls).hasValue(3);
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void productChangePurgesItsDetailAndListingsOnly() {
+        GatewayFilterChain upstream = upstream("max-age=60", Duration.ZERO);
+        for (String path : List.of("/api/v1/products/7", "/api/v1/products/8", "/api/v1/products/search", "/api/v1/categories/2")) {
+            factory.filter(get(path), upstream).block();
+        }
+
+        new CatalogCachePurger(cache, properties, WebClient.builder(),
+                new StaticListableBeanFactory().getBeanProvider(ReactorLoadBalancerExchangeFilterFunction.class))
+                .apply(List.of(new CatalogChange(1, "PRODUCT", 7L)));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(CatalogCachePurger.affectedByProduct("/api/v1/categories/2/products", "7")).isTrue();
+    }
+
+    @Test
+    void onlyCatalogReadsAreCached() {
+        GatewayFilterChain upstream = upstream("max-age=60", Duration.ZERO);
+        for (int i = 0; i < 2; i++) {
+            factory.filter(get("/api/v1/products/stock/reservations/42"), upstream).block();
+            factory.filter(get("/api/v1/products/low-stock/alerts"), upstream).block();
+        }
+
+        assertThat(upstreamCalls).hasValue(4);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void purgeKeepsLoadsOfUnaffectedKeys() {
+        GatewayFilterChain slowUpstream = upstream("max-age=60", Duration.ofMillis(200));
+        Mono<Void> product7 = factory.filter(get("/api/v1/products/7"), slowUpstream);
+        Mono<Void> product8 = factory.filter(get("/api/v1/products/8"), slowUpstream);
+        Mono<Void> purge = Mono.delay(Duration.ofMillis(50))
+                .doOnNext(tick -> cache.invalidateIf(key -> CatalogCachePurger.affectedByProduct(key.path(), "7")))
+                .then();
+
+        Mono.when(product7, product8, purge).block();
+
+        // La fiche 7 lue pendant la purge n'est pas stockée, la fiche 8 l'est
+        assertThat(cache.size()).isEqualTo(1);
+        factory.filter(get("/api/v1/products/8"), slowUpstream).block();
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    private GatewayFilterChain upstream(String cacheControl, Duration latency) {
+        return exchange -> Mono.delay(latency).then(Mono.defer(() -> {
+            upstreamCalls.incrementAndGet();
+            var response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().set(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response.getHeaders().setETag("\"v1\"");
+            byte[] body = "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }));
+    }
+
+    private static MockServerWebExchange get(String uri) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri).accept(MediaType.APPLICATION_JSON));
+    }
+}
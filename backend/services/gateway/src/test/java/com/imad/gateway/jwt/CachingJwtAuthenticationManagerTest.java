@@ -0,0 +1,191 @@
+package com.imad.gateway.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Émetteur simulé : un serveur HTTP local sert le JWKS, les jetons sont signés avec des clés RSA générées.
+ */
+class CachingJwtAuthenticationManagerTest {
+
+    private static final String ISSUER = "http://localhost/realms/test";
+
+    private HttpServer issuer;
+    private final AtomicReference<JWKSet> published = new AtomicReference<>();
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    private RSAKey currentKey;
+    private JwksKeyCache keyCache;
+    private CachingJwtAuthenticationManager manager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        currentKey = new RSAKeyGenerator(2048).keyID("k1").generate();
+        published.set(new JWKSet(currentKey.toPublicJWK()));
+
+        issuer = HttpServer.create(new InetSocketAddress(0), 0);
+        issuer.createContext("/certs", exchange -> {
+            jwksRequests.incrementAndGet();
+            byte[] body = published.get().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        issuer.start();
+
+        var properties = new JwtProperties("http://localhost:" + issuer.getAddress().getPort() + "/certs",
+                Duration.ZERO, Duration.ofSeconds(2), 1000);
+        keyCache = new JwksKeyCache(WebClient.create(), properties.jwkSetUri(ISSUER), properties, Clock.systemUTC());
+        NimbusReactiveJwtDecoder nimbus = NimbusReactiveJwtDecoder.withJwkSource(keyCache::keysFor).build();
+        nimbus.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+        ReactiveJwtDecoder counting = token -> {
+            decodes.incrementAndGet();
+            return nimbus.decode(token);
+        };
+        manager = new CachingJwtAuthenticationManager(counting, properties.tokenCacheMaximumSize(), Clock.systemUTC());
+    }
+
+    @AfterEach
+    void tearDown() {
+        issuer.stop(0);
+    }
+
+    @Test
+    void verifiesTokenOnceThenServesItFromCache() throws Exception {
+        String token = token(currentKey, Instant.now().plusSeconds(300));
+
+        Authentication first = authenticate(token);
+        Authentication second = authenticate(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(decodes).hasValue(1);
+        assertThat(jwksRequests).hasValue(1);
+        assertThat(((GatewayAuthentication) first).getIdentityHeaders()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                GatewayAuthentication.USER_ID, "user-1",
+                GatewayAuthentication.USER_NAME, "alice",
+                GatewayAuthentication.USER_EMAIL, "alice@example.com",
+                GatewayAuthentication.USER_ROLES, "admin,user"));
+    }
+
+    @Test
+    void keepsValidatingWithKnownKeysWhenIssuerIsDown() throws Exception {
+        keyCache.refresh().block();
+        issuer.stop(0);
+
+        keyCache.refresh().block();
+        Authentication authentication = authenticate(token(currentKey, Instant.now().plusSeconds(300)));
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(keyCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshesKeysWhenTokenIsSignedWithUnknownKey() throws Exception {
+        authenticate(token(currentKey, Instant.now().plusSeconds(300)));
+        RSAKey rotated = new RSAKeyGenerator(2048).keyID("k2").generate();
+        published.set(new JWKSet(List.of(currentKey.toPublicJWK(), rotated.toPublicJWK())));
+
+        Authentication authentication = authenticate(token(rotated, Instant.now().plusSeconds(300)));
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(jwksRequests).hasValue(2);
+    }
+
+    @Test
+    void rejectsExpiredAndForgedTokensWithoutCachingThem() throws Exception {
+        String expired = token(currentKey, Instant.now().minusSeconds(300));
+        RSAKey forger = new RSAKeyGenerator(2048).keyID("k1").generate();
+        String forged = token(forger, Instant.now().plusSeconds(300));
+
+        assertThatThrownBy(() -> authenticate(expired)).isInstanceOf(InvalidBearerTokenException.class);
+        assertThatThrownBy(() -> authenticate(forged)).isInstanceOf(InvalidBearerTokenException.class);
+        assertThatThrownBy(() -> authenticate(forged)).isInstanceOf(InvalidBearerTokenException.class);
+        assertThat(decodes).hasValue(3);
+    }
+
+    /**
+     * Coût de l'authentification par requête : vérification complète (jetons distincts) contre jeton en cache.
+     * Lancement : mvn test -Dtest=CachingJwtAuthenticationManagerTest -Dgateway.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "gateway.benchmark", matches = "true")
+    void benchmarkVerifiedVersusCachedTokens() throws Exception {
+        int iterations = 20_000;
+        String[] tokens = new String[iterations];
+        for (int i = 0; i < iterations; i++) {
+            tokens[i] = token(currentKey, Instant.now().plusSeconds(300));
+        }
+        authenticate(tokens[0]);
+
+        long start = System.nanoTime();
+        for (String token : tokens) {
+            authenticate(token);
+        }
+        long verified = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            authenticate(tokens[i % 100]);
+        }
+        long cached = (System.nanoTime() - start) / iterations;
+
+        System.out.printf("JWT : vérification %d µs/requête, cache %d µs/requête%n", verified / 1000, cached / 1000);
+        assertThat(cached).isLessThan(verified);
+    }
+
+    private Authentication authenticate(String token) {
+        return manager.authenticate(new BearerTokenAuthenticationToken(token)).block();
+    }
+
+    private static String token(RSAKey key, Instant expiresAt) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("user-1")
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(Date.from(expiresAt.minusSeconds(600)))
+                .expirationTime(Date.from(expiresAt))
+                .claim("preferred_username", "alice")
+                .claim("email", "alice@example.com")
+                .claim("realm_access", Map.of("roles", List.of("admin", "user")))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,102 @@
+package com.imad.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final long DECAY = TimeUnit.SECONDS.toNanos(10);
+
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(new SimpleMeterRegistry(),
+            Duration.ofNanos(DECAY));
+    private final LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(null, registry);
+    private final ServiceInstance fast = instance(1);
+    private final ServiceInstance slow = instance(2);
+
+    @Test
+    void picksTheFasterOfTwoInstances() {
+        long now = System.nanoTime();
+        registry.of(fast).observe(millis(5), now);
+        registry.of(slow).observe(millis(150), now);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(selected(Set.of())).isSameAs(fast);
+        }
+    }
+
+    @Test
+    void pendingRequestsOutweighLatency() {
+        long now = System.nanoTime();
+        registry.of(fast).observe(millis(5), now);
+        registry.of(slow).observe(millis(150), now);
+        for (int i = 0; i < 30; i++) {
+            registry.of(fast).start();
+        }
+
+        assertThat(selected(Set.of())).isSameAs(slow);
+    }
+
+    @Test
+    void unmeasuredIdleInstanceIsTriedFirst() {
+        registry.of(fast).observe(millis(5), System.nanoTime());
+
+        assertThat(selected(Set.of())).isSameAs(slow);
+    }
+
+    @Test
+    void instancesAlreadyTriedAreSkipped() {
+        long now = System.nanoTime();
+        registry.of(fast).observe(millis(5), now);
+        registry.of(slow).observe(millis(150), now);
+
+        assertThat(selected(Set.of(InstanceStatsRegistry.keyOf(fast)))).isSameAs(slow);
+    }
+
+    @Test
+    void slowSampleReplacesAverageAndFastSamplesDecayIntoIt() {
+        InstanceStats stats = registry.of(fast);
+        stats.observe(millis(10), 0);
+        stats.observe(millis(100), 0);
+        assertThat(stats.cost(0)).isEqualTo(millis(100));
+
+        // Une mesure rapide, un temps de décroissance après la précédente : poids 1/e pour l'ancienne moyenne
+        stats.observe(millis(10), DECAY);
+        double expected = millis(100) / Math.E + millis(10) * (1 - 1 / Math.E);
+        assertThat(stats.latencyNanos(DECAY)).isCloseTo(expected, offset(1.0));
+
+        stats.start();
+        stats.start();
+        assertThat(stats.cost(DECAY)).isCloseTo(3 * expected, offset(1.0));
+    }
+
+    @Test
+    void failureCountsAsAtLeastThePenalty() {
+        InstanceStats stats = registry.of(slow);
+        stats.start();
+        stats.complete(millis(2), InstanceStats.Outcome.FAILURE, 0);
+
+        assertThat(stats.cost(0)).isEqualTo(InstanceStats.PENALTY_NANOS);
+    }
+
+    private ServiceInstance selected(Set<String> tried) {
+        return loadBalancer.select(List.of(fast, slow), tried).getServer();
+    }
+
+    private static ServiceInstance instance(int index) {
+        return new DefaultServiceInstance("speed-service-" + index, "speed-service", "10.0.0." + index, 8080, false);
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,200 @@
+package com.imad.gateway.loadbalancer;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Instances locales de vitesses différentes derrière lb:// (découverte simple à la place d'Eureka) :
+ * speed-service (deux rapides, une lente), flaky-service (une saine, une en 503) et tail-service
+ * (deux instances dont une requête sur 25 est lente). Le choix d'instance lui-même est vérifié
+ * sans tirage ni horloge dans {@link LatencyAwareLoadBalancerTest}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LatencyAwareLoadBalancingTest {
+
+    private static final List<HttpServer> servers = new ArrayList<>();
+    private static final AtomicInteger slowHits = new AtomicInteger();
+    private static final AtomicInteger brokenHits = new AtomicInteger();
+    private static int slowPort;
+
+    static {
+        // Sans TCP_NODELAY, les petites réponses du serveur JDK attendent l'ACK retardé (~40 ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) throws Exception {
+        instance(registry, "speed-service", 0, stub(5, 0, 200, new AtomicInteger()));
+        instance(registry, "speed-service", 1, stub(5, 0, 200, new AtomicInteger()));
+        HttpServer slow = stub(150, 0, 200, slowHits);
+        slowPort = slow.getAddress().getPort();
+        instance(registry, "speed-service", 2, slow);
+        instance(registry, "flaky-service", 0, stub(2, 0, 200, new AtomicInteger()));
+        instance(registry, "flaky-service", 1, stub(2, 0, 503, brokenHits));
+        instance(registry, "tail-service", 0, stub(2, 25, 200, new AtomicInteger()));
+        instance(registry, "tail-service", 1, stub(2, 25, 200, new AtomicInteger()));
+
+        route(registry, 0, "balanced", "speed-service");
+        route(registry, 1, "retried", "flaky-service");
+        registry.add("spring.cloud.gateway.routes[1].filters[0]", () -> "BudgetedRetry");
+        route(registry, 2, "unhedged", "tail-service");
+        route(registry, 3, "hedged", "tail-service");
+        registry.add("spring.cloud.gateway.routes[3].filters[0].name", () -> "BudgetedRetry");
+        registry.add("spring.cloud.gateway.routes[3].filters[0].args.hedge", () -> "true");
+        registry.add("spring.cloud.gateway.routes[3].filters[0].args.minSamples", () -> "20");
+    }
+
+    // Une requête sur slowEvery (0 : aucune) prend 200 ms au lieu de delayMillis
+    private static HttpServer stub(int delayMillis, int slowEvery, int status, AtomicInteger hits) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 100);
+        server.setExecutor(Executors.newCachedThreadPool());
+        AtomicInteger counter = new AtomicInteger();
+        server.createContext("/", exchange -> {
+            int hit = counter.incrementAndGet();
+            hits.incrementAndGet();
+            try {
+                Thread.sleep(slowEvery > 0 && hit % slowEvery == 0 ? 200 : delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        servers.add(server);
+        return server;
+    }
+
+    private static void instance(DynamicPropertyRegistry registry, String service, int index, HttpServer server) {
+        registry.add("spring.cloud.discovery.client.simple.instances." + service + "[" + index + "].uri",
+                () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    private static void route(DynamicPropertyRegistry registry, int index, String path, String service) {
+        registry.add("spring.cloud.gateway.routes[" + index + "].id", () -> path);
+        registry.add("spring.cloud.gateway.routes[" + index + "].uri", () -> "lb://" + service);
+        registry.add("spring.cloud.gateway.routes[" + index + "].predicates[0]", () -> "Path=/" + path + "/**");
+    }
+
+    @AfterAll
+    static void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @TestConfiguration
+    static class OpenSecurity {
+
+        @Bean
+        @Order(-100)
+        SecurityWebFilterChain loadBalancingTestSecurity(ServerHttpSecurity http) {
+            return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                    .authorizeExchange(exchange -> exchange.anyExchange().permitAll())
+                    .build();
+        }
+    }
+
+    @Test
+    void everyInstanceIsMeasured() {
+        List<Integer> statuses = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            statuses.add(get("/balanced/items").status());
+        }
+
+        assertThat(statuses).containsOnly(200);
+        // Une instance jamais mesurée et libre a un coût nul : la lente est essayée au moins une fois
+        assertThat(slowHits.get()).isPositive();
+        assertThat(meterRegistry.find("gateway.loadbalancer.requests")
+                .tag("instance", "localhost:" + slowPort).timers()).isNotEmpty();
+    }
+
+    @Test
+    void retriesGetOnAnotherInstanceWhenOneFails() {
+        List<Integer> statuses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            statuses.add(get("/retried/items").status());
+        }
+
+        assertThat(statuses).containsOnly(200);
+        assertThat(brokenHits.get()).isPositive();
+    }
+
+    @Test
+    void slowRequestsAreHedged() {
+        for (int i = 0; i < 200; i++) {
+            assertThat(get("/hedged/items").status()).isEqualTo(200);
+        }
+
+        // Chaque 25e requête d'une instance dure 200 ms, bien au-delà du délai de la requête parallèle
+        assertThat(meterRegistry.counter("gateway.retry.attempts", "route", "hedged", "kind", "hedge").count())
+                .isPositive();
+        assertThat(meterRegistry.find("gateway.retry.attempts").tag("route", "unhedged").counters()).isEmpty();
+    }
+
+    // Comparaison de latences mesurées à l'horloge : hors build normal (-Dgateway.loadtest=true)
+    @Test
+    @EnabledIfSystemProperty(named = "gateway.loadtest", matches = "true")
+    void hedgingCutsTailLatency() {
+        double unhedged = p99("/unhedged/items");
+        double hedged = p99("/hedged/items");
+
+        System.out.printf("p99 sans requête parallèle : %.1f ms, avec : %.1f ms%n", unhedged, hedged);
+        assertThat(unhedged).isGreaterThanOrEqualTo(200);
+        assertThat(hedged).isLessThan(unhedged / 2);
+    }
+
+    private double p99(String path) {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Response response = get(path);
+            assertThat(response.status()).isEqualTo(200);
+            latencies.add(response.nanos());
+        }
+        Collections.sort(latencies);
+        return latencies.get((int) Math.ceil(0.99 * latencies.size()) - 1) / 1e6;
+    }
+
+    private Response get(String path) {
+        long start = System.nanoTime();
+        Integer status = WebClient.create("http://localhost:" + port).get()
+                .uri(path)
+                .exchangeToMono(response -> response.bodyToMono(String.class)
+                        .thenReturn(response.statusCode().value()))
+                .block();
+        return new Response(status, System.nanoTime() - start);
+    }
+
+    record Response(int status, long nanos) {
+    }
+}
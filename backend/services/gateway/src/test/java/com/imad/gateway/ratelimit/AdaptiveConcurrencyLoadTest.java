@@ -0,0 +1,160 @@
+package com.imad.gateway.ratelimit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Surcharge x10 d'un backend de capacité fixe (4 requêtes simultanées de 20 ms), avec et sans
+ * AdaptiveConcurrencyLimit. Sans limite, les requêtes s'accumulent dans la file du backend ; avec,
+ * l'excédent reçoit 503 tout de suite et le p99 des requêtes servies reste proche du temps de service.
+ * Lancement : mvn test -Dtest=AdaptiveConcurrencyLoadTest -Dgateway.loadtest=true
+ */
+@EnabledIfSystemProperty(named = "gateway.loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AdaptiveConcurrencyLoadTest {
+
+    private static final int BACKEND_CONCURRENCY = 4;
+    private static final Duration SERVICE_TIME = Duration.ofMillis(20);
+    private static final int CLIENTS = BACKEND_CONCURRENCY * 10;
+    private static final Duration PHASE = Duration.ofSeconds(15);
+
+    private static HttpServer backend;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) throws Exception {
+        backend = HttpServer.create(new InetSocketAddress(0), 1000);
+        backend.setExecutor(Executors.newFixedThreadPool(BACKEND_CONCURRENCY));
+        backend.createContext("/", exchange -> {
+            try {
+                Thread.sleep(SERVICE_TIME.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        backend.start();
+        String uri = "http://localhost:" + backend.getAddress().getPort();
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "limited");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> uri);
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/limited/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "AdaptiveConcurrencyLimit");
+        registry.add("spring.cloud.gateway.routes[1].id", () -> "unlimited");
+        registry.add("spring.cloud.gateway.routes[1].uri", () -> uri);
+        registry.add("spring.cloud.gateway.routes[1].predicates[0]", () -> "Path=/unlimited/**");
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @TestConfiguration
+    static class OpenSecurity {
+
+        @Bean
+        @Order(-100)
+        SecurityWebFilterChain loadTestSecurity(ServerHttpSecurity http) {
+            return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                    .authorizeExchange(exchange -> exchange.anyExchange().permitAll())
+                    .build();
+        }
+    }
+
+    @Test
+    void adaptiveLimitKeepsP99StableUnderTenfoldOverload() {
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(
+                        ConnectionProvider.builder("load").maxConnections(CLIENTS * 2).build())))
+                .build();
+
+        Result unlimited = run(client, "/unlimited/items");
+        Result limited = run(client, "/limited/items");
+
+        System.out.printf("sans limite : %s%navec limite : %s%n", unlimited, limited);
+        assertThat(limited.p99()).isLessThan(unlimited.p99() / 2);
+    }
+
+    private static Result run(WebClient client, String path) {
+        // Préchauffage, puis mesure
+        load(client, path, Duration.ofSeconds(5), new ConcurrentLinkedQueue<>(), new AtomicInteger());
+        var latencies = new ConcurrentLinkedQueue<Long>();
+        var shed = new AtomicInteger();
+        load(client, path, PHASE, latencies, shed);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(sorted.size() / PHASE.toSeconds(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), shed.get());
+    }
+
+    private static void load(WebClient client, String path, Duration duration,
+                             ConcurrentLinkedQueue<Long> latencies, AtomicInteger shed) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, CLIENTS)
+                .flatMap(clientId -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.get().uri(path).exchangeToMono(response -> response.releaseBody()
+                            .then(Mono.fromRunnable(() -> {
+                                if (response.statusCode().is2xxSuccessful()) {
+                                    latencies.add(System.nanoTime() - start);
+                                } else {
+                                    shed.incrementAndGet();
+                                }
+                            }))
+                            // Un client rejeté patiente avant de réessayer
+                            .then(response.statusCode().is2xxSuccessful()
+                                    ? Mono.empty() : Mono.delay(Duration.ofMillis(50)).then()));
+                }).repeat(() -> System.nanoTime() < deadline), CLIENTS)
+                .blockLast();
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.ceil(percentile * sorted.size()) - 1)) / 1e6;
+    }
+
+    record Result(long throughput, double p50Millis, double p99Millis, int shed) {
+
+        double p99() {
+            return p99Millis;
+        }
+    }
+}
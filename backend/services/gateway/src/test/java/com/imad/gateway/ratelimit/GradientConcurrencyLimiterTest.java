@@ -0,0 +1,68 @@
+package com.imad.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientConcurrencyLimiterTest {
+
+    @Test
+    void limitShrinksWhenLatencyRisesAndRejectsBeyondIt() {
+        var limiter = new GradientConcurrencyLimiter(50, 4, 500, 1.5, 10, 100, 0.5);
+        saturate(limiter, 200, Duration.ofMillis(20));
+        int steadyLimit = limiter.getLimit();
+
+        saturate(limiter, 200, Duration.ofMillis(200));
+
+        assertThat(limiter.getLimit()).isLessThan(steadyLimit / 2);
+        for (int i = 0; i < limiter.getLimit(); i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void limitGrowsBackOnceLatencyRecovers() {
+        var limiter = new GradientConcurrencyLimiter(50, 4, 500, 1.5, 10, 100, 0.5);
+        saturate(limiter, 100, Duration.ofMillis(20));
+        saturate(limiter, 200, Duration.ofMillis(200));
+        int degradedLimit = limiter.getLimit();
+
+        saturate(limiter, 400, Duration.ofMillis(20));
+
+        assertThat(limiter.getLimit()).isGreaterThan(degradedLimit * 2);
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenReplenishRate() {
+        AtomicLong now = new AtomicLong();
+        var store = new InMemoryTokenBucketStore(100, Duration.ofMinutes(1), now::get);
+        var config = new TokenBucketRateLimiter.Config().setReplenishRate(10).setBurstCapacity(5);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(store.tryConsume("route:ip:1", config).block().allowed()).isTrue();
+        }
+        assertThat(store.tryConsume("route:ip:1", config).block().allowed()).isFalse();
+        assertThat(store.tryConsume("route:ip:2", config).block().allowed()).isTrue();
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+        assertThat(store.tryConsume("route:ip:1", config).block().allowed()).isTrue();
+        assertThat(store.tryConsume("route:ip:1", config).block().allowed()).isFalse();
+    }
+
+    // Requêtes complétées avec la latence donnée alors que toutes les places sont occupées
+    private static void saturate(GradientConcurrencyLimiter limiter, int requests, Duration latency) {
+        for (int i = 0; i < requests; i++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int j = 0; j < acquired; j++) {
+                limiter.release(latency.toNanos(), j == 0);
+            }
+        }
+    }
+}
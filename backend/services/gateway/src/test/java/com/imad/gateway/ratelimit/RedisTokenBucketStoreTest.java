@@ -0,0 +1,133 @@
+package com.imad.gateway.ratelimit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Deux instances de la gateway (deux connexions distinctes) devant le même serveur Redis embarqué.
+ */
+class RedisTokenBucketStoreTest {
+
+    private static RedisServer redis;
+    private static int port;
+
+    private final List<LettuceConnectionFactory> connections = new ArrayList<>();
+    // Conversions de Spring Boot pour les @Value (Duration)
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(RateLimitConfig.class)
+            .withBean(ConfigurationService.class, () -> mock(ConfigurationService.class));
+    private final TokenBucketRateLimiter.Config config = new TokenBucketRateLimiter.Config()
+            .setReplenishRate(10)
+            .setBurstCapacity(5);
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        port = freePort();
+        redis = new RedisServer(port);
+        redis.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        redis.stop();
+    }
+
+    @AfterEach
+    void closeConnections() {
+        connections.forEach(LettuceConnectionFactory::destroy);
+    }
+
+    @Test
+    void bucketIsSharedBetweenInstances() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        TokenBucketStore first = store(port, now::get);
+        TokenBucketStore second = store(port, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            TokenBucketStore instance = i % 2 == 0 ? first : second;
+            assertThat(instance.tryConsume("route:ip:1", config).block().allowed()).isTrue();
+        }
+
+        assertThat(first.tryConsume("route:ip:1", config).block().allowed()).isFalse();
+        assertThat(second.tryConsume("route:ip:1", config).block().allowed()).isFalse();
+        assertThat(second.tryConsume("route:ip:2", config).block())
+                .isEqualTo(new TokenBucketStore.Result(true, 4));
+
+        // Une seconde plus tard : 10 jetons ajoutés, bornés à la taille du seau
+        now.incrementAndGet();
+        for (int i = 0; i < 5; i++) {
+            assertThat(first.tryConsume("route:ip:1", config).block().allowed()).isTrue();
+        }
+        assertThat(second.tryConsume("route:ip:1", config).block().allowed()).isFalse();
+    }
+
+    @Test
+    void bucketRefillsWithRedisTime() throws InterruptedException {
+        TokenBucketStore store = store(port, null);
+        // Seau vidé (un remplissage peut survenir si la seconde du serveur change entre deux appels)
+        int consumed = 0;
+        while (store.tryConsume("route:ip:3", config).block().allowed()) {
+            assertThat(++consumed).isLessThan(100);
+        }
+
+        // Le script remplit le seau à la seconde (horloge du serveur Redis)
+        Thread.sleep(1100);
+
+        assertThat(store.tryConsume("route:ip:3", config).block().allowed()).isTrue();
+    }
+
+    @Test
+    void requestsPassWhenRedisIsDown() throws IOException {
+        TokenBucketStore store = store(freePort(), null);
+
+        assertThat(store.tryConsume("route:ip:1", config).block())
+                .isEqualTo(new TokenBucketStore.Result(true, -1));
+    }
+
+    @Test
+    void redisStoreReplacesTheInMemoryStore() {
+        contextRunner
+                .withPropertyValues("gateway.rate-limit.store=redis", "spring.data.redis.port=" + port)
+                .run(context -> assertThat(context).getBean(TokenBucketStore.class)
+                        .isInstanceOf(RedisTokenBucketStore.class));
+
+        contextRunner
+                .run(context -> assertThat(context).getBean(TokenBucketStore.class)
+                        .isInstanceOf(InMemoryTokenBucketStore.class));
+    }
+
+    private TokenBucketStore store(int redisPort, LongSupplier epochSeconds) {
+        var connection = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisPort));
+        connection.afterPropertiesSet();
+        connection.start();
+        connections.add(connection);
+        return new RedisTokenBucketStore(new ReactiveStringRedisTemplate(connection), epochSeconds);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
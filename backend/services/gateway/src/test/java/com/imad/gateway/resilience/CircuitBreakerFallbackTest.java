@@ -0,0 +1,183 @@
+package com.imad.gateway.resilience;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Route "catalog" (cache, disjoncteur, cloison) vers un backend qui passe en erreur 500, et route
+ * "slow" vers un backend qui répond en 1 s, avec un délai de 300 ms et deux appels simultanés au plus.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CircuitBreakerFallbackTest {
+
+    private static final AtomicInteger catalogStatus = new AtomicInteger(200);
+    private static final AtomicInteger catalogHits = new AtomicInteger();
+    private static HttpServer backend;
+
+    static {
+        // Sans TCP_NODELAY, les petites réponses du serveur JDK attendent l'ACK retardé (~40 ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @DynamicPropertySource
+    static void routes(DynamicPropertyRegistry registry) throws Exception {
+        backend = HttpServer.create(new InetSocketAddress(0), 100);
+        backend.setExecutor(Executors.newCachedThreadPool());
+        backend.createContext("/catalog/", exchange -> {
+            int hit = catalogHits.incrementAndGet();
+            int status = catalogStatus.get();
+            byte[] body = ("{\"hit\":" + hit + "}").getBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        backend.createContext("/slow/", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        backend.start();
+        String uri = "http://localhost:" + backend.getAddress().getPort();
+
+        registry.add("spring.cloud.gateway.routes[0].id", () -> "catalog");
+        registry.add("spring.cloud.gateway.routes[0].uri", () -> uri);
+        registry.add("spring.cloud.gateway.routes[0].predicates[0]", () -> "Path=/catalog/**");
+        registry.add("spring.cloud.gateway.routes[0].filters[0]", () -> "CatalogResponseCache");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].name", () -> "CircuitBreaker");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].args.fallbackUri", () -> "forward:/fallback");
+        registry.add("spring.cloud.gateway.routes[0].filters[1].args.statusCodes", () -> "500");
+        registry.add("spring.cloud.gateway.routes[0].filters[2]", () -> "Bulkhead");
+        registry.add("gateway.response-cache.paths", () -> "/catalog/**");
+        registry.add("resilience4j.circuitbreaker.instances.catalog.sliding-window-size", () -> "4");
+        registry.add("resilience4j.circuitbreaker.instances.catalog.minimum-number-of-calls", () -> "4");
+        registry.add("resilience4j.circuitbreaker.instances.catalog.wait-duration-in-open-state", () -> "60s");
+
+        registry.add("spring.cloud.gateway.routes[1].id", () -> "slow");
+        registry.add("spring.cloud.gateway.routes[1].uri", () -> uri);
+        registry.add("spring.cloud.gateway.routes[1].predicates[0]", () -> "Path=/slow/**");
+        registry.add("spring.cloud.gateway.routes[1].filters[0].name", () -> "CircuitBreaker");
+        registry.add("spring.cloud.gateway.routes[1].filters[0].args.fallbackUri", () -> "forward:/fallback");
+        registry.add("spring.cloud.gateway.routes[1].filters[1]", () -> "Bulkhead");
+        registry.add("resilience4j.circuitbreaker.instances.slow.minimum-number-of-calls", () -> "100");
+        registry.add("resilience4j.timelimiter.instances.slow.timeout-duration", () -> "300ms");
+        registry.add("resilience4j.bulkhead.instances.slow.max-concurrent-calls", () -> "2");
+        registry.add("resilience4j.bulkhead.instances.slow.max-wait-duration", () -> "0");
+
+        registry.add("management.endpoints.web.exposure.include", () -> "circuitbreakers");
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @TestConfiguration
+    static class OpenSecurity {
+
+        @Bean
+        @Order(-100)
+        SecurityWebFilterChain fallbackTestSecurity(ServerHttpSecurity http) {
+            return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                    .authorizeExchange(exchange -> exchange.anyExchange().permitAll())
+                    .build();
+        }
+    }
+
+    @Test
+    void catalogReadsServeLastCachedResponseWhileBreakerIsOpen() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        ResponseEntity<String> fresh = get(client, "/catalog/items", false);
+        assertThat(fresh.getBody()).isEqualTo("{\"hit\":1}");
+
+        catalogStatus.set(500);
+        for (int i = 0; i < 4; i++) {
+            ResponseEntity<String> stale = get(client, "/catalog/items", true);
+            assertThat(stale.getStatusCode().value()).isEqualTo(200);
+            assertThat(stale.getHeaders().getFirst("X-Cache")).isEqualTo("STALE");
+            assertThat(stale.getBody()).isEqualTo("{\"hit\":1}");
+        }
+        CircuitBreaker breaker = circuitBreakerRegistry.circuitBreaker("catalog");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // Disjoncteur ouvert : plus aucun appel amont, la réponse en cache reste servie
+        int hits = catalogHits.get();
+        assertThat(get(client, "/catalog/items", true).getHeaders().getFirst("X-Cache")).isEqualTo("STALE");
+        ResponseEntity<String> uncached = get(client, "/catalog/other", false);
+        assertThat(uncached.getStatusCode().value()).isEqualTo(503);
+        assertThat(uncached.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+        assertThat(catalogHits.get()).isEqualTo(hits);
+
+        String state = client.get().uri("/actuator/circuitbreakers").retrieve().bodyToMono(String.class).block();
+        assertThat(state).contains("\"catalog\"").contains("OPEN");
+    }
+
+    @Test
+    void slowCallsTimeOutAndExcessCallsAreRejectedImmediately() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        // Préchauffage : connexions et premier routage hors mesure
+        assertThat(get(client, "/slow/items", false).getStatusCode().value()).isEqualTo(504);
+
+        List<long[]> results = Flux.range(0, 6)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.get().uri("/slow/items").exchangeToMono(response -> response.releaseBody()
+                            .thenReturn(new long[]{response.statusCode().value(),
+                                    (System.nanoTime() - start) / 1_000_000}));
+                }), 6)
+                .collectList()
+                .block();
+
+        assertThat(results).filteredOn(result -> result[0] == 504).hasSize(2)
+                .allSatisfy(result -> assertThat(result[1]).isLessThan(900));
+        assertThat(results).filteredOn(result -> result[0] == 503).hasSize(4)
+                .allSatisfy(result -> assertThat(result[1]).isLessThan(250));
+    }
+
+    private static ResponseEntity<String> get(WebClient client, String path, boolean revalidate) {
+        return client.get().uri(path)
+                .headers(headers -> {
+                    if (revalidate) {
+                        headers.setCacheControl("no-cache");
+                    }
+                })
+                .exchangeToMono(response -> response.toEntity(String.class))
+                .block();
+    }
+}
@@ -0,0 +1,70 @@
+package com.imad.cache;
+
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.enums.ChangeAggregateType;
+import com.imad.repository.CatalogChangeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+// Diffusion des invalidations entre instances : chaque instance suit l'outbox catalog_changes
+// (changements validés, numérotés par le relais) et retire de son cache local les fiches
+// modifiées, y compris par une autre instance. Le retard est borné par l'intervalle du relais
+// plus celui de cette lecture ; la durée de vie des entrées reste le dernier recours.
+@Component
+@Slf4j
+public class ProductCacheInvalidator {
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final ProductDetailCache cache;
+    private final int batchSize;
+
+    // Dernier seq appliqué ; négatif tant que la position de départ n'est pas lue
+    private volatile long position = -1;
+
+    public ProductCacheInvalidator(CatalogChangeRepository catalogChangeRepository,
+                                   ProductDetailCache cache,
+                                   @Value("${product.cache.details.invalidation-batch-size:1000}") int batchSize) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.cache = cache;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${product.cache.details.invalidation-interval-ms:500}")
+    public void poll() {
+        try {
+            if (position < 0) {
+                // Les changements antérieurs sont déjà visibles en base ; les fiches lues
+                // avant de connaître la position sont retirées par précaution
+                position = catalogChangeRepository.lastSequence();
+                cache.invalidateAll();
+                return;
+            }
+            List<CatalogChangeDTO> changes;
+            do {
+                changes = catalogChangeRepository.findAfter(position, batchSize);
+                changes.forEach(this::apply);
+                if (!changes.isEmpty()) {
+                    position = changes.get(changes.size() - 1).getSeq();
+                }
+            } while (changes.size() == batchSize);
+        } catch (DataAccessException ex) {
+            // Nouvel essai au passage suivant, à partir de la même position
+            log.warn("Lecture de l'outbox du catalogue impossible après seq {}: {}",
+                    position, ex.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void apply(CatalogChangeDTO change) {
+        if (change.getAggregateType() == ChangeAggregateType.PRODUCT) {
+            cache.evictProducts(Set.of(change.getAggregateId()), change.getChangeType());
+        } else if (change.getAggregateType() == ChangeAggregateType.CATEGORY) {
+            cache.evictCategory(change.getAggregateId());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.imad.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.imad.dto.ProductResponseDTO;
+import com.imad.event.ChangeType;
+import com.imad.event.CategoryChangedEvent;
+import com.imad.event.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Cache des fiches produit (ProductResponseDTO) par ID, avec une table SKU -> ID.
+// Caffeine (éviction W-TinyLFU) borné en taille et en durée de vie ; les entrées
+// sont invalidées après commit des écritures produit et catégorie. Les écritures des
+// autres instances arrivent par l'outbox du catalogue (ProductCacheInvalidator).
+@Component
+@Slf4j
+public class ProductDetailCache {
+
+    private final AsyncCache<Long, ProductResponseDTO> byId;
+    private final AsyncCache<String, Long> idsBySku;
+
+    public ProductDetailCache(@Value("${product.cache.details.maximum-size:10000}") long maximumSize,
+                              @Value("${product.cache.details.ttl:PT10M}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // Le SKU d'un produit ne change jamais : la table n'expire que par la taille
+        this.idsBySku = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId.synchronous(), "product.details");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsBySku.synchronous(), "product.skus");
+    }
+
+    // Une invalidation concurrente retire le chargement en cours : sa valeur,
+    // éventuellement périmée, n'est pas conservée
+    public ProductResponseDTO get(Long id, Function<Long, ProductResponseDTO> loader) {
+        return load(byId, id, loader);
+    }
+
+    public Long resolveSku(String sku, Function<String, Long> loader) {
+        return load(idsBySku, sku, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evictProducts(event.getProductIds(), event.getType());
+    }
+
+    // La catégorie (nom, statut) est incluse dans chaque fiche produit
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() != ChangeType.CREATED) {
+            evictCategory(event.getCategoryId());
+        }
+    }
+
+    public void evictProducts(Collection<Long> ids, ChangeType type) {
+        byId.synchronous().invalidateAll(ids);
+        if (type == ChangeType.DELETED) {
+            // Un SKU supprimé peut être réutilisé par un nouveau produit
+            idsBySku.synchronous().asMap().values().removeIf(ids::contains);
+        }
+    }
+
+    public void evictCategory(Long categoryId) {
+        byId.synchronous().asMap().values().removeIf(product ->
+                product.getCategory() != null && categoryId.equals(product.getCategory().getId()));
+    }
+
+    public void invalidateAll() {
+        byId.synchronous().invalidateAll();
+        idsBySku.synchronous().invalidateAll();
+    }
+
+    // Le chargement (JDBC) se fait dans le thread appelant, hors du calcul atomique de Caffeine :
+    // un bloc synchronized autour d'une attente réseau épinglerait le thread porteur d'un thread
+    // virtuel. Caffeine n'enregistre que le futur ; les appels concurrents attendent ce futur.
+    private static <K, V> V load(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (Throwable ex) {
+                // Toujours terminer le futur, même sur une Error : sinon la clé resterait
+                // bloquée et tous les lecteurs suivants attendraient indéfiniment
+                loading.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            // Même exception que le chargeur (ex. produit introuvable -> 404)
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
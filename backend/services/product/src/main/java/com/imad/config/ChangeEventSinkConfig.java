@@ -0,0 +1,20 @@
+package com.imad.config;
+
+import com.imad.event.ChangeEventSink;
+import com.imad.event.InMemoryChangeEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ChangeEventSinkConfig {
+
+    // Remplacé dès qu'un autre ChangeEventSink (Kafka, RabbitMQ...) est déclaré
+    @Bean
+    @ConditionalOnMissingBean(ChangeEventSink.class)
+    public ChangeEventSink inMemoryChangeEventSink(
+            @Value("${product.outbox.sink.in-memory-capacity:10000}") int capacity) {
+        return new InMemoryChangeEventSink(capacity);
+    }
+}
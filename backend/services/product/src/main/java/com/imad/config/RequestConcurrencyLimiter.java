@@ -0,0 +1,98 @@
+package com.imad.config;
+
+import com.imad.exception.ServiceBusyException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Limite le nombre de requêtes traitées simultanément.
+// Avec les threads virtuels, Tomcat n'a plus de pool borné : sans cette limite, une rafale
+// crée des milliers de requêtes qui attendent toutes une connexion Hikari puis échouent
+// sur son délai. Les requêtes en trop attendent ici au plus acquire-timeout, puis 503.
+// Requêtes asynchrones :
+//  - traitement par Callable (export StreamingResponseBody) : il lit la base en arrière-plan,
+//    le permis est gardé jusqu'à la fin de la requête asynchrone ;
+//  - SseEmitter / DeferredResult (flux de stock faible) : aucune connexion n'est tenue pendant
+//    l'attente, le permis est rendu dès le passage en asynchrone.
+// Le redispatch ASYNC qui écrit le résultat ne reprend pas de permis : la réponse peut déjà
+// être engagée, un 503 y serait impossible.
+public class RequestConcurrencyLimiter implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = RequestConcurrencyLimiter.class.getName() + ".PERMIT";
+    private static final String CALLABLE_ATTRIBUTE = RequestConcurrencyLimiter.class.getName() + ".CALLABLE";
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public RequestConcurrencyLimiter(int maxConcurrentRequests, Duration acquireTimeout) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            throw new ServiceBusyException("Service momentanément saturé, veuillez réessayer");
+        }
+        Permit permit = new Permit();
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(PERMIT_ATTRIBUTE, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                webRequest.setAttribute(CALLABLE_ATTRIBUTE, Boolean.TRUE, NativeWebRequest.SCOPE_REQUEST);
+            }
+
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                permit.release();
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // Requête synchrone, ou redispatch ASYNC final ; sans effet si le permis est déjà rendu
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            permit.release();
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(CALLABLE_ATTRIBUTE) == null
+                && request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            permit.release();
+        }
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    // Rendu une seule fois, quel que soit le thread qui termine la requête en premier
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.imad.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+// Mode threads virtuels (profil "virtual-threads", spring.threads.virtual.enabled) :
+// la limite de concurrence se cale sur le pool de connexions, qui devient la vraie ressource rare
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private final RequestConcurrencyLimiter concurrencyLimiter;
+
+    public VirtualThreadConfig(@Value("${product.concurrency.max-concurrent-requests:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrentRequests,
+                               @Value("${product.concurrency.acquire-timeout:PT2S}") Duration acquireTimeout,
+                               MeterRegistry meterRegistry) {
+        this.concurrencyLimiter = new RequestConcurrencyLimiter(maxConcurrentRequests, acquireTimeout);
+        Gauge.builder("product.requests.available-permits", concurrencyLimiter, RequestConcurrencyLimiter::availablePermits)
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public RequestConcurrencyLimiter requestConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(concurrencyLimiter).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,30 @@
+package com.imad.controller;
+
+import com.imad.dto.CatalogChangeFeedDTO;
+import com.imad.service.CatalogChangeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+@RequiredArgsConstructor
+@Tag(name = "Changes", description = "Flux des changements du catalogue")
+public class CatalogChangeController {
+
+    private final CatalogChangeService catalogChangeService;
+
+    @GetMapping
+    @Operation(summary = "Changements du catalogue après un offset (seq), dans l'ordre")
+    public ResponseEntity<CatalogChangeFeedDTO> getChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "1000") int limit) {
+        CatalogChangeFeedDTO response = catalogChangeService.getChanges(after, limit);
+        return ResponseEntity.ok(response);
+    }
+}
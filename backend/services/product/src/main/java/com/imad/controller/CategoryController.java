@@ -62,6 +62,20 @@ public class CategoryController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Récupérer les catégories par curseur (pagination par clé, sans comptage)")
+    public ResponseEntity<CursorPageDTO<CategoryResponseDTO>> getCategoriesAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDirection) {
+
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        CursorPageDTO<CategoryResponseDTO> response = categoryService.getCategoriesAfter(after, sortBy, direction, size);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/active")
     @Operation(summary = "Récupérer toutes les catégories actives")
     public ResponseEntity<List<CategoryResponseDTO>> getActiveCategories() {
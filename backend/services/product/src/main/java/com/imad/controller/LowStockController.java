@@ -0,0 +1,42 @@
+package com.imad.controller;
+
+import com.imad.dto.LowStockAlertDTO;
+import com.imad.service.LowStockAlertBroadcaster;
+import com.imad.service.LowStockMonitor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/products/low-stock")
+@RequiredArgsConstructor
+@Tag(name = "Low Stock", description = "Alertes de stock faible")
+public class LowStockController {
+
+    private final LowStockMonitor lowStockMonitor;
+    private final LowStockAlertBroadcaster broadcaster;
+
+    @GetMapping("/alerts")
+    @Operation(summary = "Produits sous leur seuil de stock, du plus urgent au moins urgent")
+    public ResponseEntity<Page<LowStockAlertDTO>> getAlerts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Page<LowStockAlertDTO> response = lowStockMonitor.getAlerts(PageRequest.of(page, size));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Flux SSE des franchissements de seuil de stock")
+    public SseEmitter stream() {
+        return broadcaster.subscribe();
+    }
+}
@@ -4,6 +4,8 @@ package com.imad.controller;
 
 import com.imad.dto.*;
 import com.imad.enums.ProductStatus;
+import com.imad.service.ProductExportService;
+import com.imad.service.ProductImportService;
 import com.imad.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,12 +15,24 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -27,6 +41,8 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
 
     @PostMapping
     @Operation(summary = "Créer un nouveau produit")
@@ -35,6 +51,74 @@ public class ProductController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // Le corps est lu en flux : le fichier n'est jamais chargé entièrement en mémoire
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    @Operation(summary = "Importer des produits en masse (NDJSON, un produit par ligne)")
+    public ResponseEntity<ProductImportResultDTO> importProductsNdjson(InputStream body) throws IOException {
+        ProductImportResultDTO response = productImportService.importNdjson(body);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @Operation(summary = "Importer des produits en masse (CSV avec en-tête)")
+    public ResponseEntity<ProductImportResultDTO> importProductsCsv(InputStream body) throws IOException {
+        ProductImportResultDTO response = productImportService.importCsv(body);
+        return ResponseEntity.ok(response);
+    }
+
+    // Avec If-Modified-Since, seuls les produits modifiés depuis cette date sont exportés
+    // (les suppressions n'apparaissent pas dans un export incrémental)
+    @GetMapping("/export")
+    @Operation(summary = "Exporter le catalogue en flux (NDJSON ou CSV, gzip, export incrémental)")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader HttpHeaders headers) {
+
+        boolean csv = format.equalsIgnoreCase("csv");
+        boolean gzip = headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING).stream()
+                .anyMatch(value -> value.toLowerCase().contains("gzip"));
+
+        // Les colonnes TIMESTAMP sont dans le fuseau de la JVM (même conversion que le driver JDBC)
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime modifiedSince = headers.getIfModifiedSince() >= 0
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(headers.getIfModifiedSince()), zone)
+                : null;
+        // Précision HTTP : la seconde ; l'export incrémental repart du début de la seconde indiquée
+        LocalDateTime lastModified = productExportService.getLastModified()
+                .map(value -> value.truncatedTo(ChronoUnit.SECONDS))
+                .orElse(null);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (lastModified != null) {
+            if (modifiedSince != null && !lastModified.isAfter(modifiedSince)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .lastModified(lastModified.atZone(zone))
+                        .build();
+            }
+            response.lastModified(lastModified.atZone(zone));
+        }
+
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(output, 64 * 1024)) {
+                    productExportService.export(csv, modifiedSince, compressed);
+                }
+            } else {
+                productExportService.export(csv, modifiedSince, output);
+            }
+        };
+
+        response.contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(csv ? "products.csv" : "products.ndjson")
+                        .build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer un produit par ID")
     public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id) {
@@ -64,6 +148,20 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Récupérer les produits par curseur (pagination par clé, sans comptage)")
+    public ResponseEntity<CursorPageDTO<ProductSummaryDTO>> getProductsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "ASC") String sortDirection) {
+
+        Sort.Direction direction = sortDirection.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        CursorPageDTO<ProductSummaryDTO> response = productService.getProductsAfter(after, sortBy, direction, size);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/status/{status}")
     @Operation(summary = "Récupérer les produits par statut")
     public ResponseEntity<Page<ProductSummaryDTO>> getProductsByStatus(
@@ -101,13 +199,15 @@ public class ProductController {
     }
 
     @GetMapping("/filter")
-    @Operation(summary = "Filtrer les produits selon plusieurs critères")
+    @Operation(summary = "Filtrer les produits selon plusieurs critères (catégories et marques multiples)")
     public ResponseEntity<Page<ProductSummaryDTO>> filterProducts(
-            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) List<Long> categoryId,
             @RequestParam(required = false) ProductStatus status,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) BigDecimal minRating,
+            @RequestParam(required = false) BigDecimal maxRating,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -116,8 +216,42 @@ public class ProductController {
         Sort.Direction direction = sortDirection.equalsIgnoreCase("DESC") ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-        Page<ProductSummaryDTO> response = productService.filterProducts(
-                categoryId, status, minPrice, maxPrice, brand, pageable);
+        ProductFilterDTO filter = ProductFilterDTO.builder()
+                .categoryIds(categoryId)
+                .status(status)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .brands(brand)
+                .minRating(minRating)
+                .maxRating(maxRating)
+                .build();
+
+        Page<ProductSummaryDTO> response = productService.filterProducts(filter, pageable);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Récupérer les facettes (catégories, marques, statuts, prix, notes) pour des critères")
+    public ResponseEntity<ProductFacetsDTO> getProductFacets(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) ProductStatus status,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) BigDecimal minRating,
+            @RequestParam(required = false) BigDecimal maxRating) {
+
+        ProductFilterDTO filter = ProductFilterDTO.builder()
+                .categoryIds(categoryId)
+                .status(status)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .brands(brand)
+                .minRating(minRating)
+                .maxRating(maxRating)
+                .build();
+
+        ProductFacetsDTO response = productService.getProductFacets(filter);
         return ResponseEntity.ok(response);
     }
 
@@ -148,6 +282,14 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @PatchMapping("/bulk")
+    @Operation(summary = "Mettre à jour le stock et les prix de plusieurs produits (par ID ou SKU)")
+    public ResponseEntity<ProductBulkUpdateResultDTO> bulkUpdateStockAndPrice(
+            @RequestBody List<ProductBulkUpdateItemDTO> items) {
+        ProductBulkUpdateResultDTO response = productService.bulkUpdateStockAndPrice(items);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Supprimer un produit")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
@@ -0,0 +1,51 @@
+package com.imad.controller;
+
+import com.imad.dto.StockReservationDTO;
+import com.imad.dto.StockReservationRequestDTO;
+import com.imad.service.StockReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+@Tag(name = "Stock Reservations", description = "API de réservation de stock")
+public class StockReservationController {
+
+    private final StockReservationService reservationService;
+
+    @PostMapping("/{id}/stock/reservations")
+    @Operation(summary = "Réserver du stock pour un produit")
+    public ResponseEntity<StockReservationDTO> reserve(
+            @PathVariable Long id,
+            @Valid @RequestBody StockReservationRequestDTO dto) {
+        StockReservationDTO response = reservationService.reserve(id, dto);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @GetMapping("/stock/reservations/{reservationId}")
+    @Operation(summary = "Récupérer une réservation de stock")
+    public ResponseEntity<StockReservationDTO> getReservation(@PathVariable Long reservationId) {
+        StockReservationDTO response = reservationService.getReservation(reservationId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/stock/reservations/{reservationId}/commit")
+    @Operation(summary = "Valider une réservation de stock")
+    public ResponseEntity<StockReservationDTO> commit(@PathVariable Long reservationId) {
+        StockReservationDTO response = reservationService.commit(reservationId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/stock/reservations/{reservationId}/release")
+    @Operation(summary = "Libérer une réservation de stock")
+    public ResponseEntity<StockReservationDTO> release(@PathVariable Long reservationId) {
+        StockReservationDTO response = reservationService.release(reservationId);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,23 @@
+package com.imad.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// DTO du résultat d'un lot de mise à jour en masse
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateChunkResultDTO {
+
+    private int chunk;
+    private int submitted;
+    private int updated;
+    // Identifiants (ID ou SKU) inconnus
+    private List<String> notFound;
+    // "identifiant: motif" des lignes refusées
+    private List<String> rejected;
+    // Erreur d'écriture qui a annulé le lot entier, null si le lot a été appliqué
+    private String error;
+}
@@ -0,0 +1,22 @@
+package com.imad.dto;
+
+import com.imad.enums.ChangeAggregateType;
+import com.imad.event.ChangeType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// DTO d'un changement du catalogue : uniquement l'identité de l'objet modifié,
+// le consommateur relit la ressource s'il en a besoin
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangeDTO {
+
+    private long seq;
+    private ChangeAggregateType aggregateType;
+    private Long aggregateId;
+    private ChangeType changeType;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,18 @@
+package com.imad.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// DTO pour une page du flux de changements (reprise depuis un offset)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangeFeedDTO {
+
+    private List<CatalogChangeDTO> changes;
+    // Offset à passer en paramètre "after" pour la page suivante
+    private long nextAfter;
+    private boolean hasMore;
+}
@@ -0,0 +1,18 @@
+package com.imad.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// DTO pour une page obtenue par curseur (pagination par clé, sans COUNT)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
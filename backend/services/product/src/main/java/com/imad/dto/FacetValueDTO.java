@@ -0,0 +1,15 @@
+package com.imad.dto;
+
+import lombok.*;
+
+// DTO d'une valeur de facette et de son nombre de produits
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValueDTO {
+
+    private String value;
+    private String label;
+    private long count;
+}
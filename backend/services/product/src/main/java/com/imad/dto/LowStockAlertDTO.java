@@ -0,0 +1,24 @@
+package com.imad.dto;
+
+import com.imad.enums.LowStockState;
+import com.imad.enums.ProductStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// DTO résumé d'une alerte de stock faible (flux paginé et événements SSE)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockAlertDTO {
+
+    private Long productId;
+    private String sku;
+    private String name;
+    private Integer stockQuantity;
+    private Integer lowStockThreshold;
+    private ProductStatus status;
+    private LowStockState state;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.imad.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// DTO d'une ligne de mise à jour en masse : produit désigné par ID ou par SKU,
+// les champs absents ne sont pas modifiés
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateItemDTO {
+
+    private Long id;
+
+    private String sku;
+
+    @Min(value = 0, message = "La quantité en stock ne peut pas être négative")
+    private Integer stockQuantity;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Le prix doit être supérieur à 0")
+    @Digits(integer = 8, fraction = 2, message = "Le prix doit avoir au maximum 8 chiffres entiers et 2 décimales")
+    private BigDecimal price;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Le prix réduit doit être supérieur à 0")
+    @Digits(integer = 8, fraction = 2, message = "Le prix réduit doit avoir au maximum 8 chiffres entiers et 2 décimales")
+    private BigDecimal discountPrice;
+}
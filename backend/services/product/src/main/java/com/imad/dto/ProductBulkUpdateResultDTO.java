@@ -0,0 +1,20 @@
+package com.imad.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// DTO pour le compte rendu d'une mise à jour en masse
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateResultDTO {
+
+    private int submitted;
+    private int updated;
+    private int notFound;
+    private int rejected;
+    private List<BulkUpdateChunkResultDTO> chunks;
+    private long durationMs;
+}
@@ -0,0 +1,37 @@
+package com.imad.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.imad.enums.ProductStatus;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// DTO d'une ligne de l'export du catalogue (l'ordre fixe les colonnes CSV)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonPropertyOrder({"id", "sku", "name", "description", "price", "discountPrice", "stockQuantity", "status",
+        "categoryId", "categoryName", "brand", "supplier", "rating", "reviewCount", "images", "createdAt", "updatedAt"})
+public class ProductExportDTO {
+
+    private Long id;
+    private String sku;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private BigDecimal discountPrice;
+    private Integer stockQuantity;
+    private ProductStatus status;
+    private Long categoryId;
+    private String categoryName;
+    private String brand;
+    private String supplier;
+    private BigDecimal rating;
+    private Integer reviewCount;
+    private List<String> images;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.imad.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// DTO des facettes de navigation pour un ensemble de filtres
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetsDTO {
+
+    private long total;
+    private List<FacetValueDTO> categories;
+    private List<FacetValueDTO> brands;
+    private List<FacetValueDTO> statuses;
+    private List<FacetValueDTO> priceRanges;
+    private List<FacetValueDTO> ratingBands;
+}
@@ -0,0 +1,23 @@
+package com.imad.dto;
+
+import com.imad.enums.ProductStatus;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// DTO des critères de filtrage ; un critère null ou vide est ignoré
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterDTO {
+
+    private List<Long> categoryIds;
+    private ProductStatus status;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private List<String> brands;
+    private BigDecimal minRating;
+    private BigDecimal maxRating;
+}
@@ -0,0 +1,15 @@
+package com.imad.dto;
+
+import lombok.*;
+
+// DTO décrivant une ligne rejetée lors d'un import
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportErrorDTO {
+
+    private long line;
+    private String sku;
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.imad.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// DTO pour le compte rendu d'un import de produits
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDTO {
+
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<ProductImportErrorDTO> errors;
+    private boolean errorsTruncated;
+    private long durationMs;
+}
@@ -0,0 +1,21 @@
+package com.imad.dto;
+
+import com.imad.enums.ReservationStatus;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// DTO pour la réponse d'une réservation de stock
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationDTO {
+
+    private Long id;
+    private Long productId;
+    private Integer quantity;
+    private ReservationStatus status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+}
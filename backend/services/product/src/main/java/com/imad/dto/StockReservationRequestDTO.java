@@ -0,0 +1,22 @@
+package com.imad.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+// DTO pour la demande de réservation de stock
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequestDTO {
+
+    @NotNull(message = "La quantité est obligatoire")
+    @Min(value = 1, message = "La quantité doit être au moins 1")
+    private Integer quantity;
+
+    @Min(value = 1, message = "La durée de réservation doit être d'au moins 1 seconde")
+    @Max(value = 3600, message = "La durée de réservation ne peut pas dépasser 3600 secondes")
+    private Integer ttlSeconds;
+}
@@ -45,10 +45,4 @@ public class Category {
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime updatedAt;
-
-    // Méthode utilitaire pour compter les produits
-    @Transient
-    public int getProductCount() {
-        return products != null ? products.size() : 0;
-    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ package com.imad.entity;
 import com.imad.enums.ProductStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,6 +16,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
+@NamedEntityGraph(name = Product.SUMMARY_GRAPH, attributeNodes = @NamedAttributeNode("category"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +24,10 @@ import java.util.List;
 @Builder
 public class Product {
 
+    // Plan de chargement des listes : catégorie jointe dans la requête de page,
+    // images chargées par lot (@BatchSize) pour éviter le N+1
+    public static final String SUMMARY_GRAPH = "Product.summary";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -65,6 +71,7 @@ public class Product {
     private String supplier;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "image_url", length = 500)
     @Builder.Default
@@ -0,0 +1,6 @@
+package com.imad.enums;
+
+public enum ChangeAggregateType {
+    PRODUCT,
+    CATEGORY
+}
@@ -0,0 +1,7 @@
+package com.imad.enums;
+
+public enum LowStockState {
+    LOW,              // Stock inférieur ou égal au seuil du produit
+    OUT_OF_STOCK,     // Stock épuisé
+    RECOVERED         // Repassé au-dessus du seuil (événements uniquement)
+}
@@ -0,0 +1,8 @@
+package com.imad.enums;
+
+public enum ReservationStatus {
+    PENDING,          // Stock retenu, en attente de validation
+    COMMITTED,        // Réservation validée (commande confirmée)
+    RELEASED,         // Libérée explicitement, stock restitué
+    EXPIRED           // Expirée sans validation, stock restitué
+}
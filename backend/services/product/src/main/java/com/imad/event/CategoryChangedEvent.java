@@ -0,0 +1,15 @@
+package com.imad.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Événement publié par CategoryService après chaque écriture sur une catégorie
+@Getter
+@AllArgsConstructor
+@ToString
+public class CategoryChangedEvent {
+
+    private final ChangeType type;
+    private final Long categoryId;
+}
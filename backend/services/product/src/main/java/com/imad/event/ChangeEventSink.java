@@ -0,0 +1,13 @@
+package com.imad.event;
+
+import com.imad.dto.CatalogChangeDTO;
+
+import java.util.List;
+
+// Destination des changements du catalogue remis par le relais (broker, bus...).
+// Les lots arrivent dans l'ordre des seq. Livraison "au moins une fois" : un lot
+// peut être renvoyé si le relais échoue après l'envoi, d'où le dédoublonnage par seq.
+public interface ChangeEventSink {
+
+    void publish(List<CatalogChangeDTO> changes);
+}
@@ -0,0 +1,7 @@
+package com.imad.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,44 @@
+package com.imad.event;
+
+import com.imad.dto.CatalogChangeDTO;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Sink par défaut, sans broker : conserve les derniers changements en mémoire
+// (tests, développement local)
+public class InMemoryChangeEventSink implements ChangeEventSink {
+
+    private final int capacity;
+    private final Deque<CatalogChangeDTO> changes = new ArrayDeque<>();
+    private long lastSeq;
+
+    public InMemoryChangeEventSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<CatalogChangeDTO> batch) {
+        for (CatalogChangeDTO change : batch) {
+            // Lot renvoyé : les seq déjà reçus sont ignorés
+            if (change.getSeq() <= lastSeq) {
+                continue;
+            }
+            if (changes.size() == capacity) {
+                changes.removeFirst();
+            }
+            changes.addLast(change);
+            lastSeq = change.getSeq();
+        }
+    }
+
+    public synchronized long getLastSeq() {
+        return lastSeq;
+    }
+
+    public synchronized List<CatalogChangeDTO> getChanges() {
+        return new ArrayList<>(changes);
+    }
+}
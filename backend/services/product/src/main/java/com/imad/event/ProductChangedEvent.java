@@ -0,0 +1,38 @@
+package com.imad.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+import java.util.Set;
+
+// Événement publié par ProductService après chaque écriture sur un ou plusieurs produits
+@Getter
+@AllArgsConstructor
+@ToString
+public class ProductChangedEvent {
+
+    private final ChangeType type;
+    private final Set<Long> productIds;
+
+    public static ProductChangedEvent created(Long productId) {
+        return new ProductChangedEvent(ChangeType.CREATED, Set.of(productId));
+    }
+
+    public static ProductChangedEvent created(Collection<Long> productIds) {
+        return new ProductChangedEvent(ChangeType.CREATED, Set.copyOf(productIds));
+    }
+
+    public static ProductChangedEvent updated(Long productId) {
+        return new ProductChangedEvent(ChangeType.UPDATED, Set.of(productId));
+    }
+
+    public static ProductChangedEvent updated(Collection<Long> productIds) {
+        return new ProductChangedEvent(ChangeType.UPDATED, Set.copyOf(productIds));
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(ChangeType.DELETED, Set.of(productId));
+    }
+}
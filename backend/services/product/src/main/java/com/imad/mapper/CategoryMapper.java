@@ -18,7 +18,8 @@ public interface CategoryMapper {
     @Mapping(target = "active", defaultValue = "true")
     Category toEntity(CategoryCreateDTO dto);
 
-    @Mapping(source = "productCount", target = "productCount")
+    // Le nombre de produits est calculé par une requête de comptage groupée (CategoryService)
+    @Mapping(target = "productCount", ignore = true)
     CategoryResponseDTO toResponseDTO(Category category);
 
     CategorySummaryDTO toSummaryDTO(Category category);
@@ -0,0 +1,11 @@
+package com.imad.mapper;
+
+import com.imad.dto.StockReservationDTO;
+import com.imad.entity.StockReservation;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface StockReservationMapper {
+
+    StockReservationDTO toDTO(StockReservation reservation);
+}
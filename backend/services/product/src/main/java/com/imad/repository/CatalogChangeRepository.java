@@ -0,0 +1,109 @@
+package com.imad.repository;
+
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.enums.ChangeAggregateType;
+import com.imad.event.ChangeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Accès JDBC à l'outbox des changements du catalogue (table catalog_changes)
+@Repository
+@RequiredArgsConstructor
+public class CatalogChangeRepository {
+
+    // Une seule instruction quel que soit le nombre d'objets modifiés
+    private static final String APPEND =
+            "INSERT INTO catalog_changes (aggregate_type, aggregate_id, change_type) " +
+            "SELECT ?, unnest(?::bigint[]), ?";
+
+    // Numérotation dans l'ordre des ID, à la suite du compteur catalog_change_counter
+    // (jamais purgé, contrairement aux lignes). Les lignes de transactions encore ouvertes
+    // sont invisibles ici : elles recevront un seq plus grand au passage suivant, le flux
+    // reste donc croissant et sans trou. Appelé uniquement sous le verrou du relais (lockRelay).
+    private static final String ASSIGN_SEQUENCE =
+            "WITH pending AS (" +
+            "    SELECT id, row_number() OVER (ORDER BY id) AS rn " +
+            "    FROM (SELECT id FROM catalog_changes WHERE seq IS NULL ORDER BY id LIMIT ?) p), " +
+            "counter AS (" +
+            "    UPDATE catalog_change_counter SET last_seq = last_seq + (SELECT count(*) FROM pending) " +
+            "    RETURNING last_seq - (SELECT count(*) FROM pending) AS base) " +
+            "UPDATE catalog_changes c SET seq = counter.base + pending.rn " +
+            "FROM pending, counter WHERE c.id = pending.id";
+
+    private static final String FIND_AFTER =
+            "SELECT seq, aggregate_type, aggregate_id, change_type, created_at FROM catalog_changes " +
+            "WHERE seq > ? ORDER BY seq LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(ChangeAggregateType aggregateType, Collection<Long> aggregateIds, ChangeType changeType) {
+        if (aggregateIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(APPEND, ps -> {
+            ps.setString(1, aggregateType.name());
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", aggregateIds.toArray()));
+            ps.setString(3, changeType.name());
+        });
+    }
+
+    // Verrouille la ligne du relais pour la transaction en cours et retourne son dernier seq remis ;
+    // vide si une autre instance détient déjà le verrou
+    public Optional<Long> lockRelay(String relayName) {
+        List<Long> lastSeq = jdbcTemplate.queryForList(
+                "SELECT last_seq FROM catalog_change_relays WHERE name = ? FOR UPDATE SKIP LOCKED",
+                Long.class, relayName);
+        return lastSeq.stream().findFirst();
+    }
+
+    public void saveRelayPosition(String relayName, long lastSeq) {
+        jdbcTemplate.update("UPDATE catalog_change_relays SET last_seq = ?, updated_at = CURRENT_TIMESTAMP WHERE name = ?",
+                lastSeq, relayName);
+    }
+
+    public int assignSequence(int limit) {
+        return jdbcTemplate.update(ASSIGN_SEQUENCE, limit);
+    }
+
+    public List<CatalogChangeDTO> findAfter(long afterSeq, int limit) {
+        return jdbcTemplate.query(FIND_AFTER, (rs, rowNum) -> toDTO(rs), afterSeq, limit);
+    }
+
+    // Dernier seq attribué, y compris à des changements déjà purgés
+    public long lastSequence() {
+        Long seq = jdbcTemplate.queryForObject("SELECT last_seq FROM catalog_change_counter", Long.class);
+        return seq != null ? seq : 0;
+    }
+
+    public long countUnsequenced() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM catalog_changes WHERE seq IS NULL", Long.class);
+        return count != null ? count : 0;
+    }
+
+    // Purge des changements déjà remis par le relais et plus anciens que la rétention
+    public int deleteDeliveredBefore(String relayName, LocalDateTime before) {
+        return jdbcTemplate.update(
+                "DELETE FROM catalog_changes WHERE created_at < ? " +
+                "AND seq <= (SELECT last_seq FROM catalog_change_relays WHERE name = ?)",
+                Timestamp.valueOf(before), relayName);
+    }
+
+    private static CatalogChangeDTO toDTO(ResultSet rs) throws SQLException {
+        return CatalogChangeDTO.builder()
+                .seq(rs.getLong("seq"))
+                .aggregateType(ChangeAggregateType.valueOf(rs.getString("aggregate_type")))
+                .aggregateId(rs.getLong("aggregate_id"))
+                .changeType(ChangeType.valueOf(rs.getString("change_type")))
+                .occurredAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .build();
+    }
+}
@@ -0,0 +1,9 @@
+package com.imad.repository;
+
+// Projection du comptage groupé des produits par catégorie
+public interface CategoryProductCount {
+
+    Long getCategoryId();
+
+    Long getProductCount();
+}
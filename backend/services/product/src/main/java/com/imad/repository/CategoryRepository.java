@@ -4,8 +4,12 @@ package com.imad.repository;
 
 
 import com.imad.entity.Category;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -26,6 +30,11 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     Page<Category> findByActive(Boolean active, Pageable pageable);
 
+    Window<Category> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT c.id FROM Category c")
+    List<Long> findAllIds();
+
     @Query("SELECT c FROM Category c LEFT JOIN FETCH c.products WHERE c.id = :id")
     Optional<Category> findByIdWithProducts(Long id);
 
@@ -0,0 +1,21 @@
+package com.imad.repository;
+
+import com.imad.enums.ProductStatus;
+
+import java.math.BigDecimal;
+
+// Projection légère des attributs utilisés par l'index de facettes
+public interface ProductFacetRow {
+
+    Long getId();
+
+    Long getCategoryId();
+
+    String getBrand();
+
+    ProductStatus getStatus();
+
+    BigDecimal getPrice();
+
+    BigDecimal getRating();
+}
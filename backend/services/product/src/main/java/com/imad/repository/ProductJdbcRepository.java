@@ -0,0 +1,227 @@
+package com.imad.repository;
+
+import com.imad.dto.ProductBulkUpdateItemDTO;
+import com.imad.dto.ProductCreateDTO;
+import com.imad.dto.ProductExportDTO;
+import com.imad.enums.ProductStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Accès JDBC direct pour les traitements de masse (import, mises à jour par lot).
+// GenerationType.IDENTITY empêche Hibernate de regrouper les INSERT : on écrit
+// ici des instructions multi-lignes avec RETURNING pour récupérer les IDs.
+@Repository
+@RequiredArgsConstructor
+public class ProductJdbcRepository {
+
+    private static final String INSERT_PRODUCTS_PREFIX =
+            "INSERT INTO products (name, sku, description, price, discount_price, stock_quantity, " +
+            "low_stock_threshold, status, category_id, brand, supplier, review_count) VALUES ";
+
+    private static final String INSERT_PRODUCT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // Les SKU déjà présents (import concurrent) sont ignorés et absents du RETURNING
+    private static final String INSERT_PRODUCTS_SUFFIX = " ON CONFLICT (sku) DO NOTHING RETURNING id, sku";
+
+    // Mise à jour ensembliste : un UPDATE ... FROM (VALUES ...) par lot.
+    // Le statut suit la même règle que ProductRepository.setStock, et la ligne n'est
+    // modifiée que si le prix réduit résultant reste inférieur au prix résultant.
+    private static final String UPDATE_STOCK_AND_PRICE =
+            "UPDATE products p SET " +
+            "stock_quantity = COALESCE(v.stock_quantity, p.stock_quantity), " +
+            "price = COALESCE(v.price, p.price), " +
+            "discount_price = COALESCE(v.discount_price, p.discount_price), " +
+            "status = CASE " +
+            "WHEN v.stock_quantity = 0 AND p.status = 'ACTIVE' THEN 'OUT_OF_STOCK' " +
+            "WHEN v.stock_quantity > 0 AND p.status = 'OUT_OF_STOCK' THEN 'ACTIVE' " +
+            "ELSE p.status END " +
+            "FROM (VALUES %s) AS v(key, stock_quantity, price, discount_price) " +
+            "WHERE p.%s = v.key " +
+            "AND (COALESCE(v.discount_price, p.discount_price) IS NULL " +
+            "OR COALESCE(v.discount_price, p.discount_price) < COALESCE(v.price, p.price)) " +
+            "RETURNING p.id, p.sku";
+
+    private static final String EXPORT_QUERY =
+            "SELECT p.id, p.sku, p.name, p.description, p.price, p.discount_price, p.stock_quantity, p.status, " +
+            "p.category_id, c.name AS category_name, p.brand, p.supplier, p.rating, p.review_count, " +
+            "(SELECT array_agg(i.image_url) FROM product_images i WHERE i.product_id = p.id) AS images, " +
+            "p.created_at, p.updated_at " +
+            "FROM products p LEFT JOIN categories c ON c.id = p.category_id ";
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Set<String> findExistingSkus(Collection<String> skus) {
+        Set<String> existing = new HashSet<>();
+        if (skus.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query("SELECT sku FROM products WHERE sku = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", skus.toArray())),
+                rs -> {
+                    existing.add(rs.getString(1));
+                });
+        return existing;
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query("SELECT id FROM products WHERE id = ANY(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                rs -> {
+                    existing.add(rs.getLong(1));
+                });
+        return existing;
+    }
+
+    // Retourne ID -> SKU des produits modifiés ; bySku choisit la colonne de jointure
+    public Map<Long, String> updateStockAndPrice(List<ProductBulkUpdateItemDTO> items, boolean bySku) {
+        Map<Long, String> updated = new HashMap<>();
+        if (items.isEmpty()) {
+            return updated;
+        }
+        String row = bySku
+                ? "(?::varchar, ?::integer, ?::numeric, ?::numeric)"
+                : "(?::bigint, ?::integer, ?::numeric, ?::numeric)";
+        String sql = String.format(UPDATE_STOCK_AND_PRICE,
+                String.join(", ", Collections.nCopies(items.size(), row)),
+                bySku ? "sku" : "id");
+
+        jdbcTemplate.query(sql, ps -> {
+            int index = 1;
+            for (ProductBulkUpdateItemDTO item : items) {
+                if (bySku) {
+                    ps.setString(index++, item.getSku());
+                } else {
+                    ps.setLong(index++, item.getId());
+                }
+                if (item.getStockQuantity() != null) {
+                    ps.setInt(index++, item.getStockQuantity());
+                } else {
+                    ps.setNull(index++, Types.INTEGER);
+                }
+                ps.setBigDecimal(index++, item.getPrice());
+                ps.setBigDecimal(index++, item.getDiscountPrice());
+            }
+        }, rs -> {
+            updated.put(rs.getLong("id"), rs.getString("sku"));
+        });
+        return updated;
+    }
+
+    // Retourne SKU -> ID des produits réellement insérés
+    public Map<String, Long> insertProducts(List<ProductCreateDTO> products) {
+        Map<String, Long> inserted = new HashMap<>();
+        if (products.isEmpty()) {
+            return inserted;
+        }
+        String sql = INSERT_PRODUCTS_PREFIX
+                + String.join(", ", Collections.nCopies(products.size(), INSERT_PRODUCT_ROW))
+                + INSERT_PRODUCTS_SUFFIX;
+
+        jdbcTemplate.query(sql, ps -> {
+            int index = 1;
+            for (ProductCreateDTO product : products) {
+                index = bindProduct(ps, index, product);
+            }
+        }, rs -> {
+            inserted.put(rs.getString("sku"), rs.getLong("id"));
+        });
+        return inserted;
+    }
+
+    public void insertImages(Map<Long, List<String>> imagesByProductId) {
+        List<Object[]> rows = imagesByProductId.entrySet().stream()
+                .flatMap(entry -> entry.getValue().stream()
+                        .map(url -> new Object[]{entry.getKey(), url}))
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO product_images (product_id, image_url) VALUES (?, ?)", rows);
+        }
+    }
+
+    public Optional<LocalDateTime> findLastModified() {
+        Timestamp lastModified = jdbcTemplate.queryForObject("SELECT max(updated_at) FROM products", Timestamp.class);
+        return Optional.ofNullable(lastModified).map(Timestamp::toLocalDateTime);
+    }
+
+    // Curseur serveur : avec l'autocommit désactivé (transaction en cours), le driver PostgreSQL
+    // ne ramène que EXPORT_FETCH_SIZE lignes à la fois, quelle que soit la taille du catalogue
+    public void streamForExport(LocalDateTime modifiedSince, Consumer<ProductExportDTO> consumer) {
+        String sql = EXPORT_QUERY + (modifiedSince != null ? "WHERE p.updated_at >= ? " : "") + "ORDER BY p.id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            if (modifiedSince != null) {
+                ps.setTimestamp(1, Timestamp.valueOf(modifiedSince));
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(toExportDTO(rs));
+        });
+    }
+
+    private static ProductExportDTO toExportDTO(ResultSet rs) throws SQLException {
+        Array images = rs.getArray("images");
+        return ProductExportDTO.builder()
+                .id(rs.getLong("id"))
+                .sku(rs.getString("sku"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .price(rs.getBigDecimal("price"))
+                .discountPrice(rs.getBigDecimal("discount_price"))
+                .stockQuantity(rs.getInt("stock_quantity"))
+                .status(ProductStatus.valueOf(rs.getString("status")))
+                .categoryId(rs.getObject("category_id", Long.class))
+                .categoryName(rs.getString("category_name"))
+                .brand(rs.getString("brand"))
+                .supplier(rs.getString("supplier"))
+                .rating(rs.getBigDecimal("rating"))
+                .reviewCount(rs.getObject("review_count", Integer.class))
+                .images(images != null ? List.of((String[]) images.getArray()) : List.of())
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+                .build();
+    }
+
+    private static int bindProduct(PreparedStatement ps, int index, ProductCreateDTO product) throws SQLException {
+        ps.setString(index++, product.getName());
+        ps.setString(index++, product.getSku());
+        ps.setString(index++, product.getDescription());
+        ps.setBigDecimal(index++, product.getPrice());
+        ps.setBigDecimal(index++, product.getDiscountPrice());
+        ps.setInt(index++, product.getStockQuantity());
+        ps.setInt(index++, product.getLowStockThreshold() != null ? product.getLowStockThreshold() : 10);
+        ps.setString(index++, (product.getStatus() != null ? product.getStatus() : ProductStatus.ACTIVE).name());
+        if (product.getCategoryId() != null) {
+            ps.setLong(index++, product.getCategoryId());
+        } else {
+            ps.setNull(index++, Types.BIGINT);
+        }
+        ps.setString(index++, product.getBrand());
+        ps.setString(index++, product.getSupplier());
+        return index;
+    }
+}
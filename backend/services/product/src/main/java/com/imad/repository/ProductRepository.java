@@ -2,19 +2,34 @@ package com.imad.repository;
 
 import com.imad.entity.Product;
 import com.imad.enums.ProductStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     Optional<Product> findBySku(String sku);
 
@@ -22,35 +37,127 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     boolean existsBySkuAndIdNot(String sku, Long id);
 
+    // Requêtes de liste : elles utilisent le graphe Product.SUMMARY_GRAPH afin que
+    // le mapping vers ProductSummaryDTO ne déclenche pas de requête par ligne
+    @EntityGraph(Product.SUMMARY_GRAPH)
+    @Query("SELECT p FROM Product p")
+    Page<Product> findAllForSummary(Pageable pageable);
+
+    // Pagination par clé : pas de COUNT ni d'OFFSET, coût constant quelle que soit la profondeur
+    @EntityGraph(Product.SUMMARY_GRAPH)
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(Product.SUMMARY_GRAPH)
     Page<Product> findByStatus(ProductStatus status, Pageable pageable);
 
+    @EntityGraph(Product.SUMMARY_GRAPH)
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
     List<Product> findByStockQuantityLessThanEqualAndStatus(Integer threshold, ProductStatus status);
 
-    @Query("SELECT p FROM Product p WHERE " +
-            "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(p.sku) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
-
-    @Query("SELECT p FROM Product p WHERE " +
-            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
-            "(:status IS NULL OR p.status = :status) AND " +
-            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-            "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
-            "(:brand IS NULL OR LOWER(p.brand) = LOWER(:brand))")
-    Page<Product> filterProducts(
-            @Param("categoryId") Long categoryId,
-            @Param("status") ProductStatus status,
-            @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            @Param("brand") String brand,
-            Pageable pageable
-    );
-
-    @Query("SELECT DISTINCT p.brand FROM Product p WHERE p.brand IS NOT NULL ORDER BY p.brand")
-    List<String> findAllBrands();
+    // Recherche plein texte (V3__product_search.sql) : SKU exact, préfixe de chaque terme
+    // sur search_vector ou similarité trigramme sur le nom, triés par pertinence.
+    // Les termes sont découpés par le parseur PostgreSQL pour correspondre à search_vector.
+    // Seuls les IDs sont paginés ici, les entités sont chargées ensuite par findByIdIn.
+    // Sans lexème dans le mot-clé (ponctuation seule), q.query et donc le rang sont NULL : NULLS LAST.
+    String SEARCH_QUERY_SOURCE = "FROM products p, " +
+            "(SELECT to_tsquery('simple', string_agg(quote_literal(t.lexeme) || ':*', ' & ')) AS query " +
+            "FROM unnest(to_tsvector('simple', :keyword)) t) q " +
+            "WHERE p.search_vector @@ q.query " +
+            "OR lower(:keyword) <% lower(p.name) " +
+            "OR p.sku = :keyword ";
+
+    @Query(value = "SELECT p.id " + SEARCH_QUERY_SOURCE +
+            "ORDER BY (p.sku = :keyword) DESC, ts_rank_cd(p.search_vector, q.query) DESC NULLS LAST, " +
+            "word_similarity(lower(:keyword), lower(p.name)) DESC, p.id",
+            countQuery = "SELECT count(*) " + SEARCH_QUERY_SOURCE,
+            nativeQuery = true)
+    Page<Long> searchProductIds(@Param("keyword") String keyword, Pageable pageable);
+
+    @EntityGraph(Product.SUMMARY_GRAPH)
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    // Filtrage dynamique (ProductSpecifications), avec le même plan de chargement que les listes
+    @Override
+    @EntityGraph(Product.SUMMARY_GRAPH)
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
 
     long countByCategoryId(Long categoryId);
-}
\ No newline at end of file
+
+    // Chargement de l'index de facettes (ProductFacetIndex)
+    @Query("SELECT p.id AS id, p.category.id AS categoryId, p.brand AS brand, " +
+            "p.status AS status, p.price AS price, p.rating AS rating FROM Product p")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProductFacetRow> streamAllFacetRows();
+
+    @Query("SELECT p.id AS id, p.category.id AS categoryId, p.brand AS brand, " +
+            "p.status AS status, p.price AS price, p.rating AS rating FROM Product p WHERE p.id IN :ids")
+    List<ProductFacetRow> findFacetRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.category.id AS categoryId, COUNT(p) AS productCount FROM Product p " +
+            "WHERE p.category.id IN :categoryIds GROUP BY p.category.id")
+    List<CategoryProductCount> countByCategoryIds(@Param("categoryIds") Collection<Long> categoryIds);
+
+    // Stock faible : prédicat identique à celui de l'index partiel idx_products_low_stock
+    String LOW_STOCK_CONDITION = "p.stockQuantity <= p.lowStockThreshold " +
+            "AND p.status IN (com.imad.enums.ProductStatus.ACTIVE, com.imad.enums.ProductStatus.OUT_OF_STOCK)";
+
+    @Query(value = "SELECT p.id AS id, p.sku AS sku, p.name AS name, p.stockQuantity AS stockQuantity, " +
+            "p.lowStockThreshold AS lowStockThreshold, p.status AS status, p.updatedAt AS updatedAt " +
+            "FROM Product p WHERE " + LOW_STOCK_CONDITION + " ORDER BY p.stockQuantity, p.id",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE " + LOW_STOCK_CONDITION)
+    Page<ProductStockLevelRow> findLowStockLevels(Pageable pageable);
+
+    // Même ordre, page suivante par clé (stock, id) : pas de comptage ni d'OFFSET
+    @Query("SELECT p.id AS id, p.sku AS sku, p.name AS name, p.stockQuantity AS stockQuantity, " +
+            "p.lowStockThreshold AS lowStockThreshold, p.status AS status, p.updatedAt AS updatedAt " +
+            "FROM Product p WHERE " + LOW_STOCK_CONDITION + " AND (p.stockQuantity > :afterStock " +
+            "OR (p.stockQuantity = :afterStock AND p.id > :afterId)) ORDER BY p.stockQuantity, p.id")
+    List<ProductStockLevelRow> findLowStockLevelsAfter(@Param("afterStock") int afterStock,
+                                                       @Param("afterId") long afterId,
+                                                       Pageable limit);
+
+    @Query("SELECT p.id AS id, p.sku AS sku, p.name AS name, p.stockQuantity AS stockQuantity, " +
+            "p.lowStockThreshold AS lowStockThreshold, p.status AS status, p.updatedAt AS updatedAt " +
+            "FROM Product p WHERE p.id IN :ids")
+    List<ProductStockLevelRow> findStockLevelsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Mises à jour atomiques du stock : une seule instruction UPDATE, sans lecture préalable.
+    // Le statut bascule ACTIVE <-> OUT_OF_STOCK dans la même instruction.
+
+    // Aucune ligne modifiée si le produit n'est pas ACTIVE ou si le stock est insuffisant
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, " +
+            "p.status = CASE WHEN p.stockQuantity = :quantity THEN :outOfStock ELSE p.status END " +
+            "WHERE p.id = :id AND p.status = :active AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id,
+                       @Param("quantity") int quantity,
+                       @Param("active") ProductStatus active,
+                       @Param("outOfStock") ProductStatus outOfStock);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, " +
+            "p.status = CASE WHEN p.status = :outOfStock THEN :active ELSE p.status END " +
+            "WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id,
+                       @Param("quantity") int quantity,
+                       @Param("active") ProductStatus active,
+                       @Param("outOfStock") ProductStatus outOfStock);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = :quantity, " +
+            "p.status = CASE " +
+            "WHEN :quantity = 0 AND p.status = :active THEN :outOfStock " +
+            "WHEN :quantity > 0 AND p.status = :outOfStock THEN :active " +
+            "ELSE p.status END " +
+            "WHERE p.id = :id")
+    int setStock(@Param("id") Long id,
+                 @Param("quantity") int quantity,
+                 @Param("active") ProductStatus active,
+                 @Param("outOfStock") ProductStatus outOfStock);
+
+    // Verrou de ligne pour les allocations par lot du tampon de ventes flash
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+}
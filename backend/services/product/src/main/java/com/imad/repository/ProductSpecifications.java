@@ -0,0 +1,54 @@
+package com.imad.repository;
+
+import com.imad.dto.ProductFilterDTO;
+import com.imad.entity.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+// Construction dynamique des filtres produits : seuls les critères renseignés
+// génèrent un prédicat, ce qui donne une requête SQL stable par combinaison de
+// filtres que PostgreSQL peut planifier sur l'index adapté
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilterDTO filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+                predicates.add(root.get("category").get("id").in(filter.getCategoryIds()));
+            }
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getBrands() != null && !filter.getBrands().isEmpty()) {
+                // Correspond à l'index fonctionnel idx_products_lower_brand
+                List<String> brands = filter.getBrands().stream()
+                        .map(brand -> brand.toLowerCase(Locale.ROOT))
+                        .collect(Collectors.toList());
+                predicates.add(cb.lower(root.get("brand")).in(brands));
+            }
+            if (filter.getMinRating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("rating"), filter.getMinRating()));
+            }
+            if (filter.getMaxRating() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("rating"), filter.getMaxRating()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.imad.repository;
+
+import com.imad.enums.ProductStatus;
+
+import java.time.LocalDateTime;
+
+// Projection légère du niveau de stock d'un produit (alertes de stock faible)
+public interface ProductStockLevelRow {
+
+    Long getId();
+
+    String getSku();
+
+    String getName();
+
+    Integer getStockQuantity();
+
+    Integer getLowStockThreshold();
+
+    ProductStatus getStatus();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,32 @@
+package com.imad.repository;
+
+import com.imad.entity.StockReservation;
+import com.imad.enums.ReservationStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Transition conditionnelle : une seule des requêtes concurrentes (validation,
+    // libération, expiration) modifie la ligne
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :target, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = :expected")
+    int transition(@Param("id") Long id,
+                   @Param("expected") ReservationStatus expected,
+                   @Param("target") ReservationStatus target,
+                   @Param("now") LocalDateTime now);
+
+    @Query("SELECT r.id FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now ORDER BY r.expiresAt")
+    List<Long> findIdsByStatusAndExpiresAtBefore(@Param("status") ReservationStatus status,
+                                                 @Param("now") LocalDateTime now,
+                                                 Limit limit);
+}
@@ -0,0 +1,115 @@
+package com.imad.service;
+
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.event.ChangeEventSink;
+import com.imad.repository.CatalogChangeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Relais de l'outbox : numérote les changements validés puis les remet au sink par lots.
+// Deux transactions courtes par lot :
+//  1. attribution des seq (validée avant tout envoi : un seq n'est jamais réattribué) ;
+//  2. lecture après la position du relais, envoi au sink, avancement de la position.
+// Si l'étape 2 échoue après l'envoi, le lot est renvoyé au tour suivant (au moins une fois).
+// La ligne du relais sert de verrou : une seule instance numérote et publie à la fois.
+@Component
+@Slf4j
+public class CatalogChangeRelay {
+
+    static final String RELAY_NAME = "default";
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final ChangeEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration retention;
+
+    private final AtomicLong lastPublishedSeq = new AtomicLong();
+    private final Counter publishedCounter;
+
+    public CatalogChangeRelay(CatalogChangeRepository catalogChangeRepository,
+                              ChangeEventSink sink,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${product.outbox.relay.batch-size:5000}") int batchSize,
+                              @Value("${product.outbox.relay.max-batches-per-run:100}") int maxBatchesPerRun,
+                              @Value("${product.outbox.retention:P7D}") Duration retention) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retention = retention;
+
+        this.publishedCounter = Counter.builder("catalog.changes.published")
+                .description("Changements du catalogue remis au sink")
+                .register(meterRegistry);
+        Gauge.builder("catalog.changes.last-published-seq", lastPublishedSeq, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("catalog.changes.pending", catalogChangeRepository, CatalogChangeRepository::countUnsequenced)
+                .description("Changements validés pas encore numérotés")
+                .register(meterRegistry);
+    }
+
+    // Vide l'outbox à chaque passage (dans la limite de maxBatchesPerRun lots) :
+    // le retard est borné par l'intervalle de planification plus le temps de remise
+    @Scheduled(fixedDelayString = "${product.outbox.relay.interval-ms:100}")
+    public void relay() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int sequenced = sequence();
+            int published = publish();
+            if (sequenced < batchSize && published < batchSize) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        int deleted = catalogChangeRepository.deleteDeliveredBefore(RELAY_NAME, LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("{} changement(s) du catalogue purgé(s) de l'outbox", deleted);
+        }
+    }
+
+    int sequence() {
+        Integer sequenced = transactionTemplate.execute(status -> catalogChangeRepository.lockRelay(RELAY_NAME)
+                .map(lastSeq -> catalogChangeRepository.assignSequence(batchSize))
+                .orElse(0));
+        return sequenced != null ? sequenced : 0;
+    }
+
+    int publish() {
+        Integer published = transactionTemplate.execute(status -> catalogChangeRepository.lockRelay(RELAY_NAME)
+                .map(lastSeq -> {
+                    List<CatalogChangeDTO> changes = catalogChangeRepository.findAfter(lastSeq, batchSize);
+                    if (changes.isEmpty()) {
+                        return 0;
+                    }
+                    sink.publish(changes);
+                    long newLastSeq = changes.get(changes.size() - 1).getSeq();
+                    catalogChangeRepository.saveRelayPosition(RELAY_NAME, newLastSeq);
+                    lastPublishedSeq.set(newLastSeq);
+                    return changes.size();
+                })
+                .orElse(0));
+        if (published != null && published > 0) {
+            publishedCounter.increment(published);
+            log.debug("{} changement(s) du catalogue remis au sink", published);
+        }
+        return published != null ? published : 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.imad.service;
+
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.dto.CatalogChangeFeedDTO;
+import com.imad.enums.ChangeAggregateType;
+import com.imad.event.CategoryChangedEvent;
+import com.imad.event.ProductChangedEvent;
+import com.imad.repository.CatalogChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+// Outbox des changements du catalogue.
+// Les événements ProductChangedEvent / CategoryChangedEvent sont publiés à l'intérieur
+// des transactions d'écriture : l'écouteur synchrone inscrit le changement dans
+// catalog_changes au sein de cette même transaction (rien n'est écrit en cas de rollback).
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class CatalogChangeService {
+
+    public static final int MAX_FEED_PAGE_SIZE = 5000;
+
+    private final CatalogChangeRepository catalogChangeRepository;
+
+    @EventListener
+    @Transactional
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogChangeRepository.append(ChangeAggregateType.PRODUCT, event.getProductIds(), event.getType());
+    }
+
+    @EventListener
+    @Transactional
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        catalogChangeRepository.append(ChangeAggregateType.CATEGORY, Set.of(event.getCategoryId()), event.getType());
+    }
+
+    public CatalogChangeFeedDTO getChanges(long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_FEED_PAGE_SIZE);
+        log.info("Récupération des changements du catalogue après seq {} (max {})", after, pageSize);
+
+        // Une ligne de plus pour savoir s'il reste des changements
+        List<CatalogChangeDTO> changes = catalogChangeRepository.findAfter(after, pageSize + 1);
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+        long nextAfter = changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq();
+
+        return CatalogChangeFeedDTO.builder()
+                .changes(changes)
+                .nextAfter(nextAfter)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -4,21 +4,33 @@ package com.imad.service;
 
 import com.imad.dto.*;
 import com.imad.entity.Category;
+import com.imad.event.CategoryChangedEvent;
+import com.imad.event.ChangeType;
 import com.imad.exception.DuplicateResourceException;
 import com.imad.exception.InvalidOperationException;
 import com.imad.exception.ResourceNotFoundException;
 import com.imad.mapper.CategoryMapper;
 import com.imad.mapper.ProductMapper;
+import com.imad.repository.CategoryProductCount;
 import com.imad.repository.CategoryRepository;
 import com.imad.repository.ProductRepository;
+import com.imad.util.KeysetCursorCodec;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,10 +38,18 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class CategoryService {
 
+    // Clés de tri autorisées pour la pagination par curseur (toutes indexées)
+    private static final Map<String, Function<String, Object>> CURSOR_KEYS = Map.of(
+            "id", Long::valueOf,
+            "name", name -> name
+    );
+
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final CategoryMapper categoryMapper;
     private final ProductMapper productMapper;
+    private final KeysetCursorCodec cursorCodec;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CategoryResponseDTO createCategory(CategoryCreateDTO dto) {
@@ -42,39 +62,72 @@ public class CategoryService {
 
         Category category = categoryMapper.toEntity(dto);
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.CREATED, savedCategory.getId()));
 
         log.info("Catégorie créée avec succès, ID: {}", savedCategory.getId());
-        return categoryMapper.toResponseDTO(savedCategory);
+        CategoryResponseDTO response = categoryMapper.toResponseDTO(savedCategory);
+        response.setProductCount(0);
+        return response;
     }
 
     public CategoryResponseDTO getCategoryById(Long id) {
         log.info("Récupération de la catégorie avec ID: {}", id);
         Category category = findCategoryById(id);
-        return categoryMapper.toResponseDTO(category);
+        return toResponseDTO(category);
     }
 
     public CategoryResponseDTO getCategoryByName(String name) {
         log.info("Récupération de la catégorie avec nom: {}", name);
         Category category = categoryRepository.findByName(name)
                 .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec le nom: " + name));
-        return categoryMapper.toResponseDTO(category);
+        return toResponseDTO(category);
     }
 
     public Page<CategoryResponseDTO> getAllCategories(Pageable pageable) {
         log.info("Récupération de toutes les catégories, page: {}", pageable.getPageNumber());
-        return categoryRepository.findAll(pageable)
-                .map(categoryMapper::toResponseDTO);
+        return toResponseDTOPage(categoryRepository.findAll(pageable));
+    }
+
+    public CursorPageDTO<CategoryResponseDTO> getCategoriesAfter(String after, String sortBy,
+                                                                 Sort.Direction direction, int size) {
+        log.info("Récupération des catégories par curseur, tri: {} {}", sortBy, direction);
+
+        if (size < 1) {
+            throw new InvalidOperationException("La taille de page doit être positive");
+        }
+
+        Sort sort;
+        ScrollPosition position;
+        if (after == null || after.isBlank()) {
+            if (!CURSOR_KEYS.containsKey(sortBy)) {
+                throw new InvalidOperationException("Tri par curseur non supporté sur: " + sortBy);
+            }
+            // Le nom est unique : pas besoin de départager par l'ID
+            sort = Sort.by(direction, sortBy);
+            position = ScrollPosition.keyset();
+        } else {
+            KeysetCursorCodec.Cursor cursor = cursorCodec.decode(after, CURSOR_KEYS);
+            sort = cursor.getSort();
+            position = cursor.getPosition();
+        }
+
+        Window<Category> window = categoryRepository.findAllBy(position, sort, Limit.of(size));
+        return CursorPageDTO.<CategoryResponseDTO>builder()
+                .content(toResponseDTOList(window.getContent()))
+                .size(window.size())
+                .hasNext(window.hasNext())
+                .nextCursor(window.hasNext() ? cursorCodec.encode(sort, window.positionAt(window.size() - 1)) : null)
+                .build();
     }
 
     public List<CategoryResponseDTO> getActiveCategories() {
         log.info("Récupération de toutes les catégories actives");
-        return categoryMapper.toResponseDTOList(categoryRepository.findByActiveTrue());
+        return toResponseDTOList(categoryRepository.findByActiveTrue());
     }
 
     public Page<CategoryResponseDTO> getCategoriesByStatus(Boolean active, Pageable pageable) {
         log.info("Récupération des catégories par statut actif: {}", active);
-        return categoryRepository.findByActive(active, pageable)
-                .map(categoryMapper::toResponseDTO);
+        return toResponseDTOPage(categoryRepository.findByActive(active, pageable));
     }
 
     public Page<ProductSummaryDTO> getProductsByCategory(Long categoryId, Pageable pageable) {
@@ -91,7 +144,7 @@ public class CategoryService {
 
     public List<CategoryResponseDTO> getCategoriesOrderedByProductCount() {
         log.info("Récupération des catégories triées par nombre de produits");
-        return categoryMapper.toResponseDTOList(categoryRepository.findAllOrderByProductCountDesc());
+        return toResponseDTOList(categoryRepository.findAllOrderByProductCountDesc());
     }
 
     @Transactional
@@ -109,9 +162,10 @@ public class CategoryService {
 
         categoryMapper.updateEntityFromDTO(dto, category);
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.UPDATED, id));
 
         log.info("Catégorie mise à jour avec succès, ID: {}", id);
-        return categoryMapper.toResponseDTO(updatedCategory);
+        return toResponseDTO(updatedCategory);
     }
 
     @Transactional
@@ -129,6 +183,7 @@ public class CategoryService {
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.DELETED, id));
         log.info("Catégorie supprimée avec succès, ID: {}", id);
     }
 
@@ -139,8 +194,9 @@ public class CategoryService {
         Category category = findCategoryById(id);
         category.setActive(!category.getActive());
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.UPDATED, id));
 
-        return categoryMapper.toResponseDTO(updatedCategory);
+        return toResponseDTO(updatedCategory);
     }
 
     public long getProductCountByCategory(Long categoryId) {
@@ -153,9 +209,43 @@ public class CategoryService {
         return productRepository.countByCategoryId(categoryId);
     }
 
-    // Méthode utilitaire privée
+    // Méthodes utilitaires privées
     private Category findCategoryById(Long id) {
         return categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec l'ID: " + id));
     }
+
+    private CategoryResponseDTO toResponseDTO(Category category) {
+        CategoryResponseDTO dto = categoryMapper.toResponseDTO(category);
+        dto.setProductCount((int) productRepository.countByCategoryId(category.getId()));
+        return dto;
+    }
+
+    // Une seule requête COUNT ... GROUP BY pour toute la liste, sans charger les produits
+    private List<CategoryResponseDTO> toResponseDTOList(List<Category> categories) {
+        Map<Long, Long> counts = countProductsByCategory(categories);
+        return categories.stream()
+                .map(category -> toResponseDTO(category, counts))
+                .collect(Collectors.toList());
+    }
+
+    private Page<CategoryResponseDTO> toResponseDTOPage(Page<Category> categories) {
+        Map<Long, Long> counts = countProductsByCategory(categories.getContent());
+        return categories.map(category -> toResponseDTO(category, counts));
+    }
+
+    private CategoryResponseDTO toResponseDTO(Category category, Map<Long, Long> counts) {
+        CategoryResponseDTO dto = categoryMapper.toResponseDTO(category);
+        dto.setProductCount(counts.getOrDefault(category.getId(), 0L).intValue());
+        return dto;
+    }
+
+    private Map<Long, Long> countProductsByCategory(List<Category> categories) {
+        if (categories.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = categories.stream().map(Category::getId).collect(Collectors.toList());
+        return productRepository.countByCategoryIds(ids).stream()
+                .collect(Collectors.toMap(CategoryProductCount::getCategoryId, CategoryProductCount::getProductCount));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,230 @@
+package com.imad.service;
+
+import com.imad.enums.ProductStatus;
+import com.imad.event.ProductChangedEvent;
+import com.imad.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Tampon de stock en mémoire pour les produits en vente flash.
+// Le stock est retiré de la base par lots (un UPDATE par lot au lieu d'un par réservation),
+// puis distribué par compare-and-set sur un compteur local. Le tampon ne peut jamais
+// distribuer plus que ce qui a été retiré : pas de survente, au pire une sous-vente
+// des unités en mémoire si l'instance s'arrête brutalement.
+@Component
+@Slf4j
+public class FlashSaleStockBuffer {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate allocationTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int blockSize;
+    private final long soldOutRecheckNanos;
+    private final Map<Long, Allocation> allocations = new ConcurrentHashMap<>();
+
+    public FlashSaleStockBuffer(ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${product.stock.flash-sale.block-size:100}") int blockSize,
+                                @Value("${product.stock.flash-sale.sold-out-recheck:PT1S}") Duration soldOutRecheck,
+                                @Value("${product.stock.flash-sale.product-ids:}") List<Long> productIds) {
+        this.productRepository = productRepository;
+        // Transaction propre : le verrou de ligne n'est tenu que le temps de l'allocation
+        this.allocationTransaction = new TransactionTemplate(transactionManager);
+        this.allocationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.blockSize = blockSize;
+        this.soldOutRecheckNanos = soldOutRecheck.toNanos();
+        productIds.forEach(this::enable);
+    }
+
+    public void enable(Long productId) {
+        allocations.putIfAbsent(productId, new Allocation(productId));
+    }
+
+    // Restitue en base les unités encore en mémoire
+    public void disable(Long productId) {
+        Allocation allocation = allocations.remove(productId);
+        if (allocation != null) {
+            allocation.flush();
+        }
+    }
+
+    public boolean isEnabled(Long productId) {
+        return allocations.containsKey(productId);
+    }
+
+    // false si le stock (mémoire + base) ne suffit pas
+    public boolean tryTake(Long productId, int quantity) {
+        Allocation allocation = allocations.get(productId);
+        if (allocation == null) {
+            throw new IllegalStateException("Produit " + productId + " absent du tampon de vente flash");
+        }
+        while (!allocation.tryTake(quantity)) {
+            if (!allocation.refill(quantity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Remise en mémoire d'unités prises par une transaction annulée
+    public void giveBack(Long productId, int quantity) {
+        Allocation allocation = allocations.get(productId);
+        if (allocation != null) {
+            allocation.available.addAndGet(quantity);
+        } else {
+            restore(productId, quantity);
+        }
+    }
+
+    // Stock absolu fixé en base (PATCH /stock, mise à jour en masse) : les unités en mémoire,
+    // retirées de l'ancien stock, sont abandonnées. À appeler dans la transaction qui a modifié
+    // la ligne, après l'UPDATE : son verrou bloque les allocations suivantes jusqu'au commit
+    // (elles partiront du nouveau stock), et une allocation déjà validée sur l'ancien stock
+    // mais pas encore versée au compteur est écartée grâce à la génération. Si la transaction
+    // est ensuite annulée, les unités abandonnées sont perdues pour la vente, jamais survendues.
+    public void discard(Long productId) {
+        Allocation allocation = allocations.get(productId);
+        if (allocation != null) {
+            int discarded = allocation.discard();
+            log.info("{} unité(s) du produit {} retirée(s) du tampon de vente flash (stock fixé en base)",
+                    discarded, productId);
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        allocations.keySet().forEach(this::disable);
+    }
+
+    private Grant allocate(Allocation allocation, int quantity) {
+        Long productId = allocation.productId;
+        Grant grant = allocationTransaction.execute(status -> productRepository.findByIdForUpdate(productId)
+                .map(product -> {
+                    // Lue sous le verrou de ligne : un discard() ultérieur la fait avancer
+                    long generation = allocation.generation();
+                    if (product.getStatus() != ProductStatus.ACTIVE) {
+                        return new Grant(0, generation);
+                    }
+                    int units = Math.min(quantity, product.getStockQuantity());
+                    product.setStockQuantity(product.getStockQuantity() - units);
+                    // Le produit reste ACTIVE tant que le tampon contient des unités :
+                    // il ne passe en rupture que lorsque la base ne peut plus rien fournir
+                    if (units == 0 && product.getStatus() == ProductStatus.ACTIVE) {
+                        product.setStatus(ProductStatus.OUT_OF_STOCK);
+                    }
+                    eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
+                    return new Grant(units, generation);
+                })
+                .orElse(new Grant(0, 0)));
+        log.debug("Allocation de {} unité(s) du produit {} au tampon de vente flash", grant.units(), productId);
+        return grant;
+    }
+
+    private void restore(Long productId, int quantity) {
+        if (quantity > 0) {
+            allocationTransaction.executeWithoutResult(status -> {
+                productRepository.incrementStock(productId, quantity, ProductStatus.ACTIVE, ProductStatus.OUT_OF_STOCK);
+                eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
+            });
+        }
+    }
+
+    private final class Allocation {
+
+        private final Long productId;
+        private final AtomicInteger available = new AtomicInteger();
+        private final ReentrantLock refillLock = new ReentrantLock();
+        // Avance à chaque discard() ; protégée par le moniteur de l'allocation
+        private long generation;
+        // Après une allocation vide, les demandes échouent en mémoire jusqu'à cette échéance
+        private volatile long soldOutUntil;
+
+        private Allocation(Long productId) {
+            this.productId = productId;
+        }
+
+        private boolean tryTake(int quantity) {
+            int current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        // Un seul thread recharge ; les autres attendent puis réessaient sur le compteur
+        private boolean refill(int quantity) {
+            if (isSoldOut()) {
+                return false;
+            }
+            refillLock.lock();
+            try {
+                if (available.get() >= quantity) {
+                    return true;
+                }
+                if (isSoldOut()) {
+                    return false;
+                }
+                Grant grant = allocate(this, Math.max(blockSize, quantity));
+                if (grant.units() == 0) {
+                    soldOutUntil = System.nanoTime() + soldOutRecheckNanos;
+                    return false;
+                }
+                // Allocation prise sur un stock remplacé entre-temps : abandonnée, nouvel essai
+                deposit(grant);
+                return true;
+            } finally {
+                refillLock.unlock();
+            }
+        }
+
+        private synchronized long generation() {
+            return generation;
+        }
+
+        private synchronized void deposit(Grant grant) {
+            if (grant.generation() == generation) {
+                available.addAndGet(grant.units());
+            }
+        }
+
+        private synchronized int discard() {
+            generation++;
+            soldOutUntil = 0;
+            return available.getAndSet(0);
+        }
+
+        private boolean isSoldOut() {
+            return soldOutUntil != 0 && System.nanoTime() - soldOutUntil < 0;
+        }
+
+        private void flush() {
+            refillLock.lock();
+            try {
+                restore(productId, available.getAndSet(0));
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+
+    private record Grant(int units, long generation) {
+    }
+}
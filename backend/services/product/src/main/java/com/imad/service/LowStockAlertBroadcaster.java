@@ -0,0 +1,73 @@
+package com.imad.service;
+
+import com.imad.dto.LowStockAlertDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Diffusion SSE des alertes de stock faible (tableau de bord entrepôt).
+// Les alertes viennent de LowStockMonitor, qui suit l'outbox : chaque instance les diffuse
+// à ses propres abonnés. Les envois passent par un thread dédié : un client lent ne bloque
+// jamais la lecture de l'outbox.
+@Component
+@Slf4j
+public class LowStockAlertBroadcaster {
+
+    private static final String EVENT_NAME = "low-stock";
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long timeoutMillis;
+
+    public LowStockAlertBroadcaster(@Value("${product.low-stock.stream-timeout:PT30M}") Duration timeout) {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(ex -> emitters.remove(emitter));
+        emitters.add(emitter);
+        log.info("Nouvel abonné au flux de stock faible ({} abonné(s))", emitters.size());
+        return emitter;
+    }
+
+    public void publish(LowStockAlertDTO alert) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        dispatcher.execute(() -> emitters.forEach(emitter -> send(emitter, alert)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    private void send(SseEmitter emitter, LowStockAlertDTO alert) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(alert));
+        } catch (IOException | IllegalStateException ex) {
+            // Client déconnecté
+            emitters.remove(emitter);
+            log.debug("Abonné au flux de stock faible retiré: {}", ex.getMessage());
+        }
+    }
+}
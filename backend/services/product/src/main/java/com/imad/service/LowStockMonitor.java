@@ -0,0 +1,159 @@
+package com.imad.service;
+
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.dto.LowStockAlertDTO;
+import com.imad.enums.ChangeAggregateType;
+import com.imad.enums.LowStockState;
+import com.imad.enums.ProductStatus;
+import com.imad.repository.CatalogChangeRepository;
+import com.imad.repository.ProductRepository;
+import com.imad.repository.ProductStockLevelRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Suivi du stock faible (règle de Product.isLowStock, seuil propre à chaque produit).
+// Chaque instance suit l'outbox catalog_changes, comme ProductCacheInvalidator : les écritures
+// de toutes les instances y figurent, chaque instance relit le niveau des produits modifiés
+// et publie à ses propres abonnés SSE les franchissements de seuil. L'état en mémoire n'est
+// qu'une copie de la base, chargée par pages sur l'index partiel au premier passage.
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class LowStockMonitor {
+
+    private final ProductRepository productRepository;
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final LowStockAlertBroadcaster broadcaster;
+    private final int batchSize;
+
+    private final Map<Long, LowStockState> states = new ConcurrentHashMap<>();
+
+    // Dernier seq appliqué ; négatif tant que l'état initial n'est pas chargé
+    private volatile long position = -1;
+
+    public LowStockMonitor(ProductRepository productRepository,
+                           CatalogChangeRepository catalogChangeRepository,
+                           LowStockAlertBroadcaster broadcaster,
+                           @Value("${product.low-stock.batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.broadcaster = broadcaster;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${product.low-stock.poll-interval-ms:500}")
+    public void poll() {
+        try {
+            if (position < 0) {
+                // Position lue avant l'état : un changement pendant le chargement est rejoué,
+                // et ne produit une alerte que s'il modifie l'état chargé
+                long start = catalogChangeRepository.lastSequence();
+                load();
+                position = start;
+                return;
+            }
+            List<CatalogChangeDTO> changes;
+            do {
+                changes = catalogChangeRepository.findAfter(position, batchSize);
+                apply(changes);
+                if (!changes.isEmpty()) {
+                    position = changes.get(changes.size() - 1).getSeq();
+                }
+            } while (changes.size() == batchSize);
+        } catch (DataAccessException ex) {
+            // Nouvel essai au passage suivant, à partir de la même position
+            log.warn("Suivi du stock faible interrompu après seq {}: {}",
+                    position, ex.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // Pagination par clé sur (stock_quantity, id), l'ordre de idx_products_low_stock :
+    // un produit qui sort de la liste pendant le chargement ne décale pas les pages suivantes
+    void load() {
+        states.clear();
+        int afterStock = Integer.MIN_VALUE;
+        long afterId = 0;
+        List<ProductStockLevelRow> rows;
+        do {
+            rows = productRepository.findLowStockLevelsAfter(afterStock, afterId, PageRequest.ofSize(batchSize));
+            for (ProductStockLevelRow row : rows) {
+                states.put(row.getId(), stateOf(row));
+            }
+            if (!rows.isEmpty()) {
+                ProductStockLevelRow last = rows.get(rows.size() - 1);
+                afterStock = last.getStockQuantity();
+                afterId = last.getId();
+            }
+        } while (rows.size() == batchSize);
+        log.info("Suivi du stock faible initialisé: {} produit(s) sous leur seuil", states.size());
+    }
+
+    public Page<LowStockAlertDTO> getAlerts(Pageable pageable) {
+        log.info("Récupération des alertes de stock faible (page {})", pageable.getPageNumber());
+        return productRepository.findLowStockLevels(pageable)
+                .map(row -> toAlert(row, stateOf(row)));
+    }
+
+    // Méthodes utilitaires privées
+
+    private void apply(List<CatalogChangeDTO> changes) {
+        Set<Long> productIds = changes.stream()
+                .filter(change -> change.getAggregateType() == ChangeAggregateType.PRODUCT)
+                .map(CatalogChangeDTO::getAggregateId)
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        List<LowStockAlertDTO> alerts = new ArrayList<>();
+        Set<Long> deleted = new HashSet<>(productIds);
+        for (ProductStockLevelRow row : productRepository.findStockLevelsByIdIn(productIds)) {
+            deleted.remove(row.getId());
+            LowStockState next = stateOf(row);
+            LowStockState previous = next != null ? states.put(row.getId(), next) : states.remove(row.getId());
+            if (next != previous) {
+                alerts.add(toAlert(row, next != null ? next : LowStockState.RECOVERED));
+            }
+        }
+        // Produits supprimés : plus suivis, sans alerte
+        deleted.forEach(states::remove);
+        alerts.forEach(broadcaster::publish);
+    }
+
+    // null : le produit n'est pas en stock faible (ou n'est pas suivi)
+    private static LowStockState stateOf(ProductStockLevelRow row) {
+        boolean monitored = row.getStatus() == ProductStatus.ACTIVE || row.getStatus() == ProductStatus.OUT_OF_STOCK;
+        if (!monitored || row.getStockQuantity() > row.getLowStockThreshold()) {
+            return null;
+        }
+        return row.getStockQuantity() <= 0 ? LowStockState.OUT_OF_STOCK : LowStockState.LOW;
+    }
+
+    private static LowStockAlertDTO toAlert(ProductStockLevelRow row, LowStockState state) {
+        return LowStockAlertDTO.builder()
+                .productId(row.getId())
+                .sku(row.getSku())
+                .name(row.getName())
+                .stockQuantity(row.getStockQuantity())
+                .lowStockThreshold(row.getLowStockThreshold())
+                .status(row.getStatus())
+                .state(state)
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.imad.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.imad.dto.ProductExportDTO;
+import com.imad.repository.ProductJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Export du catalogue pour les partenaires (places de marché, comparateurs).
+// Les lignes sont lues par curseur JDBC et écrites une à une : aucune entité JPA,
+// la mémoire utilisée ne dépend pas de la taille du catalogue.
+@Service
+@Slf4j
+public class ProductExportService {
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter csvWriter;
+
+    public ProductExportService(ProductJdbcRepository productJdbcRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this.productJdbcRepository = productJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.ndjsonWriter = objectMapper.writerFor(ProductExportDTO.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        CsvMapper csvMapper = CsvMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        // Même séparateur d'images que l'import CSV
+        CsvSchema schema = csvMapper.schemaFor(ProductExportDTO.class)
+                .withHeader()
+                .withArrayElementSeparator("|");
+        this.csvWriter = csvMapper.writer(schema)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public Optional<LocalDateTime> getLastModified() {
+        return productJdbcRepository.findLastModified();
+    }
+
+    // modifiedSince null : catalogue complet ; sinon produits modifiés depuis cette date (incluse)
+    public long export(boolean csv, LocalDateTime modifiedSince, OutputStream output) throws IOException {
+        log.info("Export du catalogue ({}) modifié depuis: {}", csv ? "CSV" : "NDJSON", modifiedSince);
+
+        AtomicLong count = new AtomicLong();
+        try (SequenceWriter writer = (csv ? csvWriter : ndjsonWriter).writeValues(output)) {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    productJdbcRepository.streamForExport(modifiedSince, product -> {
+                        try {
+                            writer.write(product);
+                        } catch (IOException ex) {
+                            // Client déconnecté : on interrompt la lecture du curseur
+                            throw new UncheckedIOException(ex);
+                        }
+                        count.incrementAndGet();
+                    }));
+            if (!csv && count.get() > 0) {
+                output.write('\n');
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        log.info("Export terminé: {} produit(s)", count.get());
+        return count.get();
+    }
+}
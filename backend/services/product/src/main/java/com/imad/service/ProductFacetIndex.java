@@ -0,0 +1,412 @@
+package com.imad.service;
+
+import com.imad.dto.FacetValueDTO;
+import com.imad.dto.ProductFacetsDTO;
+import com.imad.dto.ProductFilterDTO;
+import com.imad.entity.Category;
+import com.imad.enums.ProductStatus;
+import com.imad.event.CategoryChangedEvent;
+import com.imad.event.ChangeType;
+import com.imad.event.ProductChangedEvent;
+import com.imad.repository.CategoryRepository;
+import com.imad.repository.ProductFacetRow;
+import com.imad.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Index de facettes en mémoire, chargé au démarrage puis maintenu à partir des événements
+// d'écriture de ProductService et CategoryService. Chaque produit occupe un emplacement ;
+// chaque valeur de facette (catégorie, marque, statut, tranche de prix, tranche de note)
+// tient l'ensemble de ses emplacements (BitSet) et son nombre de produits, mis à jour à
+// chaque écriture. Sans filtre, une facette se lit directement dans ces compteurs ; avec
+// filtres, elle se calcule par intersection de bitsets, sans parcourir les produits.
+@Component
+@Slf4j
+public class ProductFacetIndex {
+
+    // Bornes inférieures des tranches de prix ; la dernière tranche est ouverte
+    private static final BigDecimal[] PRICE_BOUNDS = {
+            BigDecimal.ZERO, new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("200"),
+            new BigDecimal("500"), new BigDecimal("1000")
+    };
+    // Tranches d'une étoile : [0-1), [1-2), ... et [4-5] inclus
+    private static final BigDecimal[] RATING_BOUNDS = {
+            BigDecimal.ZERO, BigDecimal.ONE, new BigDecimal("2"), new BigDecimal("3"), new BigDecimal("4")
+    };
+    private static final String NO_RATING = "none";
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<Long, String> categoryNames = new ConcurrentHashMap<>();
+    // Pool des marques pour partager une seule instance de chaque libellé
+    private final Map<String, String> brandPool = new ConcurrentHashMap<>();
+
+    // Tout ce qui suit est protégé par lock : écritures exclusives, lectures partagées
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final List<Entry> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Long, Posting> byCategory = new HashMap<>();
+    // Clé : marque en minuscules
+    private final Map<String, Posting> byBrand = new HashMap<>();
+    private final Map<ProductStatus, Posting> byStatus = new EnumMap<>(ProductStatus.class);
+    private final Posting[] byPrice = postings(PRICE_BOUNDS, PRICE_BOUNDS[PRICE_BOUNDS.length - 1] + "+");
+    private final Posting[] byRating = postings(RATING_BOUNDS, "4-5");
+    private final Posting unrated = new Posting(NO_RATING);
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             CategoryRepository categoryRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        categoryRepository.findAll().forEach(category -> categoryNames.put(category.getId(), category.getName()));
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductFacetRow> rows = productRepository.streamAllFacetRows()) {
+                // Une mise à jour reçue pendant le chargement reste prioritaire
+                rows.forEach(row -> write(() -> {
+                    if (!slotsById.containsKey(row.getId())) {
+                        add(row.getId(), toEntry(row));
+                    }
+                }));
+            }
+        });
+        log.info("Index de facettes chargé: {} produits en {} ms", size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            write(() -> event.getProductIds().forEach(this::remove));
+            return;
+        }
+        List<ProductFacetRow> rows = productRepository.findFacetRowsByIdIn(event.getProductIds());
+        write(() -> rows.forEach(row -> {
+            remove(row.getId());
+            add(row.getId(), toEntry(row));
+        }));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            categoryNames.remove(event.getCategoryId());
+            return;
+        }
+        categoryRepository.findById(event.getCategoryId())
+                .map(Category::getName)
+                .ifPresent(name -> categoryNames.put(event.getCategoryId(), name));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> brands() {
+        lock.readLock().lock();
+        try {
+            return byBrand.values().stream()
+                    .map(Posting::label)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Facettes disjonctives : chaque dimension est comptée avec tous les filtres sauf le sien,
+    // afin que le client puisse proposer les autres valeurs de la dimension déjà filtrée
+    public ProductFacetsDTO facets(ProductFilterDTO filter) {
+        lock.readLock().lock();
+        try {
+            BitSet category = filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()
+                    ? union(filter.getCategoryIds().stream().map(byCategory::get)) : null;
+            BitSet brand = filter.getBrands() != null && !filter.getBrands().isEmpty()
+                    ? union(filter.getBrands().stream().map(b -> byBrand.get(b.toLowerCase(Locale.ROOT)))) : null;
+            BitSet status = filter.getStatus() != null ? union(Stream.ofNullable(byStatus.get(filter.getStatus()))) : null;
+            BitSet price = filter.getMinPrice() != null || filter.getMaxPrice() != null
+                    ? range(byPrice, PRICE_BOUNDS, filter.getMinPrice(), filter.getMaxPrice(), Entry::price) : null;
+            // Un filtre de note écarte les produits sans note
+            BitSet rating = filter.getMinRating() != null || filter.getMaxRating() != null
+                    ? range(byRating, RATING_BOUNDS, filter.getMinRating(), filter.getMaxRating(), Entry::rating) : null;
+
+            BitSet all = intersect(category, brand, status, price, rating);
+            BitSet exceptCategory = intersect(brand, status, price, rating);
+            BitSet exceptBrand = intersect(category, status, price, rating);
+            BitSet exceptStatus = intersect(category, brand, price, rating);
+            BitSet exceptPrice = intersect(category, brand, status, rating);
+            BitSet exceptRating = intersect(category, brand, status, price);
+
+            List<FacetValueDTO> ratingBands = facetValues(Arrays.stream(byRating), exceptRating, Posting::label);
+            long unratedCount = unrated.count(exceptRating);
+            if (unratedCount > 0) {
+                ratingBands.add(facet(NO_RATING, NO_RATING, unratedCount));
+            }
+
+            return ProductFacetsDTO.builder()
+                    .total(all != null ? all.cardinality() : slotsById.size())
+                    .categories(sortByCount(facetValues(byCategory.values().stream(), exceptCategory,
+                            posting -> categoryNames.getOrDefault(Long.valueOf(posting.value()), posting.value()))))
+                    .brands(sortByCount(facetValues(byBrand.values().stream(), exceptBrand, Posting::label)))
+                    .statuses(facetValues(byStatus.values().stream(), exceptStatus, Posting::label))
+                    .priceRanges(facetValues(Arrays.stream(byPrice), exceptPrice, Posting::label))
+                    .ratingBands(ratingBands)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Long id, Entry entry) {
+        Integer slot = freeSlots.poll();
+        if (slot == null) {
+            slot = slots.size();
+            slots.add(entry);
+        } else {
+            slots.set(slot, entry);
+        }
+        slotsById.put(id, slot);
+        for (Posting posting : postingsOf(entry, true)) {
+            posting.add(slot);
+        }
+    }
+
+    private void remove(Long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Entry entry = slots.set(slot, null);
+        freeSlots.push(slot);
+        for (Posting posting : postingsOf(entry, false)) {
+            posting.remove(slot);
+        }
+        // Une catégorie ou une marque sans produit disparaît des facettes
+        if (entry.categoryId() != null && byCategory.get(entry.categoryId()).isEmpty()) {
+            byCategory.remove(entry.categoryId());
+        }
+        if (entry.brand() != null && byBrand.get(brandKey(entry.brand())).isEmpty()) {
+            byBrand.remove(brandKey(entry.brand()));
+        }
+        if (byStatus.get(entry.status()).isEmpty()) {
+            byStatus.remove(entry.status());
+        }
+    }
+
+    // Valeurs de facette d'un produit ; create : crée les valeurs encore absentes
+    private List<Posting> postingsOf(Entry entry, boolean create) {
+        List<Posting> postings = new ArrayList<>(5);
+        if (entry.categoryId() != null) {
+            postings.add(create
+                    ? byCategory.computeIfAbsent(entry.categoryId(), id -> new Posting(String.valueOf(id)))
+                    : byCategory.get(entry.categoryId()));
+        }
+        if (entry.brand() != null) {
+            // Le premier libellé rencontré représente la marque, quelle que soit la casse
+            postings.add(create
+                    ? byBrand.computeIfAbsent(brandKey(entry.brand()), key -> new Posting(key, entry.brand()))
+                    : byBrand.get(brandKey(entry.brand())));
+        }
+        postings.add(create
+                ? byStatus.computeIfAbsent(entry.status(), s -> new Posting(s.name()))
+                : byStatus.get(entry.status()));
+        postings.add(byPrice[bucket(PRICE_BOUNDS, entry.price())]);
+        postings.add(entry.rating() != null ? byRating[bucket(RATING_BOUNDS, entry.rating())] : unrated);
+        return postings;
+    }
+
+    // Produits dont la valeur est dans [min, max] : les tranches entièrement incluses sont
+    // reprises telles quelles, seules celles coupées par une borne sont vérifiées produit par produit
+    private BitSet range(Posting[] buckets, BigDecimal[] bounds, BigDecimal min, BigDecimal max,
+                         Function<Entry, BigDecimal> value) {
+        BitSet matching = new BitSet();
+        for (int i = 0; i < bounds.length; i++) {
+            BigDecimal lower = bounds[i];
+            BigDecimal upper = i + 1 < bounds.length ? bounds[i + 1] : null;
+            boolean disjoint = (min != null && upper != null && upper.compareTo(min) <= 0)
+                    || (max != null && lower.compareTo(max) > 0);
+            if (disjoint) {
+                continue;
+            }
+            boolean contained = (min == null || lower.compareTo(min) >= 0)
+                    && (max == null || (upper != null && upper.compareTo(max) <= 0));
+            if (contained) {
+                matching.or(buckets[i].slots());
+            } else {
+                buckets[i].slots().stream()
+                        .filter(slot -> within(value.apply(slots.get(slot)), min, max))
+                        .forEach(matching::set);
+            }
+        }
+        return matching;
+    }
+
+    private Entry toEntry(ProductFacetRow row) {
+        String brand = row.getBrand() != null ? brandPool.computeIfAbsent(row.getBrand(), b -> b) : null;
+        return new Entry(row.getCategoryId(), brand, row.getStatus(), row.getPrice(), row.getRating());
+    }
+
+    private static boolean within(BigDecimal value, BigDecimal min, BigDecimal max) {
+        return (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+    }
+
+    private static BitSet union(Stream<Posting> postings) {
+        BitSet union = new BitSet();
+        postings.filter(Objects::nonNull).forEach(posting -> union.or(posting.slots()));
+        return union;
+    }
+
+    // null : aucun filtre, tous les produits
+    private static BitSet intersect(BitSet... masks) {
+        BitSet intersection = null;
+        for (BitSet mask : masks) {
+            if (mask == null) {
+                continue;
+            }
+            if (intersection == null) {
+                intersection = (BitSet) mask.clone();
+            } else {
+                intersection.and(mask);
+            }
+        }
+        return intersection;
+    }
+
+    private static List<FacetValueDTO> facetValues(Stream<Posting> postings, BitSet mask,
+                                                   Function<Posting, String> label) {
+        List<FacetValueDTO> values = new ArrayList<>();
+        postings.forEach(posting -> {
+            long count = posting.count(mask);
+            if (count > 0) {
+                values.add(facet(posting.value(), label.apply(posting), count));
+            }
+        });
+        return values;
+    }
+
+    private static int bucket(BigDecimal[] bounds, BigDecimal value) {
+        for (int i = bounds.length - 1; i > 0; i--) {
+            if (value.compareTo(bounds[i]) >= 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // Une valeur par tranche, libellée "borne-borne suivante" ; lastLabel pour la dernière
+    private static Posting[] postings(BigDecimal[] bounds, String lastLabel) {
+        Posting[] postings = new Posting[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            String label = i < bounds.length - 1 ? bounds[i] + "-" + bounds[i + 1] : lastLabel;
+            postings[i] = new Posting(label);
+        }
+        return postings;
+    }
+
+    private static String brandKey(String brand) {
+        return brand.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<FacetValueDTO> sortByCount(List<FacetValueDTO> values) {
+        values.sort(Comparator.comparingLong(FacetValueDTO::getCount).reversed()
+                .thenComparing(FacetValueDTO::getLabel));
+        return values;
+    }
+
+    private static FacetValueDTO facet(String value, String label, long count) {
+        return FacetValueDTO.builder().value(value).label(label).count(count).build();
+    }
+
+    private record Entry(Long categoryId, String brand, ProductStatus status, BigDecimal price, BigDecimal rating) {
+    }
+
+    // Produits portant une valeur de facette, et leur nombre tenu à jour à chaque écriture
+    private static final class Posting {
+
+        private final String value;
+        private final String label;
+        private final BitSet slots = new BitSet();
+        private int count;
+
+        Posting(String value) {
+            this(value, value);
+        }
+
+        Posting(String value, String label) {
+            this.value = value;
+            this.label = label;
+        }
+
+        void add(int slot) {
+            slots.set(slot);
+            count++;
+        }
+
+        void remove(int slot) {
+            slots.clear(slot);
+            count--;
+        }
+
+        // Compteur précalculé sans filtre, intersection avec les filtres sinon
+        long count(BitSet mask) {
+            if (mask == null) {
+                return count;
+            }
+            BitSet matching = (BitSet) slots.clone();
+            matching.and(mask);
+            return matching.cardinality();
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        String value() {
+            return value;
+        }
+
+        String label() {
+            return label;
+        }
+
+        BitSet slots() {
+            return slots;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.imad.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.imad.dto.ProductCreateDTO;
+import com.imad.dto.ProductImportErrorDTO;
+import com.imad.dto.ProductImportResultDTO;
+import com.imad.event.ProductChangedEvent;
+import com.imad.repository.CategoryRepository;
+import com.imad.repository.ProductJdbcRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Import de catalogues fournisseurs (NDJSON ou CSV).
+// Le flux est lu ligne par ligne et écrit par lots de CHUNK_SIZE, une transaction par lot :
+// un lot en échec n'annule pas les lots précédents et chaque ligne rejetée est signalée.
+@Service
+@Slf4j
+public class ProductImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final CategoryRepository categoryRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader jsonReader;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductImportService(ProductJdbcRepository productJdbcRepository,
+                                CategoryRepository categoryRepository,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher) {
+        this.productJdbcRepository = productJdbcRepository;
+        this.categoryRepository = categoryRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.jsonReader = objectMapper.readerFor(ProductCreateDTO.class);
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Un objet JSON par ligne ; les lignes vides sont ignorées
+    public ProductImportResultDTO importNdjson(InputStream input) throws IOException {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    run.accept(lineNumber, jsonReader.readValue(line));
+                } catch (JsonProcessingException ex) {
+                    run.reject(lineNumber, null, describe(ex));
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    // Ligne d'en-tête obligatoire (noms des champs de ProductCreateDTO) ;
+    // la colonne images contient des URL séparées par '|'.
+    // Les numéros de ligne supposent des champs sans retour à la ligne.
+    public ProductImportResultDTO importCsv(InputStream input) throws IOException {
+        ImportRun run = new ImportRun();
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<Map<String, String>> rows = csvMapper.readerForMapOf(String.class)
+                .with(schema)
+                .readValues(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 1;
+            while (true) {
+                Map<String, String> row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    lineNumber++;
+                    row = rows.nextValue();
+                } catch (JsonProcessingException ex) {
+                    // Erreur de structure (guillemets non fermés...) : la suite du fichier n'est pas fiable
+                    run.reject(lineNumber, null, "CSV illisible à partir de cette ligne: " + ex.getOriginalMessage());
+                    break;
+                }
+                try {
+                    run.accept(lineNumber, toCreateDTO(row));
+                } catch (IllegalArgumentException ex) {
+                    run.reject(lineNumber, row.get("sku"), describe(ex));
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    // Méthodes utilitaires privées
+
+    private ProductCreateDTO toCreateDTO(Map<String, String> row) {
+        Map<String, Object> values = new HashMap<>();
+        row.forEach((column, value) -> {
+            if (value != null && !value.isBlank()) {
+                values.put(column.trim(), value.trim());
+            }
+        });
+        Object images = values.get("images");
+        if (images != null) {
+            values.put("images", List.of(((String) images).split("\\s*\\|\\s*")));
+        }
+        return objectMapper.convertValue(values, ProductCreateDTO.class);
+    }
+
+    private static String describe(Exception ex) {
+        Throwable cause = ex;
+        while (cause != null && !(cause instanceof JsonMappingException)) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()) {
+            return "Valeur invalide pour le champ '" + mapping.getPath().get(0).getFieldName() + "'";
+        }
+        return "Ligne illisible: " + (cause instanceof JsonProcessingException json ? json.getOriginalMessage() : ex.getMessage());
+    }
+
+    private record Row(long line, ProductCreateDTO product) {
+    }
+
+    private final class ImportRun {
+
+        private final long startedAt = System.nanoTime();
+        // Catégories résolues en mémoire plutôt qu'une requête par ligne
+        private final Set<Long> categoryIds = new HashSet<>(categoryRepository.findAllIds());
+        private final Set<String> seenSkus = new HashSet<>();
+        private final List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void accept(long line, ProductCreateDTO product) {
+            String error = validate(product);
+            if (error != null) {
+                reject(line, product.getSku(), error);
+                return;
+            }
+            if (!seenSkus.add(product.getSku())) {
+                reject(line, product.getSku(), "SKU en double dans le fichier");
+                return;
+            }
+            chunk.add(new Row(line, product));
+            if (chunk.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long line, String sku, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ProductImportErrorDTO.builder().line(line).sku(sku).message(message).build());
+            }
+        }
+
+        ProductImportResultDTO finish() {
+            flush();
+            long durationMs = (System.nanoTime() - startedAt) / 1_000_000;
+            log.info("Import terminé: {} produit(s) importé(s), {} ligne(s) rejetée(s) en {} ms", imported, failed, durationMs);
+            return ProductImportResultDTO.builder()
+                    .totalRows(imported + failed)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .durationMs(durationMs)
+                    .build();
+        }
+
+        // Mêmes règles que ProductService.createProduct
+        private String validate(ProductCreateDTO product) {
+            Set<ConstraintViolation<ProductCreateDTO>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                return violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+            }
+            if (product.getDiscountPrice() != null && product.getDiscountPrice().compareTo(product.getPrice()) >= 0) {
+                return "Le prix réduit doit être inférieur au prix normal";
+            }
+            if (product.getCategoryId() != null && !categoryIds.contains(product.getCategoryId())) {
+                return "Catégorie non trouvée avec l'ID: " + product.getCategoryId();
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            // Un seul aller-retour pour tous les SKU du lot
+            Set<String> existing = productJdbcRepository.findExistingSkus(
+                    chunk.stream().map(row -> row.product().getSku()).toList());
+            List<Row> rows = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                if (existing.contains(row.product().getSku())) {
+                    reject(row.line(), row.product().getSku(), duplicateMessage(row));
+                } else {
+                    rows.add(row);
+                }
+            }
+            chunk.clear();
+
+            try {
+                Map<String, Long> inserted = transactionTemplate.execute(status -> insert(rows));
+                for (Row row : rows) {
+                    if (inserted.containsKey(row.product().getSku())) {
+                        imported++;
+                    } else {
+                        // Créé entre la vérification et l'insertion
+                        reject(row.line(), row.product().getSku(), duplicateMessage(row));
+                    }
+                }
+            } catch (DataAccessException ex) {
+                log.warn("Échec d'écriture d'un lot de {} produit(s): {}", rows.size(), ex.getMostSpecificCause().getMessage());
+                rows.forEach(row -> reject(row.line(), row.product().getSku(),
+                        "Erreur d'écriture du lot: " + ex.getMostSpecificCause().getMessage()));
+            }
+        }
+
+        private Map<String, Long> insert(List<Row> rows) {
+            Map<String, Long> inserted = productJdbcRepository.insertProducts(
+                    rows.stream().map(Row::product).toList());
+
+            Map<Long, List<String>> images = new HashMap<>();
+            for (Row row : rows) {
+                Long id = inserted.get(row.product().getSku());
+                if (id != null && row.product().getImages() != null && !row.product().getImages().isEmpty()) {
+                    images.put(id, row.product().getImages());
+                }
+            }
+            productJdbcRepository.insertImages(images);
+
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(ProductChangedEvent.created(inserted.values()));
+            }
+            return inserted;
+        }
+
+        private String duplicateMessage(Row row) {
+            return "Un produit avec le SKU '" + row.product().getSku() + "' existe déjà";
+        }
+    }
+}
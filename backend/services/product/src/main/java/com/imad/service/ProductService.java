@@ -2,23 +2,47 @@ package com.imad.service;
 
 
 
+import com.imad.cache.ProductDetailCache;
 import com.imad.dto.*;
 import com.imad.entity.Category;
 import com.imad.entity.Product;
 import com.imad.enums.ProductStatus;
+import com.imad.event.ProductChangedEvent;
 import com.imad.exception.*;
 import com.imad.mapper.ProductMapper;
 import com.imad.repository.CategoryRepository;
+import com.imad.repository.ProductJdbcRepository;
 import com.imad.repository.ProductRepository;
+import com.imad.repository.ProductSpecifications;
+import com.imad.util.KeysetCursorCodec;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,9 +50,27 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class ProductService {
 
+    // Clés de tri autorisées pour la pagination par curseur (toutes indexées)
+    private static final Map<String, Function<String, Object>> CURSOR_KEYS = Map.of(
+            "id", Long::valueOf,
+            "price", BigDecimal::new,
+            "createdAt", LocalDateTime::parse
+    );
+
+    private static final int BULK_UPDATE_CHUNK_SIZE = 1000;
+    private static final int MAX_BULK_UPDATE_ITEMS = 100_000;
+
     private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
     private final CategoryRepository categoryRepository;
     private final ProductMapper productMapper;
+    private final KeysetCursorCodec cursorCodec;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductFacetIndex facetIndex;
+    private final ProductDetailCache detailCache;
+    private final FlashSaleStockBuffer flashSaleBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
 
     @Transactional
     public ProductResponseDTO createProduct(ProductCreateDTO dto) {
@@ -64,6 +106,7 @@ public class ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedProduct.getId()));
         log.info("Produit créé avec succès, ID: {}", savedProduct.getId());
 
         return productMapper.toResponseDTO(savedProduct);
@@ -71,23 +114,60 @@ public class ProductService {
 
     public ProductResponseDTO getProductById(Long id) {
         log.info("Récupération du produit avec ID: {}", id);
-        Product product = findProductById(id);
-        return productMapper.toResponseDTO(product);
+        return detailCache.get(id, key -> productMapper.toResponseDTO(findProductById(key)));
     }
 
     public ProductResponseDTO getProductBySku(String sku) {
         log.info("Récupération du produit avec SKU: {}", sku);
-        Product product = productRepository.findBySku(sku)
-                .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec le SKU: " + sku));
-        return productMapper.toResponseDTO(product);
+        // Le produit chargé par SKU reste dans le contexte de persistance :
+        // le chargement par ID qui suit ne relance pas de requête
+        Long id = detailCache.resolveSku(sku, key -> productRepository.findBySku(key)
+                .map(Product::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec le SKU: " + sku)));
+        return detailCache.get(id, key -> productMapper.toResponseDTO(findProductById(key)));
     }
 
     public Page<ProductSummaryDTO> getAllProducts(Pageable pageable) {
         log.info("Récupération de tous les produits, page: {}", pageable.getPageNumber());
-        return productRepository.findAll(pageable)
+        return productRepository.findAllForSummary(pageable)
                 .map(productMapper::toSummaryDTO);
     }
 
+    public CursorPageDTO<ProductSummaryDTO> getProductsAfter(String after, String sortBy,
+                                                             Sort.Direction direction, int size) {
+        log.info("Récupération des produits par curseur, tri: {} {}", sortBy, direction);
+
+        if (size < 1) {
+            throw new InvalidOperationException("La taille de page doit être positive");
+        }
+
+        Sort sort;
+        ScrollPosition position;
+        if (after == null || after.isBlank()) {
+            if (!CURSOR_KEYS.containsKey(sortBy)) {
+                throw new InvalidOperationException("Tri par curseur non supporté sur: " + sortBy);
+            }
+            // L'ID départage les égalités pour obtenir un ordre total
+            sort = "id".equals(sortBy)
+                    ? Sort.by(direction, "id")
+                    : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+            position = ScrollPosition.keyset();
+        } else {
+            // Le curseur porte son propre tri
+            KeysetCursorCodec.Cursor cursor = cursorCodec.decode(after, CURSOR_KEYS);
+            sort = cursor.getSort();
+            position = cursor.getPosition();
+        }
+
+        Window<Product> window = productRepository.findAllBy(position, sort, Limit.of(size));
+        return CursorPageDTO.<ProductSummaryDTO>builder()
+                .content(productMapper.toSummaryDTOList(window.getContent()))
+                .size(window.size())
+                .hasNext(window.hasNext())
+                .nextCursor(window.hasNext() ? cursorCodec.encode(sort, window.positionAt(window.size() - 1)) : null)
+                .build();
+    }
+
     public Page<ProductSummaryDTO> getProductsByStatus(ProductStatus status, Pageable pageable) {
         log.info("Récupération des produits par statut: {}", status);
         return productRepository.findByStatus(status, pageable)
@@ -108,22 +188,38 @@ public class ProductService {
 
     public Page<ProductSummaryDTO> searchProducts(String keyword, Pageable pageable) {
         log.info("Recherche de produits avec le mot-clé: {}", keyword);
-        return productRepository.searchProducts(keyword, pageable)
-                .map(productMapper::toSummaryDTO);
+
+        if (keyword == null || keyword.isBlank()) {
+            return Page.empty(pageable);
+        }
+
+        // Page d'IDs triée par pertinence, puis chargement des produits en une requête
+        Page<Long> ids = productRepository.searchProductIds(keyword.trim(), pageable);
+        Map<Long, Product> productsById = productRepository.findByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<ProductSummaryDTO> content = ids.getContent().stream()
+                .map(productsById::get)
+                .filter(product -> product != null)
+                .map(productMapper::toSummaryDTO)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
     }
 
-    public Page<ProductSummaryDTO> filterProducts(
-            Long categoryId,
-            ProductStatus status,
-            BigDecimal minPrice,
-            BigDecimal maxPrice,
-            String brand,
-            Pageable pageable) {
+    public Page<ProductSummaryDTO> filterProducts(ProductFilterDTO filter, Pageable pageable) {
+        log.info("Filtrage des produits avec les critères: {}", filter);
 
-        log.info("Filtrage des produits avec les critères: catégorie={}, status={}, prix={}-{}, marque={}",
-                categoryId, status, minPrice, maxPrice, brand);
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new InvalidOperationException("Le prix minimum doit être inférieur ou égal au prix maximum");
+        }
+        if (filter.getMinRating() != null && filter.getMaxRating() != null
+                && filter.getMinRating().compareTo(filter.getMaxRating()) > 0) {
+            throw new InvalidOperationException("La note minimale doit être inférieure ou égale à la note maximale");
+        }
 
-        return productRepository.filterProducts(categoryId, status, minPrice, maxPrice, brand, pageable)
+        return productRepository.findAll(ProductSpecifications.matching(filter), pageable)
                 .map(productMapper::toSummaryDTO);
     }
 
@@ -152,6 +248,7 @@ public class ProductService {
 
         productMapper.updateEntityFromDTO(dto, product);
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
 
         log.info("Produit mis à jour avec succès, ID: {}", id);
         return productMapper.toResponseDTO(updatedProduct);
@@ -163,6 +260,7 @@ public class ProductService {
 
         Product product = findProductById(id);
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
 
         log.info("Produit supprimé avec succès, ID: {}", id);
     }
@@ -174,6 +272,7 @@ public class ProductService {
         Product product = findProductById(id);
         product.setStatus(status);
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
 
         return productMapper.toResponseDTO(updatedProduct);
     }
@@ -186,18 +285,45 @@ public class ProductService {
             throw new InvalidOperationException("La quantité ne peut pas être négative");
         }
 
-        Product product = findProductById(id);
-        product.setStockQuantity(quantity);
+        // UPDATE unique : pas de lecture-modification-écriture concurrente
+        if (productRepository.setStock(id, quantity, ProductStatus.ACTIVE, ProductStatus.OUT_OF_STOCK) == 0) {
+            throw new ResourceNotFoundException("Produit non trouvé avec l'ID: " + id);
+        }
+        // Sous le verrou de ligne pris par l'UPDATE : le nouveau stock remplace aussi
+        // les unités déjà retirées par le tampon de vente flash
+        flashSaleBuffer.discard(id);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(id));
+        return productMapper.toResponseDTO(findProductById(id));
+    }
 
-        // Mettre à jour automatiquement le statut si nécessaire
-        if (quantity == 0 && product.getStatus() == ProductStatus.ACTIVE) {
-            product.setStatus(ProductStatus.OUT_OF_STOCK);
-        } else if (quantity > 0 && product.getStatus() == ProductStatus.OUT_OF_STOCK) {
-            product.setStatus(ProductStatus.ACTIVE);
+    // Mise à jour en masse du stock et des prix (flux ERP) : un UPDATE ensembliste
+    // et une transaction par lot, un lot en échec n'annule pas les précédents
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductBulkUpdateResultDTO bulkUpdateStockAndPrice(List<ProductBulkUpdateItemDTO> items) {
+        log.info("Mise à jour en masse de {} produit(s)", items.size());
+
+        if (items.size() > MAX_BULK_UPDATE_ITEMS) {
+            throw new InvalidOperationException("Une mise à jour en masse est limitée à " + MAX_BULK_UPDATE_ITEMS + " produits");
         }
 
-        Product updatedProduct = productRepository.save(product);
-        return productMapper.toResponseDTO(updatedProduct);
+        long startedAt = System.nanoTime();
+        List<BulkUpdateChunkResultDTO> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+            List<ProductBulkUpdateItemDTO> chunk = items.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, items.size()));
+            chunks.add(bulkUpdateChunk(chunks.size(), chunk));
+        }
+
+        ProductBulkUpdateResultDTO result = ProductBulkUpdateResultDTO.builder()
+                .submitted(items.size())
+                .updated(chunks.stream().mapToInt(BulkUpdateChunkResultDTO::getUpdated).sum())
+                .notFound(chunks.stream().mapToInt(chunk -> chunk.getNotFound().size()).sum())
+                .rejected(chunks.stream().mapToInt(chunk -> chunk.getRejected().size()).sum())
+                .chunks(chunks)
+                .durationMs((System.nanoTime() - startedAt) / 1_000_000)
+                .build();
+        log.info("Mise à jour en masse terminée: {} modifié(s), {} inconnu(s), {} refusé(s) en {} ms",
+                result.getUpdated(), result.getNotFound(), result.getRejected(), result.getDurationMs());
+        return result;
     }
 
     public List<ProductResponseDTO> getLowStockProducts(Integer threshold) {
@@ -211,10 +337,140 @@ public class ProductService {
 
     public List<String> getAllBrands() {
         log.info("Récupération de toutes les marques");
-        return productRepository.findAllBrands();
+        return facetIndex.brands();
+    }
+
+    public ProductFacetsDTO getProductFacets(ProductFilterDTO filter) {
+        log.info("Calcul des facettes pour les critères: {}", filter);
+        return facetIndex.facets(filter);
+    }
+
+    // Méthodes utilitaires privées
+
+    // Même règle que updateStock pour les lignes dont le stock vient d'être fixé
+    private void discardFlashSaleUnits(List<ProductBulkUpdateItemDTO> byId, List<ProductBulkUpdateItemDTO> bySku,
+                                       Map<Long, String> rows) {
+        Set<String> skusWithStock = bySku.stream()
+                .filter(item -> item.getStockQuantity() != null)
+                .map(ProductBulkUpdateItemDTO::getSku)
+                .collect(Collectors.toSet());
+        Set<Long> idsWithStock = byId.stream()
+                .filter(item -> item.getStockQuantity() != null)
+                .map(ProductBulkUpdateItemDTO::getId)
+                .collect(Collectors.toSet());
+        rows.forEach((id, sku) -> {
+            if ((idsWithStock.contains(id) || skusWithStock.contains(sku)) && flashSaleBuffer.isEnabled(id)) {
+                flashSaleBuffer.discard(id);
+            }
+        });
+    }
+
+    private BulkUpdateChunkResultDTO bulkUpdateChunk(int index, List<ProductBulkUpdateItemDTO> chunk) {
+        List<String> rejected = new ArrayList<>();
+        List<ProductBulkUpdateItemDTO> byId = new ArrayList<>();
+        List<ProductBulkUpdateItemDTO> bySku = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        for (ProductBulkUpdateItemDTO item : chunk) {
+            String key = bulkUpdateKey(item);
+            String error = validateBulkUpdateItem(item);
+            if (error == null && !seenKeys.add(key)) {
+                error = "Produit présent plusieurs fois dans le lot";
+            }
+            if (error != null) {
+                rejected.add(key + ": " + error);
+            } else if (item.getId() != null) {
+                byId.add(item);
+            } else {
+                bySku.add(item);
+            }
+        }
+
+        Map<Long, String> updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                Map<Long, String> rows = new HashMap<>(productJdbcRepository.updateStockAndPrice(byId, false));
+                rows.putAll(productJdbcRepository.updateStockAndPrice(bySku, true));
+                discardFlashSaleUnits(byId, bySku, rows);
+                if (!rows.isEmpty()) {
+                    eventPublisher.publishEvent(ProductChangedEvent.updated(rows.keySet()));
+                }
+                return rows;
+            });
+        } catch (DataAccessException ex) {
+            // Lot annulé en entier ; les lots précédents restent appliqués et figurent dans le rapport
+            String error = "Erreur d'écriture du lot: " + ex.getMostSpecificCause().getMessage();
+            log.warn("Échec d'écriture du lot {} de mise à jour en masse: {}", index, ex.getMostSpecificCause().getMessage());
+            byId.forEach(item -> rejected.add(item.getId() + ": " + error));
+            bySku.forEach(item -> rejected.add(item.getSku() + ": " + error));
+            return BulkUpdateChunkResultDTO.builder()
+                    .chunk(index)
+                    .submitted(chunk.size())
+                    .updated(0)
+                    .notFound(List.of())
+                    .rejected(rejected)
+                    .error(error)
+                    .build();
+        }
+
+        // Ligne non modifiée : produit inconnu, ou prix réduit incompatible avec les valeurs en base
+        List<Long> missingIds = byId.stream()
+                .map(ProductBulkUpdateItemDTO::getId)
+                .filter(id -> !updated.containsKey(id))
+                .toList();
+        Set<String> updatedSkus = new HashSet<>(updated.values());
+        List<String> missingSkus = bySku.stream()
+                .map(ProductBulkUpdateItemDTO::getSku)
+                .filter(sku -> !updatedSkus.contains(sku))
+                .toList();
+        List<String> missing = new ArrayList<>(missingIds.stream().map(String::valueOf).toList());
+        missing.addAll(missingSkus);
+
+        Set<String> existing = productJdbcRepository.findExistingSkus(missingSkus);
+        productJdbcRepository.findExistingIds(missingIds).forEach(id -> existing.add(String.valueOf(id)));
+
+        List<String> notFound = new ArrayList<>();
+        for (String key : missing) {
+            if (existing.contains(key)) {
+                rejected.add(key + ": Le prix réduit doit être inférieur au prix normal");
+            } else {
+                notFound.add(key);
+            }
+        }
+
+        return BulkUpdateChunkResultDTO.builder()
+                .chunk(index)
+                .submitted(chunk.size())
+                .updated(updated.size())
+                .notFound(notFound)
+                .rejected(rejected)
+                .build();
+    }
+
+    private String validateBulkUpdateItem(ProductBulkUpdateItemDTO item) {
+        if ((item.getId() == null) == (item.getSku() == null)) {
+            return "Indiquer soit l'ID soit le SKU du produit";
+        }
+        if (item.getStockQuantity() == null && item.getPrice() == null && item.getDiscountPrice() == null) {
+            return "Aucune valeur à mettre à jour";
+        }
+        Set<ConstraintViolation<ProductBulkUpdateItemDTO>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (item.getDiscountPrice() != null && item.getPrice() != null
+                && item.getDiscountPrice().compareTo(item.getPrice()) >= 0) {
+            return "Le prix réduit doit être inférieur au prix normal";
+        }
+        return null;
+    }
+
+    private static String bulkUpdateKey(ProductBulkUpdateItemDTO item) {
+        return item.getId() != null ? String.valueOf(item.getId()) : item.getSku();
     }
 
-    // Méthode utilitaire privée
     private Product findProductById(Long id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec l'ID: " + id));
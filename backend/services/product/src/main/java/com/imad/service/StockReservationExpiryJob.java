@@ -0,0 +1,35 @@
+package com.imad.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Restitue le stock des réservations non validées dans les temps
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationExpiryJob {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final StockReservationService reservationService;
+
+    @Scheduled(fixedDelayString = "${product.stock.reservation.expiry-check-interval-ms:30000}")
+    public void expireReservations() {
+        List<Long> expiredIds = reservationService.findExpiredReservationIds(BATCH_SIZE);
+        for (Long id : expiredIds) {
+            try {
+                reservationService.expire(id);
+            } catch (RuntimeException ex) {
+                // Validée ou libérée entre-temps : rien à restituer
+                log.debug("Réservation {} non expirée: {}", id, ex.getMessage());
+            }
+        }
+        if (!expiredIds.isEmpty()) {
+            log.info("{} réservation(s) de stock expirée(s) traitée(s)", expiredIds.size());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.imad.service;
+
+import com.imad.dto.StockReservationDTO;
+import com.imad.dto.StockReservationRequestDTO;
+import com.imad.entity.StockReservation;
+import com.imad.enums.ProductStatus;
+import com.imad.enums.ReservationStatus;
+import com.imad.event.ProductChangedEvent;
+import com.imad.exception.InsufficientStockException;
+import com.imad.exception.InvalidOperationException;
+import com.imad.exception.ResourceNotFoundException;
+import com.imad.mapper.StockReservationMapper;
+import com.imad.repository.ProductRepository;
+import com.imad.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class StockReservationService {
+
+    private final ProductRepository productRepository;
+    private final StockReservationRepository reservationRepository;
+    private final StockReservationMapper reservationMapper;
+    private final FlashSaleStockBuffer flashSaleBuffer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${product.stock.reservation.default-ttl-seconds:900}")
+    private int defaultTtlSeconds;
+
+    // Transactions explicites : pour un produit en vente flash, la prise dans le tampon
+    // (et son éventuelle allocation en base) se fait avant d'ouvrir la transaction
+    // de la réservation, pour ne jamais tenir deux connexions à la fois
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StockReservationDTO reserve(Long productId, StockReservationRequestDTO dto) {
+        int quantity = dto.getQuantity();
+        log.info("Réservation de {} unité(s) du produit {}", quantity, productId);
+
+        if (!flashSaleBuffer.isEnabled(productId)) {
+            return transactionTemplate.execute(status -> {
+                if (productRepository.decrementStock(productId, quantity, ProductStatus.ACTIVE, ProductStatus.OUT_OF_STOCK) == 0) {
+                    throw insufficientStock(productId);
+                }
+                eventPublisher.publishEvent(ProductChangedEvent.updated(productId));
+                return createReservation(productId, dto);
+            });
+        }
+
+        if (!flashSaleBuffer.tryTake(productId, quantity)) {
+            throw insufficientStock(productId);
+        }
+        try {
+            return transactionTemplate.execute(status -> createReservation(productId, dto));
+        } catch (RuntimeException ex) {
+            // Réservation non enregistrée : les unités reviennent au tampon
+            flashSaleBuffer.giveBack(productId, quantity);
+            throw ex;
+        }
+    }
+
+    public StockReservationDTO getReservation(Long reservationId) {
+        return reservationMapper.toDTO(findReservationById(reservationId));
+    }
+
+    // Le stock a déjà été retiré à la réservation : la validation ne touche pas au produit
+    @Transactional
+    public StockReservationDTO commit(Long reservationId) {
+        log.info("Validation de la réservation {}", reservationId);
+
+        StockReservation reservation = findReservationById(reservationId);
+        if (reservation.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidOperationException("La réservation " + reservationId + " a expiré");
+        }
+        transition(reservation, ReservationStatus.COMMITTED);
+
+        return reservationMapper.toDTO(findReservationById(reservationId));
+    }
+
+    @Transactional
+    public StockReservationDTO release(Long reservationId) {
+        log.info("Libération de la réservation {}", reservationId);
+        return reservationMapper.toDTO(restore(findReservationById(reservationId), ReservationStatus.RELEASED));
+    }
+
+    // Appelée par StockReservationExpiryJob, une transaction par réservation
+    @Transactional
+    public void expire(Long reservationId) {
+        reservationRepository.findById(reservationId)
+                .filter(reservation -> reservation.getStatus() == ReservationStatus.PENDING)
+                .ifPresent(reservation -> restore(reservation, ReservationStatus.EXPIRED));
+    }
+
+    public List<Long> findExpiredReservationIds(int limit) {
+        return reservationRepository.findIdsByStatusAndExpiresAtBefore(
+                ReservationStatus.PENDING, LocalDateTime.now(), Limit.of(limit));
+    }
+
+    // Méthodes utilitaires privées
+
+    private StockReservationDTO createReservation(Long productId, StockReservationRequestDTO dto) {
+        int ttlSeconds = dto.getTtlSeconds() != null ? dto.getTtlSeconds() : defaultTtlSeconds;
+        StockReservation reservation = reservationRepository.save(StockReservation.builder()
+                .productId(productId)
+                .quantity(dto.getQuantity())
+                .expiresAt(LocalDateTime.now().plusSeconds(ttlSeconds))
+                .build());
+        return reservationMapper.toDTO(reservation);
+    }
+
+    private StockReservation restore(StockReservation reservation, ReservationStatus target) {
+        transition(reservation, target);
+        productRepository.incrementStock(reservation.getProductId(), reservation.getQuantity(),
+                ProductStatus.ACTIVE, ProductStatus.OUT_OF_STOCK);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(reservation.getProductId()));
+        return findReservationById(reservation.getId());
+    }
+
+    private void transition(StockReservation reservation, ReservationStatus target) {
+        int updated = reservationRepository.transition(
+                reservation.getId(), ReservationStatus.PENDING, target, LocalDateTime.now());
+        if (updated == 0) {
+            throw new InvalidOperationException("La réservation " + reservation.getId()
+                    + " n'est plus en attente (statut: " + findReservationById(reservation.getId()).getStatus() + ")");
+        }
+    }
+
+    private StockReservation findReservationById(Long id) {
+        return reservationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Réservation non trouvée avec l'ID: " + id));
+    }
+
+    // Appelée uniquement en cas d'échec : distingue produit absent et stock insuffisant
+    private RuntimeException insufficientStock(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            return new ResourceNotFoundException("Produit non trouvé avec l'ID: " + productId);
+        }
+        return new InsufficientStockException("Stock insuffisant ou produit indisponible: " + productId);
+    }
+}
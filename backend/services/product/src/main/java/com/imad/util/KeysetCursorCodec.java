@@ -0,0 +1,84 @@
+package com.imad.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imad.exception.InvalidOperationException;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Encode la position d'une pagination par clé (keyset) en curseur opaque :
+// JSON {"sort": [...], "keys": {...}} encodé en Base64 URL-safe
+@Component
+@RequiredArgsConstructor
+public class KeysetCursorCodec {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public String encode(Sort sort, ScrollPosition position) {
+        KeysetScrollPosition keyset = (KeysetScrollPosition) position;
+
+        List<Map<String, String>> orders = sort.stream()
+                .map(order -> Map.of("property", order.getProperty(), "direction", order.getDirection().name()))
+                .collect(Collectors.toList());
+        Map<String, String> keys = new LinkedHashMap<>();
+        keyset.getKeys().forEach((property, value) -> keys.put(property, String.valueOf(value)));
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Map.of("sort", orders, "keys", keys));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible d'encoder le curseur de pagination", e);
+        }
+    }
+
+    // keyTypes : propriétés autorisées et conversion de leur valeur texte vers le type de l'attribut
+    @SuppressWarnings("unchecked")
+    public Cursor decode(String cursor, Map<String, Function<String, Object>> keyTypes) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> payload = objectMapper.readValue(json, PAYLOAD_TYPE);
+
+            List<Sort.Order> orders = ((List<Map<String, String>>) payload.get("sort")).stream()
+                    .map(order -> new Sort.Order(Sort.Direction.valueOf(order.get("direction")), order.get("property")))
+                    .collect(Collectors.toList());
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            ((Map<String, String>) payload.get("keys")).forEach((property, value) -> {
+                Function<String, Object> parser = keyTypes.get(property);
+                if (parser == null) {
+                    throw new IllegalArgumentException("Propriété non autorisée: " + property);
+                }
+                keys.put(property, parser.apply(value));
+            });
+
+            if (orders.isEmpty() || !orders.stream().allMatch(order -> keys.containsKey(order.getProperty()))) {
+                throw new IllegalArgumentException("Clés de tri incomplètes");
+            }
+            return new Cursor(Sort.by(orders), ScrollPosition.forward(keys));
+        } catch (RuntimeException | JsonProcessingException e) {
+            throw new InvalidOperationException("Curseur de pagination invalide");
+        }
+    }
+
+    @Value
+    public static class Cursor {
+        Sort sort;
+        KeysetScrollPosition position;
+    }
+}
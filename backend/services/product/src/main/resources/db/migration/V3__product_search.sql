@@ -0,0 +1,20 @@
+-- V3__product_search.sql
+-- Recherche plein texte des produits : colonne tsvector générée + index GIN,
+-- et index trigrammes sur le nom pour la tolérance aux fautes de frappe
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Configuration 'simple' : pas de racinisation, adaptée aux noms, marques et SKU
+ALTER TABLE products
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(sku, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(brand, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX idx_products_search_vector ON products USING GIN (search_vector);
+CREATE INDEX idx_products_name_trgm ON products USING GIN (lower(name) gin_trgm_ops);
+
+-- Le seuil de similarité de l'opérateur <% (pg_trgm.word_similarity_threshold) est fixé
+-- par session, à l'ouverture de chaque connexion du pool (hikari.connection-init-sql)
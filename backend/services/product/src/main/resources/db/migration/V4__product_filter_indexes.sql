@@ -0,0 +1,12 @@
+-- V4__product_filter_indexes.sql
+-- Index pour le filtrage dynamique des produits (ProductSpecifications)
+
+-- Filtre par marque insensible à la casse : LOWER(brand) IN (...)
+CREATE INDEX idx_products_lower_brand ON products (lower(brand));
+
+-- Combinaisons fréquentes catégorie / statut + tranche de prix
+CREATE INDEX idx_products_category_price ON products (category_id, price);
+CREATE INDEX idx_products_status_price ON products (status, price);
+
+-- Filtre par note
+CREATE INDEX idx_products_rating ON products (rating);
@@ -0,0 +1,24 @@
+-- V5__stock_reservations.sql
+-- Réservations de stock (réserver / valider / libérer)
+
+CREATE TABLE stock_reservations (
+                                    id BIGSERIAL PRIMARY KEY,
+                                    product_id BIGINT NOT NULL,
+                                    quantity INTEGER NOT NULL,
+                                    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+                                    expires_at TIMESTAMP NOT NULL,
+                                    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                    CONSTRAINT fk_stock_reservations_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+                                    CONSTRAINT chk_reservation_quantity CHECK (quantity > 0)
+);
+
+CREATE INDEX idx_stock_reservations_product_id ON stock_reservations(product_id);
+
+-- Balayage des réservations expirées : seules les réservations en attente sont indexées
+CREATE INDEX idx_stock_reservations_pending_expiry ON stock_reservations(expires_at) WHERE status = 'PENDING';
+
+CREATE TRIGGER update_stock_reservations_updated_at
+    BEFORE UPDATE ON stock_reservations
+    FOR EACH ROW
+    EXECUTE FUNCTION update_updated_at_column();
@@ -0,0 +1,8 @@
+-- V6__product_export_indexes.sql
+-- Index pour l'export du catalogue
+
+-- Export incrémental : produits modifiés depuis If-Modified-Since
+CREATE INDEX idx_products_updated_at ON products(updated_at);
+
+-- Images d'un produit (export, chargement groupé des images)
+CREATE INDEX idx_product_images_product_id ON product_images(product_id);
@@ -0,0 +1,6 @@
+-- V7__low_stock_index.sql
+-- Index partiel des produits en stock faible (même règle que Product.isLowStock).
+-- Seuls les produits concernés sont indexés : l'index reste petit quelle que soit
+-- la taille du catalogue, et le flux d'alertes le parcourt dans l'ordre d'urgence.
+CREATE INDEX idx_products_low_stock ON products (stock_quantity, id)
+    WHERE stock_quantity <= low_stock_threshold AND status IN ('ACTIVE', 'OUT_OF_STOCK');
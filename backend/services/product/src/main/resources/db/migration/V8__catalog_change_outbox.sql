@@ -0,0 +1,27 @@
+-- V8__catalog_change_outbox.sql
+-- Outbox des changements du catalogue (produits et catégories)
+
+-- Écrite dans la transaction de la modification. Le numéro de séquence public
+-- (seq) est attribué par le relais, dans l'ordre des commits : il est croissant
+-- et sans trou, ce qui permet aux consommateurs de reprendre depuis un offset.
+CREATE TABLE catalog_changes (
+                                 id BIGSERIAL PRIMARY KEY,
+                                 seq BIGINT,
+                                 aggregate_type VARCHAR(20) NOT NULL,
+                                 aggregate_id BIGINT NOT NULL,
+                                 change_type VARCHAR(20) NOT NULL,
+                                 created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                 CONSTRAINT uk_catalog_changes_seq UNIQUE (seq)
+);
+
+-- Changements en attente de numérotation
+CREATE INDEX idx_catalog_changes_unsequenced ON catalog_changes(id) WHERE seq IS NULL;
+
+-- Position de chaque relais dans le flux (dernier seq remis au sink)
+CREATE TABLE catalog_change_relays (
+                                       name VARCHAR(50) PRIMARY KEY,
+                                       last_seq BIGINT NOT NULL DEFAULT 0,
+                                       updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO catalog_change_relays (name) VALUES ('default');
@@ -0,0 +1,14 @@
+-- V9__catalog_change_counter.sql
+-- Compteur des seq de l'outbox, indépendant des lignes de catalog_changes
+
+-- La numérotation partait de MAX(seq) : une fois l'outbox entièrement purgée,
+-- elle repartait de 1, sous la position des relais et des consommateurs.
+-- Une seule ligne, mise à jour uniquement par le relais (sous son verrou).
+CREATE TABLE catalog_change_counter (
+                                        id SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+                                        last_seq BIGINT NOT NULL
+);
+
+INSERT INTO catalog_change_counter (last_seq)
+SELECT GREATEST(COALESCE((SELECT MAX(seq) FROM catalog_changes), 0),
+                COALESCE((SELECT MAX(last_seq) FROM catalog_change_relays), 0));
@@ -0,0 +1,54 @@
+package com.imad;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+// PostgreSQL embarqué partagé par les tests : un serveur par JVM, arrêté à la sortie,
+// et une base par classe de test ; le schéma est posé par Flyway au démarrage du contexte
+public final class PostgresTestDatabase {
+
+    private static EmbeddedPostgres server;
+    private static final Set<String> databases = new HashSet<>();
+
+    private PostgresTestDatabase() {
+    }
+
+    public static synchronized void register(DynamicPropertyRegistry registry, String database) {
+        String url = create(database);
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    // URL JDBC d'une base vide, créée au premier appel
+    public static synchronized String create(String database) {
+        try {
+            if (server == null) {
+                server = EmbeddedPostgres.start();
+                EmbeddedPostgres started = server;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        started.close();
+                    } catch (IOException ignored) {
+                    }
+                }));
+            }
+            if (databases.add(database)) {
+                try (Connection connection = server.getPostgresDatabase().getConnection();
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE DATABASE " + database);
+                }
+            }
+            return server.getJdbcUrl("postgres", database);
+        } catch (IOException | SQLException ex) {
+            throw new IllegalStateException("PostgreSQL embarqué indisponible", ex);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.imad;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compare le modèle actuel (pool Tomcat de threads plateforme) et le profil "virtual-threads"
+// sous la même charge (recherche plein texte + filtres), sur une base PostgreSQL existante.
+// Débit et latences portent sur les réponses 200 ; les 503 (délestage) sont comptés à part.
+// Hors build normal :
+//   mvn test -Dtest=ProductLoadBenchmark -Dproduct.loadtest=true \
+//       -Dproduct.loadtest.concurrency=1000 -Dproduct.loadtest.requests=50000 \
+//       -Dproduct.loadtest.jdbc-url=jdbc:postgresql://localhost:5432/product \
+//       -Dproduct.loadtest.password=...
+@EnabledIfSystemProperty(named = "product.loadtest", matches = "true")
+class ProductLoadBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("product.loadtest.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("product.loadtest.requests", 50_000);
+
+    private static final List<String> QUERIES = List.of(
+            "/search?keyword=samsung&size=20",
+            "/search?keyword=chaussures&size=20",
+            "/filter?minPrice=50&maxPrice=500&sortBy=price&size=20",
+            "/filter?status=ACTIVE&minRating=3&size=20",
+            "?page=5&size=20");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Test
+    void comparePlatformAndVirtualThreads() {
+        String password = System.getProperty("product.loadtest.password");
+        assertThat(password).as("-Dproduct.loadtest.password est requis").isNotBlank();
+
+        Measurement platform = measure("platform", password);
+        Measurement virtual = measure("virtual-threads", password);
+
+        System.out.printf("%n%-16s %10s %10s %10s %8s %8s %8s%n",
+                "mode", "200/s", "p50 ms", "p99 ms", "200", "503", "erreurs");
+        System.out.println(platform.summary("platform"));
+        System.out.println(virtual.summary("virtual-threads"));
+    }
+
+    private Measurement measure(String mode, String password) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(ProductApplication.class)
+                .properties("server.port=0",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.config.enabled=false",
+                        "spring.datasource.url=" + System.getProperty("product.loadtest.jdbc-url",
+                                "jdbc:postgresql://localhost:5432/product"),
+                        "spring.datasource.username=" + System.getProperty("product.loadtest.username", "postgres"),
+                        "spring.datasource.password=" + password);
+        if (mode.equals("virtual-threads")) {
+            // Mêmes valeurs que product-service-virtual-threads.yml (config-server)
+            builder.properties("spring.threads.virtual.enabled=true",
+                    "spring.datasource.hikari.maximum-pool-size=40",
+                    "spring.datasource.hikari.connection-timeout=5000",
+                    "product.concurrency.max-concurrent-requests=80");
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/v1/products";
+            // Préchauffage (JIT, cache de plans, pool de connexions), puis mesure
+            drive(baseUrl, new Measurement(REQUESTS / 10));
+            return drive(baseUrl, new Measurement(REQUESTS));
+        }
+    }
+
+    // CONCURRENCY clients (un thread virtuel chacun) qui enchaînent leurs requêtes
+    private Measurement drive(String baseUrl, Measurement measurement) {
+        AtomicInteger next = new AtomicInteger();
+        measurement.start();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                clients.execute(() -> {
+                    for (int index = next.getAndIncrement(); index < measurement.requests; index = next.getAndIncrement()) {
+                        send(baseUrl + QUERIES.get(index % QUERIES.size()), measurement);
+                    }
+                });
+            }
+        }
+        measurement.stop();
+        return measurement;
+    }
+
+    private void send(String url, Measurement measurement) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        long sent = System.nanoTime();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            measurement.record(status, System.nanoTime() - sent);
+        } catch (Exception ex) {
+            measurement.record(-1, System.nanoTime() - sent);
+        }
+    }
+
+    // Seules les réponses 200 entrent dans le débit et les percentiles : une requête délestée
+    // en quelques millisecondes ne doit pas faire paraître le service plus rapide
+    private static final class Measurement {
+
+        private final int requests;
+        private final long[] okLatencies;
+        private final AtomicInteger ok = new AtomicInteger();
+        private final AtomicInteger shed = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private long startedAt;
+        private long elapsed;
+
+        Measurement(int requests) {
+            this.requests = requests;
+            this.okLatencies = new long[requests];
+        }
+
+        void start() {
+            startedAt = System.nanoTime();
+        }
+
+        void stop() {
+            elapsed = System.nanoTime() - startedAt;
+        }
+
+        void record(int status, long latency) {
+            if (status == 200) {
+                okLatencies[ok.getAndIncrement()] = latency;
+            } else if (status == 503) {
+                shed.incrementAndGet();
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+
+        String summary(String mode) {
+            long[] sorted = Arrays.copyOf(okLatencies, ok.get());
+            Arrays.sort(sorted);
+            return String.format("%-16s %10.1f %10.1f %10.1f %8d %8d %8d", mode, ok.get() * 1e9 / elapsed,
+                    quantile(sorted, 0.50), quantile(sorted, 0.99), ok.get(), shed.get(), errors.get());
+        }
+
+        private static double quantile(long[] sorted, double q) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(q * sorted.length) - 1;
+            return sorted[Math.clamp(index, 0, sorted.length - 1)] / 1e6;
+        }
+    }
+}
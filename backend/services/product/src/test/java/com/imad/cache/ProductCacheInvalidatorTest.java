@@ -0,0 +1,134 @@
+package com.imad.cache;
+
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.dto.CategorySummaryDTO;
+import com.imad.dto.ProductResponseDTO;
+import com.imad.enums.ChangeAggregateType;
+import com.imad.event.ChangeType;
+import com.imad.event.ProductChangedEvent;
+import com.imad.repository.CatalogChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Deux instances du service : caches locaux distincts, outbox partagée
+class ProductCacheInvalidatorTest {
+
+    private final List<CatalogChangeDTO> outbox = new CopyOnWriteArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, ProductResponseDTO> loader = id -> {
+        loads.incrementAndGet();
+        return ProductResponseDTO.builder()
+                .id(id)
+                .sku("SKU-" + id)
+                .category(CategorySummaryDTO.builder().id(10L).build())
+                .build();
+    };
+
+    private ProductDetailCache cacheA;
+    private ProductDetailCache cacheB;
+    private ProductCacheInvalidator invalidatorB;
+
+    @BeforeEach
+    void setUp() {
+        CatalogChangeRepository repository = mock(CatalogChangeRepository.class);
+        when(repository.lastSequence()).thenAnswer(inv -> (long) outbox.size());
+        when(repository.findAfter(anyLong(), anyInt())).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            int limit = inv.getArgument(1);
+            return outbox.stream().filter(change -> change.getSeq() > after).limit(limit).toList();
+        });
+
+        cacheA = new ProductDetailCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        cacheB = new ProductDetailCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        invalidatorB = new ProductCacheInvalidator(repository, cacheB, 2);
+
+        // Changement antérieur au démarrage : déjà visible en base, il n'est pas rejoué
+        record(ChangeAggregateType.PRODUCT, 1L, ChangeType.UPDATED);
+        invalidatorB.poll();
+    }
+
+    @Test
+    void updateOnOneInstanceEvictsTheOther() {
+        cacheA.get(1L, loader);
+        cacheB.get(1L, loader);
+        cacheB.get(2L, loader);
+
+        // Instance A : écriture validée, éviction locale et ligne dans l'outbox
+        cacheA.onProductChanged(ProductChangedEvent.updated(1L));
+        record(ChangeAggregateType.PRODUCT, 1L, ChangeType.UPDATED);
+
+        cacheB.get(1L, loader);
+        assertThat(loads).as("avant la lecture de l'outbox").hasValue(3);
+
+        invalidatorB.poll();
+        cacheB.get(1L, loader);
+        cacheB.get(2L, loader);
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void pollAppliesEveryPendingBatch() {
+        for (long id = 1; id <= 5; id++) {
+            cacheB.get(id, loader);
+        }
+        for (long id = 1; id <= 5; id++) {
+            record(ChangeAggregateType.PRODUCT, id, ChangeType.UPDATED);
+        }
+
+        invalidatorB.poll();
+        for (long id = 1; id <= 5; id++) {
+            cacheB.get(id, loader);
+        }
+
+        assertThat(loads).hasValue(10);
+    }
+
+    @Test
+    void categoryChangeOnOneInstanceEvictsItsProductsOnTheOther() {
+        cacheB.get(1L, loader);
+        cacheB.get(2L, loader);
+
+        record(ChangeAggregateType.CATEGORY, 10L, ChangeType.UPDATED);
+        invalidatorB.poll();
+        cacheB.get(1L, loader);
+        cacheB.get(2L, loader);
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void deletionOnOneInstanceReleasesTheSkuOnTheOther() {
+        assertThat(cacheB.resolveSku("SKU-A", sku -> 1L)).isEqualTo(1L);
+
+        record(ChangeAggregateType.PRODUCT, 1L, ChangeType.DELETED);
+        invalidatorB.poll();
+
+        assertThat(cacheB.resolveSku("SKU-A", sku -> 7L)).isEqualTo(7L);
+    }
+
+    // Changement numéroté par le relais
+    private void record(ChangeAggregateType type, Long id, ChangeType changeType) {
+        outbox.add(CatalogChangeDTO.builder()
+                .seq(outbox.size() + 1)
+                .aggregateType(type)
+                .aggregateId(id)
+                .changeType(changeType)
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,108 @@
+package com.imad.cache;
+
+import com.imad.dto.CategorySummaryDTO;
+import com.imad.dto.ProductResponseDTO;
+import com.imad.event.CategoryChangedEvent;
+import com.imad.event.ChangeType;
+import com.imad.event.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ProductDetailCacheTest {
+
+    private ProductDetailCache cache;
+    private AtomicInteger loads;
+    private Function<Long, ProductResponseDTO> loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductDetailCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return ProductResponseDTO.builder()
+                    .id(id)
+                    .sku("SKU-" + id)
+                    .category(CategorySummaryDTO.builder().id(id % 2).build())
+                    .build();
+        };
+    }
+
+    @Test
+    void repeatedReadsHitTheCache() {
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void productWriteEvictsOnlyThatProduct() {
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+
+        cache.onProductChanged(ProductChangedEvent.updated(1L));
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void categoryWriteEvictsProductsOfThatCategory() {
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        cache.get(3L, loader);
+
+        cache.onCategoryChanged(new CategoryChangedEvent(ChangeType.UPDATED, 1L));
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+        cache.get(3L, loader);
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void writeDuringLoadDiscardsTheLoadedValue() {
+        cache.get(1L, id -> {
+            // Écriture validée pendant la lecture en base
+            cache.onProductChanged(ProductChangedEvent.updated(id));
+            return loader.apply(id);
+        });
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loaderErrorDoesNotLeaveTheKeyPending() {
+        Function<Long, ProductResponseDTO> failing = id -> {
+            throw new StackOverflowError();
+        };
+        assertThatThrownBy(() -> cache.get(1L, failing)).isInstanceOf(StackOverflowError.class);
+
+        // Le futur en échec est retiré : la lecture suivante recharge au lieu d'attendre
+        ProductResponseDTO product = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> cache.get(1L, loader));
+
+        assertThat(product.getId()).isEqualTo(1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void deletedProductReleasesItsSku() {
+        assertThat(cache.resolveSku("SKU-A", sku -> 1L)).isEqualTo(1L);
+
+        cache.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        assertThat(cache.resolveSku("SKU-A", sku -> 7L)).isEqualTo(7L);
+    }
+}
@@ -0,0 +1,94 @@
+package com.imad.config;
+
+import com.imad.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RequestConcurrencyLimiterTest {
+
+    private final CountDownLatch exportMayFinish = new CountDownLatch(1);
+    private final CountDownLatch exportStarted = new CountDownLatch(1);
+
+    private RequestConcurrencyLimiter limiter;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new RequestConcurrencyLimiter(1, Duration.ofMillis(50));
+        mockMvc = MockMvcBuilders.standaloneSetup(new AsyncController())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addInterceptors(limiter)
+                .build();
+    }
+
+    @Test
+    void streamingExportKeepsItsPermitUntilCompletion() throws Exception {
+        MvcResult export = mockMvc.perform(get("/export")).andExpect(request().asyncStarted()).andReturn();
+        assertThat(exportStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // L'export lit encore la base : pas de permis pour une autre requête
+        assertThat(limiter.availablePermits()).isZero();
+        mockMvc.perform(get("/ping")).andExpect(status().isServiceUnavailable());
+
+        exportMayFinish.countDown();
+        // Le redispatch ASYNC ne redemande pas de permis (il échouerait : l'export tient le seul)
+        mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().string("a;b\n"));
+        assertThat(limiter.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void sseStreamReleasesItsPermitOnceAsync() throws Exception {
+        mockMvc.perform(get("/stream")).andExpect(request().asyncStarted());
+
+        assertThat(limiter.availablePermits()).isEqualTo(1);
+        mockMvc.perform(get("/ping")).andExpect(status().isOk());
+    }
+
+    @RestController
+    class AsyncController {
+
+        @GetMapping("/export")
+        StreamingResponseBody export() {
+            return output -> {
+                exportStarted.countDown();
+                try {
+                    exportMayFinish.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                output.write("a;b\n".getBytes(StandardCharsets.UTF_8));
+            };
+        }
+
+        @GetMapping("/stream")
+        SseEmitter stream() {
+            return new SseEmitter(60_000L);
+        }
+
+        @GetMapping("/ping")
+        String ping() {
+            return "pong";
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.imad.repository;
+
+import com.imad.PostgresTestDatabase;
+import com.imad.dto.ProductFilterDTO;
+import com.imad.enums.ProductStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Plans PostgreSQL des requêtes construites par ProductSpecifications : le SQL généré par
+// Hibernate est capturé puis passé à EXPLAIN avec les mêmes valeurs, sur 100k produits.
+// Chaque combinaison fréquente de filtres doit passer par son index V4.
+@DataJpaTest(showSql = false, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.imad.repository.ProductFilterPlanTest$CapturingInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductFilterPlanTest {
+
+    private static final int PRODUCTS = 100_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, "product_filter_plan");
+    }
+
+    @BeforeEach
+    void seed() {
+        // 50 catégories, 1000 marques, 90 % de produits actifs, prix de 1 à 2000, notes de 0 à 5
+        jdbcTemplate.update("INSERT INTO categories (name) SELECT 'Plan ' || i FROM generate_series(1, 50) i");
+        jdbcTemplate.update("INSERT INTO products (name, sku, price, status, category_id, brand, rating) " +
+                "SELECT 'Produit ' || i, 'PLAN-' || i, 1 + (i * 7919) % 2000, " +
+                "       CASE WHEN i % 10 = 0 THEN 'DRAFT' ELSE 'ACTIVE' END, " +
+                "       (SELECT min(id) FROM categories WHERE name LIKE 'Plan %') + i % 50, " +
+                "       'Marque ' || (i % 1000), ((i * 31) % 501) / 100.0 " +
+                "FROM generate_series(1, ?) i", PRODUCTS);
+        jdbcTemplate.execute("ANALYZE products");
+        CapturingInspector.statements.clear();
+    }
+
+    @Test
+    void categoryAndPriceRangeUseTheCategoryPriceIndex() {
+        Long categoryId = jdbcTemplate.queryForObject("SELECT min(id) FROM categories WHERE name LIKE 'Plan %'", Long.class);
+        ProductFilterDTO filter = ProductFilterDTO.builder()
+                .categoryIds(List.of(categoryId))
+                .minPrice(new BigDecimal("100"))
+                .maxPrice(new BigDecimal("120"))
+                .build();
+
+        assertThat(explain(filter, "price", categoryId, new BigDecimal("100"), new BigDecimal("120")))
+                .contains("idx_products_category_price");
+    }
+
+    @Test
+    void statusAndPriceRangeUseTheStatusPriceIndex() {
+        ProductFilterDTO filter = ProductFilterDTO.builder()
+                .status(ProductStatus.ACTIVE)
+                .minPrice(new BigDecimal("100"))
+                .maxPrice(new BigDecimal("110"))
+                .build();
+
+        assertThat(explain(filter, "price", "ACTIVE", new BigDecimal("100"), new BigDecimal("110")))
+                .contains("idx_products_status_price");
+    }
+
+    @Test
+    void brandsUseTheLowerBrandIndex() {
+        ProductFilterDTO filter = ProductFilterDTO.builder()
+                .brands(List.of("MARQUE 3", "Marque 7"))
+                .build();
+
+        assertThat(explain(filter, "id", "marque 3", "marque 7"))
+                .contains("idx_products_lower_brand");
+    }
+
+    @Test
+    void minRatingSortedByRatingUsesTheRatingIndex() {
+        ProductFilterDTO filter = ProductFilterDTO.builder()
+                .minRating(new BigDecimal("4.99"))
+                .build();
+
+        assertThat(explain(filter, "rating", new BigDecimal("4.99")))
+                .contains("idx_products_rating");
+    }
+
+    // Exécute le filtre (tri "id" par défaut de /filter), puis EXPLAIN de la requête de page capturée
+    // avec les valeurs des prédicats (dans l'ordre de ProductSpecifications), puis offset et taille de page
+    private String explain(ProductFilterDTO filter, String sortBy, Object... predicateValues) {
+        productRepository.findAll(ProductSpecifications.matching(filter), PageRequest.of(0, 20, Sort.by(sortBy)));
+
+        String sql = CapturingInspector.statements.stream()
+                .filter(statement -> statement.contains("order by"))
+                .findFirst()
+                .orElseThrow();
+        Object[] values = new Object[predicateValues.length + 2];
+        System.arraycopy(predicateValues, 0, values, 0, predicateValues.length);
+        values[predicateValues.length] = 0;
+        values[predicateValues.length + 1] = 20;
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(values.length);
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, values));
+        assertThat(plan).doesNotContain("Seq Scan on products");
+        return plan;
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.imad.repository;
+
+import com.imad.dto.ProductSummaryDTO;
+import com.imad.entity.Category;
+import com.imad.entity.Product;
+import com.imad.mapper.CategoryMapperImpl;
+import com.imad.mapper.ProductMapper;
+import com.imad.mapper.ProductMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ProductMapperImpl.class, CategoryMapperImpl.class})
+class ProductRepositoryFetchPlanTest {
+
+    // page + count + chargement groupé des images
+    private static final long MAX_STATEMENTS_PER_PAGE = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Category[] categories = new Category[3];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = entityManager.persist(Category.builder().name("Catégorie " + i).build());
+        }
+        for (int i = 0; i < 45; i++) {
+            entityManager.persist(Product.builder()
+                    .name("Produit " + i)
+                    .sku("SKU-" + i)
+                    .price(new BigDecimal("10.00"))
+                    .category(categories[i % categories.length])
+                    .images(List.of("https://cdn.example.com/" + i + "-a.jpg", "https://cdn.example.com/" + i + "-b.jpg"))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void summaryPageQueryCountDoesNotGrowWithPageSize() {
+        long smallPage = countStatementsForSummaryPage(5);
+        long largePage = countStatementsForSummaryPage(40);
+
+        assertThat(smallPage).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    void summaryPageMapsCategoryAndMainImage() {
+        Page<ProductSummaryDTO> page = productRepository.findAllForSummary(PageRequest.of(0, 20))
+                .map(productMapper::toSummaryDTO);
+
+        assertThat(page.getContent()).hasSize(20)
+                .allSatisfy(dto -> {
+                    assertThat(dto.getCategoryName()).startsWith("Catégorie ");
+                    assertThat(dto.getMainImage()).startsWith("https://cdn.example.com/");
+                });
+    }
+
+    private long countStatementsForSummaryPage(int size) {
+        entityManager.clear();
+        statistics.clear();
+
+        productRepository.findAllForSummary(PageRequest.of(0, size))
+                .map(productMapper::toSummaryDTO)
+                .getContent();
+
+        return statistics.getPrepareStatementCount();
+    }
+}
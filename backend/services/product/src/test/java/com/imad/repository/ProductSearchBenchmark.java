@@ -0,0 +1,107 @@
+package com.imad.repository;
+
+import com.imad.PostgresTestDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Recherche plein texte (searchProductIds) contre l'ancienne recherche LIKE '%mot%',
+// sur PostgreSQL embarqué avec 1M de produits générés. Les deux variantes paginent
+// (20 lignes + comptage), comme l'ancienne Page JPQL. Hors build normal :
+//   mvn test -Dtest=ProductSearchBenchmark -Dproduct.loadtest=true \
+//       -Dproduct.loadtest.rows=1000000 -Dproduct.loadtest.iterations=100
+@DataJpaTest(showSql = false, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.datasource.hikari.connection-init-sql=SET pg_trgm.word_similarity_threshold = 0.45"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "product.loadtest", matches = "true")
+class ProductSearchBenchmark {
+
+    private static final int ROWS = Integer.getInteger("product.loadtest.rows", 1_000_000);
+    private static final int ITERATIONS = Integer.getInteger("product.loadtest.iterations", 100);
+
+    // Mot courant, deux mots, faute de frappe, préfixe, SKU exact
+    private static final List<String> KEYWORDS = List.of("samsung", "casque sony", "smartfone", "ordin", "GEN-424242");
+
+    // Ancienne requête (JPQL searchProducts avant V3), telle que générée par Hibernate
+    private static final String LIKE_SOURCE = "FROM products p WHERE " +
+            "lower(p.name) LIKE lower('%' || ? || '%') OR " +
+            "lower(p.description) LIKE lower('%' || ? || '%') OR " +
+            "lower(p.sku) LIKE lower('%' || ? || '%')";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, "product_search_benchmark");
+    }
+
+    @Test
+    void compareFullTextSearchWithLike() {
+        seed();
+
+        System.out.printf("%n%-14s %-10s %10s %10s %10s%n", "mot-clé", "requête", "p50 ms", "p99 ms", "résultats");
+        for (String keyword : KEYWORDS) {
+            long[] total = new long[1];
+            report(keyword, "plein texte", total, k ->
+                    total[0] = productRepository.searchProductIds(k, PageRequest.of(0, 20)).getTotalElements());
+            report(keyword, "LIKE", total, k -> {
+                jdbcTemplate.queryForList("SELECT p.id " + LIKE_SOURCE + " LIMIT 20", Long.class, k, k, k);
+                total[0] = jdbcTemplate.queryForObject("SELECT count(*) " + LIKE_SOURCE, Long.class, k, k, k);
+            });
+        }
+    }
+
+    // Produits générés : noms « type marque modèle », SKU uniques, description libre
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO products (name, sku, description, price, stock_quantity, brand) " +
+                "SELECT t.type || ' ' || b.brand || ' M' || (i % 5000), 'GEN-' || i, " +
+                "       'Produit ' || t.type || ' de la marque ' || b.brand || ', série ' || (i % 97), " +
+                "       10 + i % 1000, i % 100, b.brand " +
+                "FROM generate_series(1, ?) i " +
+                "CROSS JOIN LATERAL (SELECT (ARRAY['Smartphone', 'Casque', 'Chaussures', 'Montre', 'Ordinateur', " +
+                "       'Tablette', 'Enceinte', 'Veste', 'Clavier', 'Souris', 'Écran', 'Imprimante', 'Caméra', " +
+                "       'Sac', 'Jean', 'Pull', 'Lampe', 'Cafetière', 'Aspirateur', 'Perceuse', 'Chaise', " +
+                "       'Bureau', 'Ballon', 'Raquette'])[1 + i % 24] AS type) t " +
+                "CROSS JOIN LATERAL (SELECT (ARRAY['Samsung', 'Sony', 'Nike', 'Apple', 'Lenovo', 'Bose', " +
+                "       'Adidas', 'Dell', 'Logitech', 'Canon', 'Philips', 'Bosch', 'Ikea', 'Puma', 'Levis', " +
+                "       'Xiaomi', 'Asus', 'Epson', 'Dyson', 'Makita', 'Decathlon', 'Garmin', 'Moulinex', " +
+                "       'Zara'])[1 + (i / 24) % 24] AS brand) b", ROWS);
+        jdbcTemplate.execute("ANALYZE products");
+    }
+
+    private void report(String keyword, String variant, long[] total, Consumer<String> search) {
+        // Préchauffage (cache de plans, pages en mémoire), puis mesure
+        for (int i = 0; i < Math.max(1, ITERATIONS / 10); i++) {
+            search.accept(keyword);
+        }
+        long[] latencies = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            search.accept(keyword);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-14s %-10s %10.2f %10.2f %10d%n", keyword, variant,
+                latencies[ITERATIONS / 2] / 1e6, latencies[(int) (ITERATIONS * 0.99)] / 1e6, total[0]);
+    }
+}
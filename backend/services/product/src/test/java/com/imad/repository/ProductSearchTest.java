@@ -0,0 +1,70 @@
+package com.imad.repository;
+
+import com.imad.PostgresTestDatabase;
+import com.imad.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Recherche sur PostgreSQL embarqué, schéma et données d'exemple posés par Flyway (V1..)
+@DataJpaTest(properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        // Même valeur que product-service.yml (config-server)
+        "spring.datasource.hikari.connection-init-sql=SET pg_trgm.word_similarity_threshold = 0.45"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductSearchTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, "product_search");
+    }
+
+    @Test
+    void everyPooledConnectionUsesTheLoweredSimilarityThreshold() {
+        assertThat(jdbcTemplate.queryForObject("SHOW pg_trgm.word_similarity_threshold", String.class))
+                .isEqualTo("0.45");
+    }
+
+    @Test
+    void toleratesOneTypoPerWord() {
+        // word_similarity('smartfone', 'smartphone ...') = 0.5 : sous le seuil par défaut (0.6)
+        assertThat(search("smartfone")).containsExactly("Smartphone Samsung Galaxy S23");
+        assertThat(search("tabelte")).isEmpty();
+    }
+
+    @Test
+    void matchesTermPrefixesAcrossNameAndBrand() {
+        assertThat(search("macb pro")).containsExactly("MacBook Pro 14 pouces");
+    }
+
+    @Test
+    void exactSkuComesFirst() {
+        assertThat(search("ELEC-003")).first().isEqualTo("Casque Sony WH-1000XM5");
+    }
+
+    private List<String> search(String keyword) {
+        List<Long> ids = productRepository.searchProductIds(keyword, PageRequest.of(0, 20)).getContent();
+        Map<Long, String> names = productRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName));
+        return ids.stream().map(names::get).toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.imad.service;
+
+import com.imad.PostgresTestDatabase;
+import com.imad.cache.ProductCacheInvalidator;
+import com.imad.cache.ProductDetailCache;
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.dto.ProductResponseDTO;
+import com.imad.enums.ChangeAggregateType;
+import com.imad.event.ChangeType;
+import com.imad.event.InMemoryChangeEventSink;
+import com.imad.repository.CatalogChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Outbox sur PostgreSQL embarqué : numérotation, relais et purge dans leurs vraies transactions
+@JdbcTest(properties = "spring.cloud.config.enabled=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogChangeOutboxPostgresTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogChangeRepository repository;
+    private InMemoryChangeEventSink sink;
+    private CatalogChangeRelay relay;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, "catalog_change_outbox");
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new CatalogChangeRepository(jdbcTemplate);
+        sink = new InMemoryChangeEventSink(100);
+        relay = new CatalogChangeRelay(repository, sink, transactionManager,
+                new SimpleMeterRegistry(), 2, 10, Duration.ofDays(7));
+    }
+
+    @Test
+    void keepsNumberingAfterTheOutboxIsPurgedEmpty() {
+        repository.append(ChangeAggregateType.PRODUCT, List.of(1L, 2L, 3L), ChangeType.UPDATED);
+        relay.relay();
+        long before = repository.lastSequence();
+        assertThat(sink.getLastSeq()).isEqualTo(before);
+
+        // Période calme : toutes les lignes remises sont purgées, la table est vide
+        assertThat(repository.deleteDeliveredBefore(CatalogChangeRelay.RELAY_NAME, LocalDateTime.now().plusDays(1)))
+                .isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM catalog_changes", Long.class)).isZero();
+
+        repository.append(ChangeAggregateType.PRODUCT, List.of(4L), ChangeType.DELETED);
+        relay.relay();
+
+        assertThat(repository.lastSequence()).isEqualTo(before + 1);
+        assertThat(sink.getChanges()).last()
+                .extracting(CatalogChangeDTO::getSeq, CatalogChangeDTO::getAggregateId)
+                .containsExactly(before + 1, 4L);
+    }
+
+    @Test
+    void invalidatorSeesChangesAppendedAfterAPurge() {
+        AtomicInteger loads = new AtomicInteger();
+        ProductDetailCache cache = new ProductDetailCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        ProductCacheInvalidator invalidator = new ProductCacheInvalidator(repository, cache, 100);
+        invalidator.poll();
+        cache.get(7L, id -> {
+            loads.incrementAndGet();
+            return ProductResponseDTO.builder().id(id).build();
+        });
+
+        repository.append(ChangeAggregateType.PRODUCT, List.of(8L), ChangeType.UPDATED);
+        relay.relay();
+        invalidator.poll();
+        repository.deleteDeliveredBefore(CatalogChangeRelay.RELAY_NAME, LocalDateTime.now().plusDays(1));
+
+        repository.append(ChangeAggregateType.PRODUCT, List.of(7L), ChangeType.UPDATED);
+        relay.relay();
+        invalidator.poll();
+
+        cache.get(7L, id -> {
+            loads.incrementAndGet();
+            return ProductResponseDTO.builder().id(id).build();
+        });
+        assertThat(loads).hasValue(2);
+    }
+}
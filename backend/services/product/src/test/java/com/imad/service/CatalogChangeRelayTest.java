@@ -0,0 +1,99 @@
+package com.imad.service;
+
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.enums.ChangeAggregateType;
+import com.imad.event.ChangeType;
+import com.imad.event.InMemoryChangeEventSink;
+import com.imad.repository.CatalogChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogChangeRelayTest {
+
+    private CatalogChangeRepository repository;
+    private InMemoryChangeEventSink sink;
+    private CatalogChangeRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CatalogChangeRepository.class);
+        sink = new InMemoryChangeEventSink(100);
+        relay = new CatalogChangeRelay(repository, sink, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 3, 10, Duration.ofDays(7));
+    }
+
+    @Test
+    void publishesFromRelayPositionAndAdvancesIt() {
+        when(repository.lockRelay(CatalogChangeRelay.RELAY_NAME)).thenReturn(Optional.of(4L));
+        when(repository.findAfter(4L, 3)).thenReturn(changes(5, 6, 7));
+
+        assertThat(relay.publish()).isEqualTo(3);
+
+        assertThat(sink.getChanges()).extracting(CatalogChangeDTO::getSeq).containsExactly(5L, 6L, 7L);
+        verify(repository).saveRelayPosition(CatalogChangeRelay.RELAY_NAME, 7L);
+    }
+
+    @Test
+    void skipsWhenAnotherInstanceHoldsTheRelay() {
+        when(repository.lockRelay(CatalogChangeRelay.RELAY_NAME)).thenReturn(Optional.empty());
+
+        relay.relay();
+
+        verify(repository, never()).assignSequence(anyInt());
+        verify(repository, never()).findAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void redeliversBatchWhenPositionIsNotSaved() {
+        when(repository.lockRelay(CatalogChangeRelay.RELAY_NAME)).thenReturn(Optional.of(0L));
+        when(repository.findAfter(0L, 3)).thenReturn(changes(1, 2));
+        doThrow(new IllegalStateException("commit impossible")).doNothing().when(repository).saveRelayPosition(anyString(), anyLong());
+
+        assertThatThrownBy(relay::publish).isInstanceOf(IllegalStateException.class);
+
+        // Le lot est renvoyé au tour suivant : le sink ignore les seq déjà reçus
+        relay.publish();
+        assertThat(sink.getChanges()).extracting(CatalogChangeDTO::getSeq).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void purgesOnlyBeyondRetention() {
+        relay.purge();
+
+        verify(repository).deleteDeliveredBefore(eq(CatalogChangeRelay.RELAY_NAME),
+                argThat(before -> before.isBefore(LocalDateTime.now().minusDays(6))));
+    }
+
+    private static List<CatalogChangeDTO> changes(long... seqs) {
+        return LongStream.of(seqs)
+                .mapToObj(seq -> CatalogChangeDTO.builder()
+                        .seq(seq)
+                        .aggregateType(ChangeAggregateType.PRODUCT)
+                        .aggregateId(seq * 10)
+                        .changeType(ChangeType.UPDATED)
+                        .occurredAt(LocalDateTime.now())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,150 @@
+package com.imad.service;
+
+import com.imad.dto.CatalogChangeDTO;
+import com.imad.dto.LowStockAlertDTO;
+import com.imad.enums.ChangeAggregateType;
+import com.imad.enums.LowStockState;
+import com.imad.enums.ProductStatus;
+import com.imad.event.ChangeType;
+import com.imad.repository.CatalogChangeRepository;
+import com.imad.repository.ProductRepository;
+import com.imad.repository.ProductStockLevelRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Les changements arrivent par l'outbox partagée, quelle que soit l'instance qui a écrit
+class LowStockMonitorTest {
+
+    private final List<CatalogChangeDTO> outbox = new CopyOnWriteArrayList<>();
+
+    private ProductRepository productRepository;
+    private LowStockAlertBroadcaster broadcaster;
+    private LowStockMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        broadcaster = mock(LowStockAlertBroadcaster.class);
+        CatalogChangeRepository catalogChangeRepository = mock(CatalogChangeRepository.class);
+        when(catalogChangeRepository.lastSequence()).thenAnswer(inv -> (long) outbox.size());
+        when(catalogChangeRepository.findAfter(anyLong(), anyInt())).thenAnswer(inv -> {
+            long after = inv.getArgument(0);
+            int limit = inv.getArgument(1);
+            return outbox.stream().filter(change -> change.getSeq() > after).limit(limit).toList();
+        });
+        when(productRepository.findLowStockLevelsAfter(anyInt(), anyLong(), any(Pageable.class))).thenReturn(List.of());
+        monitor = new LowStockMonitor(productRepository, catalogChangeRepository, broadcaster, 2);
+        monitor.poll();
+    }
+
+    @Test
+    void publishesOnlyThresholdCrossings() {
+        stockChanges(50, 8, 5, 0, 3, 40, 45);
+
+        ArgumentCaptor<LowStockAlertDTO> alerts = ArgumentCaptor.forClass(LowStockAlertDTO.class);
+        verify(broadcaster, times(4)).publish(alerts.capture());
+        assertThat(alerts.getAllValues())
+                .extracting(LowStockAlertDTO::getState)
+                .containsExactly(LowStockState.LOW, LowStockState.OUT_OF_STOCK, LowStockState.LOW, LowStockState.RECOVERED);
+    }
+
+    @Test
+    void inactiveProductsAreNotMonitored() {
+        ProductStockLevelRow discontinued = row(1, 2, ProductStatus.DISCONTINUED);
+        when(productRepository.findStockLevelsByIdIn(anyCollection())).thenReturn(List.of(discontinued));
+
+        record(1L, ChangeType.UPDATED);
+        monitor.poll();
+
+        verify(broadcaster, never()).publish(any());
+    }
+
+    @Test
+    void initialStateIsLoadedPageByPage() {
+        // Trois produits déjà sous leur seuil, lus par pages de deux
+        List<ProductStockLevelRow> firstPage = List.of(row(1, 0, ProductStatus.OUT_OF_STOCK), row(2, 3, ProductStatus.ACTIVE));
+        List<ProductStockLevelRow> secondPage = List.of(row(3, 5, ProductStatus.ACTIVE));
+        when(productRepository.findLowStockLevelsAfter(eq(Integer.MIN_VALUE), eq(0L), any(Pageable.class)))
+                .thenReturn(firstPage);
+        when(productRepository.findLowStockLevelsAfter(eq(3), eq(2L), any(Pageable.class)))
+                .thenReturn(secondPage);
+        CatalogChangeRepository catalogChangeRepository = mock(CatalogChangeRepository.class);
+        when(catalogChangeRepository.findAfter(anyLong(), anyInt())).thenReturn(List.of());
+        LowStockMonitor restarted = new LowStockMonitor(productRepository, catalogChangeRepository, broadcaster, 2);
+        restarted.poll();
+
+        // Le produit 3 reste sous son seuil : pas de nouvelle alerte
+        List<ProductStockLevelRow> changed = List.of(row(3, 4, ProductStatus.ACTIVE));
+        when(productRepository.findStockLevelsByIdIn(anyCollection())).thenReturn(changed);
+        when(catalogChangeRepository.findAfter(anyLong(), anyInt()))
+                .thenReturn(List.of(change(1, 3L, ChangeType.UPDATED)), List.of());
+        restarted.poll();
+
+        verify(broadcaster, never()).publish(any());
+    }
+
+    @Test
+    void deletedProductIsNoLongerTracked() {
+        stockChanges(5);
+        when(productRepository.findStockLevelsByIdIn(anyCollection())).thenReturn(List.of());
+        record(1L, ChangeType.DELETED);
+        monitor.poll();
+
+        // Recréé sous son seuil : nouveau franchissement
+        stockChanges(5);
+
+        verify(broadcaster, times(2)).publish(any());
+    }
+
+    private void stockChanges(int... quantities) {
+        for (int quantity : quantities) {
+            ProductStockLevelRow row = row(1, quantity, quantity == 0 ? ProductStatus.OUT_OF_STOCK : ProductStatus.ACTIVE);
+            when(productRepository.findStockLevelsByIdIn(anyCollection())).thenReturn(List.of(row));
+            record(1L, ChangeType.UPDATED);
+            monitor.poll();
+        }
+    }
+
+    private void record(Long productId, ChangeType type) {
+        outbox.add(change(outbox.size() + 1, productId, type));
+    }
+
+    private static CatalogChangeDTO change(long seq, Long productId, ChangeType type) {
+        return CatalogChangeDTO.builder()
+                .seq(seq)
+                .aggregateType(ChangeAggregateType.PRODUCT)
+                .aggregateId(productId)
+                .changeType(type)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static ProductStockLevelRow row(long id, int stockQuantity, ProductStatus status) {
+        ProductStockLevelRow row = mock(ProductStockLevelRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getSku()).thenReturn("SKU-" + id);
+        when(row.getStockQuantity()).thenReturn(stockQuantity);
+        when(row.getLowStockThreshold()).thenReturn(10);
+        when(row.getStatus()).thenReturn(status);
+        when(row.getUpdatedAt()).thenReturn(LocalDateTime.now());
+        return row;
+    }
+}
@@ -0,0 +1,61 @@
+package com.imad.service;
+
+import com.imad.cache.ProductDetailCache;
+import com.imad.dto.BulkUpdateChunkResultDTO;
+import com.imad.dto.ProductBulkUpdateItemDTO;
+import com.imad.dto.ProductBulkUpdateResultDTO;
+import com.imad.mapper.ProductMapper;
+import com.imad.repository.CategoryRepository;
+import com.imad.repository.ProductJdbcRepository;
+import com.imad.repository.ProductRepository;
+import com.imad.util.KeysetCursorCodec;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductBulkUpdateTest {
+
+    @Test
+    void failedChunkIsReportedAfterEarlierChunksWereApplied() {
+        ProductJdbcRepository productJdbcRepository = mock(ProductJdbcRepository.class);
+        when(productJdbcRepository.updateStockAndPrice(anyList(), eq(true))).thenReturn(Map.of());
+        // Premier lot appliqué, second lot en échec d'écriture
+        when(productJdbcRepository.updateStockAndPrice(anyList(), eq(false)))
+                .thenAnswer(invocation -> {
+                    List<ProductBulkUpdateItemDTO> items = invocation.getArgument(0);
+                    return items.stream().collect(Collectors.toMap(ProductBulkUpdateItemDTO::getId, item -> "SKU-" + item.getId()));
+                })
+                .thenThrow(new DataAccessResourceFailureException("connexion perdue"));
+
+        ProductService service = new ProductService(mock(ProductRepository.class), productJdbcRepository,
+                mock(CategoryRepository.class), mock(ProductMapper.class), mock(KeysetCursorCodec.class),
+                mock(ApplicationEventPublisher.class), mock(ProductFacetIndex.class), mock(ProductDetailCache.class),
+                mock(FlashSaleStockBuffer.class), new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory().getValidator());
+        List<ProductBulkUpdateItemDTO> items = LongStream.rangeClosed(1, 1500)
+                .mapToObj(id -> ProductBulkUpdateItemDTO.builder().id(id).stockQuantity(5).build())
+                .toList();
+
+        ProductBulkUpdateResultDTO result = service.bulkUpdateStockAndPrice(items);
+
+        assertThat(result.getUpdated()).isEqualTo(1000);
+        assertThat(result.getRejected()).isEqualTo(500);
+        assertThat(result.getChunks()).extracting(BulkUpdateChunkResultDTO::getError)
+                .containsExactly(null, "Erreur d'écriture du lot: connexion perdue");
+        assertThat(result.getChunks().get(1).getRejected()).first().asString().startsWith("1001: ");
+    }
+}
@@ -0,0 +1,259 @@
+package com.imad.service;
+
+import com.imad.dto.FacetValueDTO;
+import com.imad.dto.ProductFacetsDTO;
+import com.imad.dto.ProductFilterDTO;
+import com.imad.enums.ProductStatus;
+import com.imad.event.ProductChangedEvent;
+import com.imad.repository.CategoryRepository;
+import com.imad.repository.ProductFacetRow;
+import com.imad.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTest {
+
+    private static final List<String> BRANDS = List.of("Samsung", "samsung", "Sony", "Apple", "Nike");
+
+    private final Map<Long, Row> table = new HashMap<>();
+    private final Random random = new Random(42);
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(productRepository.streamAllFacetRows())
+                .thenAnswer(inv -> table.values().stream().map(ProductFacetRow.class::cast));
+        when(productRepository.findFacetRowsByIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().filter(table::containsKey).map(table::get).map(ProductFacetRow.class::cast).toList();
+        });
+        index = new ProductFacetIndex(productRepository, categoryRepository, mock(PlatformTransactionManager.class));
+
+        for (long id = 1; id <= 500; id++) {
+            table.put(id, randomRow(id));
+        }
+        index.load();
+    }
+
+    @Test
+    void unfilteredFacetsAreTheMaintainedCounts() {
+        ProductFacetsDTO facets = index.facets(new ProductFilterDTO());
+
+        assertThat(facets).isEqualTo(scan(new ProductFilterDTO()));
+        assertThat(facets.getTotal()).isEqualTo(500);
+        assertThat(facets.getBrands()).extracting(FacetValueDTO::getValue).containsOnly("samsung", "sony", "apple", "nike");
+        assertThat(facets.getBrands()).allSatisfy(brand -> assertThat(brand.getLabel()).isEqualToIgnoringCase(brand.getValue()));
+    }
+
+    @Test
+    void filteredFacetsMatchAFullScan() {
+        for (int i = 0; i < 200; i++) {
+            ProductFilterDTO filter = randomFilter();
+            assertThat(index.facets(filter)).as(filter.toString()).isEqualTo(scan(filter));
+        }
+    }
+
+    @Test
+    void writesKeepCountsInStep() {
+        for (int round = 0; round < 50; round++) {
+            long id = 1 + random.nextInt(600);
+            if (random.nextInt(4) == 0 && table.remove(id) != null) {
+                index.onProductChanged(ProductChangedEvent.deleted(id));
+            } else {
+                table.put(id, randomRow(id));
+                index.onProductChanged(ProductChangedEvent.updated(id));
+            }
+            ProductFilterDTO filter = randomFilter();
+            assertThat(index.facets(filter)).as(filter.toString()).isEqualTo(scan(filter));
+        }
+        assertThat(index.size()).isEqualTo(table.size());
+    }
+
+    @Test
+    void brandWithoutProductsDisappears() {
+        List<Long> nikeIds = table.values().stream()
+                .filter(row -> "Nike".equals(row.getBrand()))
+                .map(Row::getId)
+                .toList();
+        for (Long id : nikeIds) {
+            table.remove(id);
+            index.onProductChanged(ProductChangedEvent.deleted(id));
+        }
+
+        assertThat(index.brands()).doesNotContain("Nike");
+        assertThat(index.facets(new ProductFilterDTO()).getBrands())
+                .extracting(FacetValueDTO::getValue).doesNotContain("nike");
+    }
+
+    private Row randomRow(long id) {
+        return new Row(id,
+                random.nextInt(10) == 0 ? null : (long) random.nextInt(6),
+                random.nextInt(8) == 0 ? null : BRANDS.get(random.nextInt(BRANDS.size())),
+                ProductStatus.values()[random.nextInt(ProductStatus.values().length)],
+                BigDecimal.valueOf(random.nextInt(150_000), 2),
+                random.nextInt(5) == 0 ? null : BigDecimal.valueOf(random.nextInt(51), 1));
+    }
+
+    private ProductFilterDTO randomFilter() {
+        ProductFilterDTO filter = new ProductFilterDTO();
+        if (random.nextBoolean()) {
+            filter.setCategoryIds(List.of((long) random.nextInt(6), (long) random.nextInt(6)));
+        }
+        if (random.nextBoolean()) {
+            filter.setBrands(List.of(random.nextBoolean() ? "SAMSUNG" : "sony", "Unknown"));
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setStatus(ProductStatus.values()[random.nextInt(ProductStatus.values().length)]);
+        }
+        if (random.nextBoolean()) {
+            filter.setMinPrice(BigDecimal.valueOf(random.nextInt(800)));
+        }
+        if (random.nextBoolean()) {
+            filter.setMaxPrice(BigDecimal.valueOf(50 + random.nextInt(1200)));
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setMinRating(BigDecimal.valueOf(random.nextInt(40), 1));
+        }
+        if (random.nextInt(3) == 0) {
+            filter.setMaxRating(BigDecimal.valueOf(10 + random.nextInt(41), 1));
+        }
+        return filter;
+    }
+
+    // Référence : parcours complet des produits, chaque dimension comptée sans son propre filtre
+    private ProductFacetsDTO scan(ProductFilterDTO filter) {
+        Predicate<Row> category = row -> filter.getCategoryIds() == null
+                || (row.getCategoryId() != null && filter.getCategoryIds().contains(row.getCategoryId()));
+        Predicate<Row> status = row -> filter.getStatus() == null || filter.getStatus() == row.getStatus();
+        Predicate<Row> price = row -> (filter.getMinPrice() == null || row.getPrice().compareTo(filter.getMinPrice()) >= 0)
+                && (filter.getMaxPrice() == null || row.getPrice().compareTo(filter.getMaxPrice()) <= 0);
+        Predicate<Row> brand = row -> filter.getBrands() == null || (row.getBrand() != null && filter.getBrands().stream()
+                .anyMatch(b -> b.equalsIgnoreCase(row.getBrand())));
+        Predicate<Row> rating = row -> (filter.getMinRating() == null && filter.getMaxRating() == null)
+                || (row.getRating() != null
+                && (filter.getMinRating() == null || row.getRating().compareTo(filter.getMinRating()) >= 0)
+                && (filter.getMaxRating() == null || row.getRating().compareTo(filter.getMaxRating()) <= 0));
+
+        Map<String, Long> categories = new HashMap<>();
+        Map<String, Long> brands = new HashMap<>();
+        Map<String, Long> statuses = new HashMap<>();
+        Map<Integer, Long> prices = new TreeMap<>();
+        Map<String, Long> ratings = new TreeMap<>();
+        long total = 0;
+        for (Row row : table.values()) {
+            if (category.and(status).and(price).and(brand).and(rating).test(row)) {
+                total++;
+            }
+            if (status.and(price).and(brand).and(rating).test(row) && row.getCategoryId() != null) {
+                categories.merge(String.valueOf(row.getCategoryId()), 1L, Long::sum);
+            }
+            if (category.and(status).and(price).and(rating).test(row) && row.getBrand() != null) {
+                brands.merge(row.getBrand().toLowerCase(Locale.ROOT), 1L, Long::sum);
+            }
+            if (category.and(price).and(brand).and(rating).test(row)) {
+                statuses.merge(row.getStatus().name(), 1L, Long::sum);
+            }
+            if (category.and(status).and(brand).and(rating).test(row)) {
+                prices.merge(priceBucket(row.getPrice()), 1L, Long::sum);
+            }
+            if (category.and(status).and(price).and(brand).test(row)) {
+                String band = row.getRating() == null ? "none"
+                        : Math.min(row.getRating().intValue(), 4) + "-" + (Math.min(row.getRating().intValue(), 4) + 1);
+                ratings.merge(band, 1L, Long::sum);
+            }
+        }
+        String[] priceLabels = {"0-50", "50-100", "100-200", "200-500", "500-1000", "1000+"};
+        List<FacetValueDTO> statusValues = new ArrayList<>();
+        for (ProductStatus value : ProductStatus.values()) {
+            if (statuses.containsKey(value.name())) {
+                statusValues.add(facet(value.name(), value.name(), statuses.get(value.name())));
+            }
+        }
+        return ProductFacetsDTO.builder()
+                .total(total)
+                .categories(byCount(categories, false))
+                .brands(byCount(brands, true))
+                .statuses(statusValues)
+                .priceRanges(prices.entrySet().stream()
+                        .map(e -> facet(priceLabels[e.getKey()], priceLabels[e.getKey()], e.getValue())).toList())
+                .ratingBands(ratings.entrySet().stream().map(e -> facet(e.getKey(), e.getKey(), e.getValue())).toList())
+                .build();
+    }
+
+    private List<FacetValueDTO> byCount(Map<String, Long> counts, boolean brandLabels) {
+        return counts.entrySet().stream()
+                .map(e -> facet(e.getKey(), brandLabels ? brandLabel(e.getKey()) : e.getKey(), e.getValue()))
+                .sorted((a, b) -> a.getCount() != b.getCount() ? Long.compare(b.getCount(), a.getCount())
+                        : a.getLabel().compareTo(b.getLabel()))
+                .toList();
+    }
+
+    // Libellé retenu par l'index (premier produit chargé de la marque, vérifié à part)
+    private String brandLabel(String key) {
+        return index.facets(new ProductFilterDTO()).getBrands().stream()
+                .filter(value -> value.getValue().equals(key))
+                .findFirst().orElseThrow().getLabel();
+    }
+
+    private static int priceBucket(BigDecimal price) {
+        int[] bounds = {50, 100, 200, 500, 1000};
+        int bucket = 0;
+        for (int bound : bounds) {
+            if (price.compareTo(BigDecimal.valueOf(bound)) >= 0) {
+                bucket++;
+            }
+        }
+        return bucket;
+    }
+
+    private static FacetValueDTO facet(String value, String label, long count) {
+        return FacetValueDTO.builder().value(value).label(label).count(count).build();
+    }
+
+    private record Row(Long id, Long categoryId, String brand, ProductStatus status, BigDecimal price,
+                       BigDecimal rating) implements ProductFacetRow {
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        public String getBrand() {
+            return brand;
+        }
+
+        public ProductStatus getStatus() {
+            return status;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public BigDecimal getRating() {
+            return rating;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.imad.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.imad.dto.ProductCreateDTO;
+import com.imad.dto.ProductImportErrorDTO;
+import com.imad.dto.ProductImportResultDTO;
+import com.imad.repository.CategoryRepository;
+import com.imad.repository.ProductJdbcRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceTest {
+
+    private ProductJdbcRepository productJdbcRepository;
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        productJdbcRepository = mock(ProductJdbcRepository.class);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        when(productJdbcRepository.findExistingSkus(anyCollection())).thenReturn(Set.of("EXISTING"));
+        // Chaque produit reçu est "inséré" avec un ID fictif
+        when(productJdbcRepository.insertProducts(anyList())).thenAnswer(invocation -> {
+            List<ProductCreateDTO> products = invocation.getArgument(0);
+            return products.stream().collect(Collectors.toMap(ProductCreateDTO::getSku, p -> (long) p.getSku().hashCode()));
+        });
+
+        importService = new ProductImportService(productJdbcRepository, categoryRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void ndjsonImportReportsEachRejectedLine() throws Exception {
+        String ndjson = """
+                {"name":"Clavier","sku":"KB-1","price":49.90,"stockQuantity":5,"categoryId":1}
+                {"name":"Clavier bis","sku":"KB-1","price":49.90,"stockQuantity":5}
+
+                {"name":"Souris","sku":"MS-1","price":20,"discountPrice":25,"stockQuantity":5}
+                {"name":"Écran","sku":"SC-1","price":"abc","stockQuantity":5}
+                {"name":"Câble","sku":"CB-1","price":5,"stockQuantity":5,"categoryId":99}
+                {"name":"Ancien","sku":"EXISTING","price":5,"stockQuantity":5}
+                pas du json
+                """;
+
+        ProductImportResultDTO result = importService.importNdjson(stream(ndjson));
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(6);
+        assertThat(result.getErrors()).extracting(ProductImportErrorDTO::getLine)
+                .containsExactlyInAnyOrder(2L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(result.getErrors()).extracting(ProductImportErrorDTO::getMessage)
+                .contains("SKU en double dans le fichier",
+                        "Le prix réduit doit être inférieur au prix normal",
+                        "Valeur invalide pour le champ 'price'",
+                        "Catégorie non trouvée avec l'ID: 99",
+                        "Un produit avec le SKU 'EXISTING' existe déjà");
+    }
+
+    @Test
+    void csvImportSplitsImagesAndStopsAtBrokenStructure() throws Exception {
+        String csv = """
+                name,sku,price,stockQuantity,images
+                Chaise,CH-1,49.90,3,https://cdn.example.com/a.jpg|https://cdn.example.com/b.jpg
+                Table,TB-1,120,1,
+                "Lampe,LP-1,12,0,
+                """;
+
+        ProductImportResultDTO result = importService.importCsv(stream(csv));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getLine()).isEqualTo(4);
+        verify(productJdbcRepository).insertImages(Map.of(
+                (long) "CH-1".hashCode(), List.of("https://cdn.example.com/a.jpg", "https://cdn.example.com/b.jpg")));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
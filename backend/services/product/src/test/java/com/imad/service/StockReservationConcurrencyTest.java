@@ -0,0 +1,214 @@
+package com.imad.service;
+
+import com.imad.PostgresTestDatabase;
+import com.imad.cache.ProductDetailCache;
+import com.imad.dto.StockReservationRequestDTO;
+import com.imad.entity.Product;
+import com.imad.enums.ProductStatus;
+import com.imad.exception.InsufficientStockException;
+import com.imad.mapper.CategoryMapperImpl;
+import com.imad.mapper.ProductMapperImpl;
+import com.imad.mapper.StockReservationMapperImpl;
+import com.imad.repository.ProductJdbcRepository;
+import com.imad.repository.ProductRepository;
+import com.imad.repository.StockReservationRepository;
+import com.imad.util.KeysetCursorCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Réservations concurrentes sur un produit très demandé : jamais de survente.
+// PostgreSQL embarqué, schéma posé par Flyway : mêmes verrous de ligne qu'en production
+@DataJpaTest(showSql = false, properties = {
+        "spring.cloud.config.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "product.stock.flash-sale.block-size=25",
+        "logging.level.com.imad.service.StockReservationService=WARN",
+        "logging.level.com.imad.service.ProductService=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StockReservationService.class, FlashSaleStockBuffer.class, StockReservationMapperImpl.class,
+        ProductService.class, ProductJdbcRepository.class, ProductMapperImpl.class, CategoryMapperImpl.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@MockBean({ProductFacetIndex.class, ProductDetailCache.class, KeysetCursorCodec.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class StockReservationConcurrencyTest {
+
+    private static final int STOCK = 2_000;
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS = 10_000;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private FlashSaleStockBuffer flashSaleBuffer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    // Les produits d'exemple de Flyway (V2) restent en place
+    private final List<Long> createdProductIds = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, "stock_reservation");
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationRepository.deleteAll();
+        productRepository.deleteAllById(createdProductIds);
+        createdProductIds.clear();
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Long productId = createProduct("HOT-1");
+
+        assertThat(runReservations(productId)).isEqualTo(STOCK);
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.getStockQuantity()).isZero();
+        assertThat(product.getStatus()).isEqualTo(ProductStatus.OUT_OF_STOCK);
+        assertThat(reservationRepository.count()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void flashSaleBufferNeverOversells() throws Exception {
+        Long productId = createProduct("HOT-2");
+        flashSaleBuffer.enable(productId);
+        try {
+            assertThat(runReservations(productId)).isEqualTo(STOCK);
+        } finally {
+            flashSaleBuffer.disable(productId);
+        }
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.getStockQuantity()).isZero();
+        assertThat(reservationRepository.count()).isEqualTo(STOCK);
+    }
+
+    @Test
+    void absoluteStockUpdateReplacesUnitsHeldByTheFlashSaleBuffer() {
+        Long productId = createProduct("HOT-4");
+        flashSaleBuffer.enable(productId);
+        try {
+            // La première réservation retire un bloc de 25 unités : 24 restent en mémoire
+            reservationService.reserve(productId, request(1));
+            assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isEqualTo(STOCK - 25);
+
+            productService.updateStock(productId, 10);
+
+            int accepted = 0;
+            try {
+                while (accepted <= 10) {
+                    reservationService.reserve(productId, request(1));
+                    accepted++;
+                }
+            } catch (InsufficientStockException expected) {
+                // stock épuisé
+            }
+            assertThat(accepted).isEqualTo(10);
+        } finally {
+            flashSaleBuffer.disable(productId);
+        }
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.getStockQuantity()).isZero();
+        assertThat(product.getStatus()).isEqualTo(ProductStatus.OUT_OF_STOCK);
+    }
+
+    @Test
+    void releaseRestoresStockAndStatus() {
+        Long productId = createProduct("HOT-3");
+        Long reservationId = reservationService.reserve(productId, request(STOCK)).getId();
+        assertThat(productRepository.findById(productId).orElseThrow().getStatus())
+                .isEqualTo(ProductStatus.OUT_OF_STOCK);
+
+        reservationService.release(reservationId);
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.getStockQuantity()).isEqualTo(STOCK);
+        assertThat(product.getStatus()).isEqualTo(ProductStatus.ACTIVE);
+    }
+
+    // Retourne le nombre de réservations acceptées
+    private int runReservations(Long productId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reservationService.reserve(productId, request(1));
+                        accepted.incrementAndGet();
+                    } catch (InsufficientStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            log.info("{} tentatives en {} s ({} réservations/s)", ATTEMPTS,
+                    String.format("%.2f", seconds), Math.round(ATTEMPTS / seconds));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(accepted.get() + rejected.get()).isEqualTo(ATTEMPTS);
+        return accepted.get();
+    }
+
+    private Long createProduct(String sku) {
+        Long id = productRepository.save(Product.builder()
+                .name("Produit " + sku)
+                .sku(sku)
+                .price(new BigDecimal("19.99"))
+                .stockQuantity(STOCK)
+                .build()).getId();
+        createdProductIds.add(id);
+        return id;
+    }
+
+    private static StockReservationRequestDTO request(int quantity) {
+        return StockReservationRequestDTO.builder().quantity(quantity).build();
+    }
+}